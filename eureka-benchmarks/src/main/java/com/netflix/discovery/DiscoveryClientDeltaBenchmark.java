@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.discovery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.ActionType;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.MyDataCenterInstanceConfig;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.resolver.EurekaEndpoint;
+import com.netflix.discovery.shared.transport.EurekaHttpClient;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.discovery.shared.transport.TransportClientFactory;
+import com.netflix.discovery.shared.transport.jersey.EurekaJerseyClient;
+import com.netflix.discovery.shared.transport.jersey.TransportClientFactories;
+import com.netflix.discovery.util.EurekaEntityFunctions;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.netflix.discovery.shared.transport.EurekaHttpResponse.anEurekaHttpResponse;
+
+/**
+ * Measures a single {@link DiscoveryClient} registry refresh cycle, that applies a delta of modified instances
+ * to the locally cached registry (see {@code DiscoveryClient#updateDelta}), recomputes the reconcile hash code,
+ * and re-shuffles the instances. The transport layer is replaced with an in-memory client, so neither HTTP
+ * nor payload decoding costs are included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DiscoveryClientDeltaBenchmark {
+
+    private static final String NAMESPACE = "eurekaBenchmark.";
+    private static final int APP_COUNT = 500;
+
+    @Param({"10000", "50000", "200000"})
+    public int instanceCount;
+
+    @Param({"10", "1000"})
+    public int deltaSize;
+
+    private DiscoveryClient client;
+
+    @Setup
+    public void setUp() {
+        ConfigurationManager.getConfigInstance().setProperty(NAMESPACE + "serviceUrl.default", "http://localhost:8080/eureka/v2/");
+        ConfigurationManager.getConfigInstance().setProperty(NAMESPACE + "registration.enabled", "false");
+        ConfigurationManager.getConfigInstance().setProperty(NAMESPACE + "shouldFetchRegistry", "true");
+        // Refresh is driven by the benchmark only
+        ConfigurationManager.getConfigInstance().setProperty(NAMESPACE + "client.refresh.interval", Integer.toString(24 * 3600));
+
+        Applications fullRegistry = InstanceInfoGenerator.newBuilder(instanceCount, APP_COUNT)
+                .withMetaData(true).build().toApplications();
+        Applications delta = createDelta(fullRegistry, deltaSize);
+
+        DiscoveryClient.DiscoveryClientOptionalArgs args = new DiscoveryClient.DiscoveryClientOptionalArgs();
+        args.setTransportClientFactories(new InMemoryTransportClientFactories(new InMemoryEurekaHttpClient(fullRegistry, delta)));
+
+        ApplicationInfoManager applicationInfoManager = new ApplicationInfoManager(new MyDataCenterInstanceConfig(NAMESPACE));
+        client = new DiscoveryClient(applicationInfoManager, new DefaultEurekaClientConfig(NAMESPACE), args);
+        if (client.getApplications().size() != instanceCount) {
+            throw new IllegalStateException("Initial full registry fetch failed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+    }
+
+    @Benchmark
+    public Applications refreshWithDelta() {
+        client.refreshRegistry();
+        return client.getApplications();
+    }
+
+    /**
+     * Delta with copies of the given number of instances, marked as modified, with no status change, so the
+     * reconcile hash code stays the same, and no full registry fetch is triggered.
+     */
+    private static Applications createDelta(Applications fullRegistry, int deltaSize) {
+        List<InstanceInfo> allInstances = new ArrayList<>(EurekaEntityFunctions.selectAll(fullRegistry));
+        int step = Math.max(1, allInstances.size() / deltaSize);
+
+        Applications delta = new Applications();
+        for (int i = 0; i < deltaSize && i * step < allInstances.size(); i++) {
+            InstanceInfo modified = new InstanceInfo(allInstances.get(i * step));
+            modified.setActionType(ActionType.MODIFIED);
+            modified.setStatusWithoutDirty(InstanceStatus.UP);
+            Application app = delta.getRegisteredApplications(modified.getAppName());
+            if (app == null) {
+                app = new Application(modified.getAppName());
+                delta.addApplication(app);
+            }
+            app.addInstance(modified);
+        }
+        delta.setAppsHashCode(fullRegistry.getReconcileHashCode());
+        delta.setVersion(fullRegistry.getVersion() + 1);
+        return delta;
+    }
+
+    private static class InMemoryTransportClientFactories implements TransportClientFactories<Object> {
+
+        private final EurekaHttpClient eurekaHttpClient;
+
+        InMemoryTransportClientFactories(EurekaHttpClient eurekaHttpClient) {
+            this.eurekaHttpClient = eurekaHttpClient;
+        }
+
+        @Override
+        public TransportClientFactory newTransportClientFactory(Collection<Object> additionalFilters,
+                                                                EurekaJerseyClient providedJerseyClient) {
+            return newTransportClientFactory(null, additionalFilters, null);
+        }
+
+        @Override
+        public TransportClientFactory newTransportClientFactory(EurekaClientConfig clientConfig,
+                                                                Collection<Object> additionalFilters,
+                                                                InstanceInfo myInstanceInfo) {
+            return new TransportClientFactory() {
+                @Override
+                public EurekaHttpClient newClient(EurekaEndpoint serviceUrl) {
+                    return eurekaHttpClient;
+                }
+
+                @Override
+                public void shutdown() {
+                }
+            };
+        }
+    }
+
+    private static class InMemoryEurekaHttpClient implements EurekaHttpClient {
+
+        private final Applications fullRegistry;
+        private final Applications delta;
+
+        InMemoryEurekaHttpClient(Applications fullRegistry, Applications delta) {
+            this.fullRegistry = fullRegistry;
+            this.delta = delta;
+        }
+
+        @Override
+        public EurekaHttpResponse<Applications> getApplications(String... regions) {
+            return anEurekaHttpResponse(200, fullRegistry).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<Applications> getDelta(String... regions) {
+            return anEurekaHttpResponse(200, delta).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<Applications> longPollDelta(long lastSeenVersion, long maxWaitMs, String... regions) {
+            return anEurekaHttpResponse(200, delta).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<Applications> getDeltaSince(long sinceVersion, long maxWaitMs, String... regions) {
+            return anEurekaHttpResponse(200, delta).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<Void> register(InstanceInfo info) {
+            return EurekaHttpResponse.status(204);
+        }
+
+        @Override
+        public EurekaHttpResponse<Void> cancel(String appName, String id) {
+            return EurekaHttpResponse.status(200);
+        }
+
+        @Override
+        public EurekaHttpResponse<InstanceInfo> sendHeartBeat(String appName, String id, InstanceInfo info, InstanceStatus overriddenStatus) {
+            return anEurekaHttpResponse(200, InstanceInfo.class).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<Void> statusUpdate(String appName, String id, InstanceStatus newStatus, InstanceInfo info) {
+            return EurekaHttpResponse.status(200);
+        }
+
+        @Override
+        public EurekaHttpResponse<Void> deleteStatusOverride(String appName, String id, InstanceInfo info) {
+            return EurekaHttpResponse.status(200);
+        }
+
+        @Override
+        public EurekaHttpResponse<Applications> getVip(String vipAddress, String... regions) {
+            return anEurekaHttpResponse(404, Applications.class).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<Applications> getSecureVip(String secureVipAddress, String... regions) {
+            return anEurekaHttpResponse(404, Applications.class).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<Application> getApplication(String appName) {
+            return anEurekaHttpResponse(404, Application.class).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<InstanceInfo> getInstance(String appName, String id) {
+            return anEurekaHttpResponse(404, InstanceInfo.class).build();
+        }
+
+        @Override
+        public EurekaHttpResponse<InstanceInfo> getInstance(String id) {
+            return anEurekaHttpResponse(404, InstanceInfo.class).build();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.discovery.converters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full registry decode with {@link EurekaJacksonCodec}, streaming straight from the token stream, against
+ * the same payload first read into a {@link JsonNode} tree, which is what the deserializers used to do for
+ * every entity. Run with the GC profiler to compare allocation rates as well:
+ * <pre>
+ *     ./gradlew :eureka-benchmarks:jmh -PjmhArgs='EurekaJacksonCodecBenchmark -prof gc'
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EurekaJacksonCodecBenchmark {
+
+    private static final int APP_COUNT = 500;
+
+    @Param({"10000", "50000", "200000"})
+    public int instanceCount;
+
+    private EurekaJacksonCodec codec;
+    private byte[] encodedBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = new EurekaJacksonCodec();
+        Applications applications = InstanceInfoGenerator.newBuilder(instanceCount, Math.min(APP_COUNT, instanceCount))
+                .withMetaData(true)
+                .build()
+                .toApplications();
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        codec.writeTo(applications, bos);
+        encodedBytes = bos.toByteArray();
+    }
+
+    @Benchmark
+    public Applications decodeStreaming() throws IOException {
+        return codec.readValue(Applications.class, new ByteArrayInputStream(encodedBytes));
+    }
+
+    @Benchmark
+    public Applications decodeViaTree() throws IOException {
+        JsonNode root = codec.getMapper().readTree(new ByteArrayInputStream(encodedBytes));
+        return codec.getMapper().treeToValue(root.get("applications"), Applications.class);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.discovery.converters.wrappers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures full registry encoding/decoding with each codec registered in {@link CodecWrappers}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CodecWrappersBenchmark {
+
+    private static final int APP_COUNT = 500;
+
+    @Param({"JacksonJson", "JacksonJsonMini", "LegacyJacksonJson", "XStreamJson",
+            "JacksonXml", "JacksonXmlMini", "XStreamXml", "EurekaBinary"})
+    public String codecName;
+
+    @Param({"10000", "50000", "200000"})
+    public int instanceCount;
+
+    private CodecWrapper codec;
+    private Applications applications;
+    private String encodedText;
+    private byte[] encodedBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = CodecWrappers.getCodec(codecName);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown codec " + codecName);
+        }
+        applications = InstanceInfoGenerator.newBuilder(instanceCount, Math.min(APP_COUNT, instanceCount))
+                .withMetaData(true)
+                .build()
+                .toApplications();
+
+        encodedText = codec.encode(applications);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(encodedText.length());
+        codec.encode(applications, bos);
+        encodedBytes = bos.toByteArray();
+    }
+
+    @Benchmark
+    public String encodeToString() throws IOException {
+        return codec.encode(applications);
+    }
+
+    @Benchmark
+    public int encodeToStream() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(encodedBytes.length);
+        codec.encode(applications, bos);
+        return bos.size();
+    }
+
+    @Benchmark
+    public Applications decodeFromString() throws IOException {
+        return codec.decode(encodedText, Applications.class);
+    }
+
+    @Benchmark
+    public Applications decodeFromStream() throws IOException {
+        return codec.decode(new ByteArrayInputStream(encodedBytes), Applications.class);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.discovery.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Instance lookup by vip address and application name, as done by
+ * {@code DiscoveryClient#getInstancesByVipAddressAndAppName}, using the per application vip index against
+ * a scan over all registered instances, which is how the lookup used to be done.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class VipAndAppNameLookupBenchmark {
+
+    private static final int APP_COUNT = 500;
+
+    @Param({"10000", "100000"})
+    public int instanceCount;
+
+    private Applications applications;
+    private String[] appNames;
+    private String[] vipAddresses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        applications = InstanceInfoGenerator.newBuilder(instanceCount, APP_COUNT).build().toApplications();
+        applications.shuffleInstances(true);
+
+        List<Application> registeredApps = applications.getRegisteredApplications();
+        appNames = new String[registeredApps.size()];
+        vipAddresses = new String[registeredApps.size()];
+        for (int i = 0; i < appNames.length; i++) {
+            InstanceInfo instance = registeredApps.get(i).getInstances().get(0);
+            appNames[i] = instance.getAppName();
+            vipAddresses[i] = instance.getVIPAddress();
+        }
+    }
+
+    @Benchmark
+    public List<InstanceInfo> indexedLookup() {
+        int idx = nextIndex();
+        return applications.getInstancesByVirtualHostNameAndAppName(vipAddresses[idx], appNames[idx], false);
+    }
+
+    @Benchmark
+    public List<InstanceInfo> scanLookup() {
+        int idx = nextIndex();
+        String vipAddress = vipAddresses[idx];
+        String appName = appNames[idx];
+
+        List<InstanceInfo> result = new ArrayList<InstanceInfo>();
+        for (Application app : applications.getRegisteredApplications()) {
+            for (InstanceInfo instance : app.getInstances()) {
+                String instanceVipAddress = instance.getVIPAddress();
+                if (instanceVipAddress == null) {
+                    continue;
+                }
+                for (String vipAddressFromList : instanceVipAddress.split(",")) {
+                    if (vipAddress.equalsIgnoreCase(vipAddressFromList.trim())
+                            && appName.equalsIgnoreCase(instance.getAppName())) {
+                        result.add(instance);
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % appNames.length;
+        return next;
+    }
+}
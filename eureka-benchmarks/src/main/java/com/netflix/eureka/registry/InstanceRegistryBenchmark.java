@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.eureka.registry;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of lease operations in {@link AbstractInstanceRegistry} for different registry sizes.
+ * Registry operations go through {@link PeerAwareInstanceRegistryImpl}, with no peers configured, so the
+ * replication layer overhead is included, but no network traffic is generated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InstanceRegistryBenchmark {
+
+    private static final int APP_COUNT = 500;
+
+    @Param({"10000", "50000", "200000"})
+    public int instanceCount;
+
+    private InstanceRegistryFixture fixture;
+    private PeerAwareInstanceRegistryImpl registry;
+    private List<InstanceInfo> instances;
+    private int nextIdx;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new InstanceRegistryFixture(instanceCount, APP_COUNT);
+        registry = fixture.getRegistry();
+        instances = fixture.getInstances();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.shutdown();
+    }
+
+    private InstanceInfo nextInstance() {
+        InstanceInfo next = instances.get(nextIdx);
+        nextIdx = (nextIdx + 1) % instances.size();
+        return next;
+    }
+
+    @Benchmark
+    public void register() {
+        registry.register(nextInstance(), InstanceRegistryFixture.LEASE_DURATION_SECS, false);
+    }
+
+    @Benchmark
+    public boolean renew() {
+        InstanceInfo instance = nextInstance();
+        return registry.renew(instance.getAppName(), instance.getId(), false);
+    }
+
+    /**
+     * Each cancel is followed by a registration of the same instance, to keep the registry size constant.
+     */
+    @Benchmark
+    public boolean cancelAndRegister() {
+        InstanceInfo instance = nextInstance();
+        boolean cancelled = registry.cancel(instance.getAppName(), instance.getId(), false);
+        registry.register(instance, InstanceRegistryFixture.LEASE_DURATION_SECS, false);
+        return cancelled;
+    }
+
+    /**
+     * The common case, where no lease is expired, and the registry is scanned for nothing.
+     */
+    @Benchmark
+    public void evictNoneExpired() {
+        registry.evict();
+    }
+
+    /**
+     * Eviction of a registry, with a fraction of its leases expired. Expired leases are re-created
+     * before each invocation.
+     */
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public void evictExpired(ExpiredLeases expiredLeases) {
+        registry.evict();
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExpiredLeases {
+
+        @Param({"100"})
+        public int expiredCount;
+
+        private List<InstanceInfo> expiring;
+
+        @Setup(Level.Iteration)
+        public void setUp(InstanceRegistryBenchmark benchmark) throws InterruptedException {
+            if (expiring == null) {
+                expiring = InstanceInfoGenerator.newBuilder(expiredCount, "expiringApp").build().toInstanceList();
+            }
+            for (InstanceInfo instance : expiring) {
+                benchmark.registry.register(instance, 0, false);
+            }
+            // Zero duration leases are expired once the clock moves past their registration time
+            Thread.sleep(2);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.eureka.registry;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInstanceConfig;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.discovery.DefaultEurekaClientConfig;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import com.netflix.eureka.DefaultEurekaServerConfig;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.cluster.PeerEurekaNodes;
+import com.netflix.eureka.resources.DefaultServerCodecs;
+import com.netflix.eureka.resources.ServerCodecs;
+
+/**
+ * Creates a fully initialized {@link PeerAwareInstanceRegistryImpl} without any peers, pre-populated with
+ * instances from {@link InstanceInfoGenerator}.
+ */
+public class InstanceRegistryFixture {
+
+    /**
+     * Leases must not expire while a benchmark is running, unless explicitly requested.
+     */
+    public static final int LEASE_DURATION_SECS = 24 * 60 * 60;
+
+    private final PeerAwareInstanceRegistryImpl registry;
+    private final PeerEurekaNodes peerEurekaNodes;
+    private final List<InstanceInfo> instances;
+
+    public InstanceRegistryFixture(int instanceCount, int appCount) throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.enableSelfPreservation", "false");
+        ConfigurationManager.getConfigInstance().setProperty("eureka.shouldUseReadOnlyResponseCache", "false");
+
+        EurekaServerConfig serverConfig = new DefaultEurekaServerConfig();
+        EurekaClientConfig clientConfig = new DefaultEurekaClientConfig();
+        ServerCodecs serverCodecs = new DefaultServerCodecs(serverConfig);
+        // Also initializes ApplicationInfoManager singleton, required by EurekaMonitors
+        ApplicationInfoManager applicationInfoManager = new ApplicationInfoManager(new MyDataCenterInstanceConfig());
+
+        this.registry = new PeerAwareInstanceRegistryImpl(serverConfig, clientConfig, serverCodecs, null);
+        this.peerEurekaNodes = new PeerEurekaNodes(registry, serverConfig, clientConfig, serverCodecs, applicationInfoManager) {
+            @Override
+            protected List<String> resolvePeerUrls() {
+                return Collections.emptyList();
+            }
+        };
+        peerEurekaNodes.start();
+        registry.init(peerEurekaNodes);
+
+        this.instances = InstanceInfoGenerator.newBuilder(instanceCount, appCount).withMetaData(true).build().toInstanceList();
+        for (InstanceInfo instance : instances) {
+            registry.register(instance, LEASE_DURATION_SECS, false);
+        }
+    }
+
+    public PeerAwareInstanceRegistryImpl getRegistry() {
+        return registry;
+    }
+
+    public List<InstanceInfo> getInstances() {
+        return instances;
+    }
+
+    public void shutdown() {
+        registry.shutdown();
+    }
+}
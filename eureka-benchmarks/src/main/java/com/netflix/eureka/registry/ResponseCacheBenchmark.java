@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.eureka.registry;
+
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.eureka.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ResponseCacheImpl#getBytes(Key)} and {@link ResponseCacheImpl#getGZIP(Key)} for the full registry
+ * key, both when the payload is cached, and when it must be regenerated after an invalidation caused by a
+ * single instance change. The read-only cache layer is disabled, so each invalidation is immediately visible.
+ * Full registry payload generation is measured with and without incremental payload assembly
+ * (see {@link com.netflix.eureka.EurekaServerConfig#shouldUseIncrementalPayloadAssembly()}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ResponseCacheBenchmark {
+
+    private static final int APP_COUNT = 500;
+
+    @Param({"10000", "50000", "200000"})
+    public int instanceCount;
+
+    @Param({"JSON", "XML"})
+    public Key.KeyType keyType;
+
+    @Param({"full", "compact"})
+    public EurekaAccept eurekaAccept;
+
+    @Param({"false", "true"})
+    public boolean incrementalPayloadAssembly;
+
+    private InstanceRegistryFixture fixture;
+    private ResponseCache responseCache;
+    private Key allAppsKey;
+    private Key deltaKey;
+    private InstanceInfo changedInstance;
+
+    @Setup
+    public void setUp() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.shouldUseIncrementalPayloadAssembly",
+                Boolean.toString(incrementalPayloadAssembly));
+        fixture = new InstanceRegistryFixture(instanceCount, APP_COUNT);
+        responseCache = fixture.getRegistry().getResponseCache();
+        allAppsKey = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS, keyType, Version.V2, eurekaAccept);
+        deltaKey = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS_DELTA, keyType, Version.V2, eurekaAccept);
+        changedInstance = fixture.getInstances().get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.shutdown();
+    }
+
+    private void invalidate() {
+        responseCache.invalidate(changedInstance.getAppName(), changedInstance.getVIPAddress(),
+                changedInstance.getSecureVipAddress());
+    }
+
+    @Benchmark
+    public byte[] getCached() {
+        return responseCache.getBytes(allAppsKey);
+    }
+
+    @Benchmark
+    public byte[] getGZIPCached() {
+        return responseCache.getGZIP(allAppsKey);
+    }
+
+    @Benchmark
+    public byte[] getAfterInvalidate() {
+        invalidate();
+        return responseCache.getBytes(allAppsKey);
+    }
+
+    @Benchmark
+    public byte[] getGZIPAfterInvalidate() {
+        invalidate();
+        return responseCache.getGZIP(allAppsKey);
+    }
+
+    @Benchmark
+    public byte[] getDeltaAfterInvalidate() {
+        invalidate();
+        return responseCache.getBytes(deltaKey);
+    }
+}
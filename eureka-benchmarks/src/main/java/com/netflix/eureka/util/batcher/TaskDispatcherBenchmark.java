@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.eureka.util.batcher;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time from submitting tasks to a {@link TaskDispatcher} until a worker has processed them, with a
+ * processor that does no work, so only the dispatching overhead is measured. {@code singleTaskLatency} submits
+ * one task to a non batching dispatcher, and {@code batchThroughput} submits a burst of distinct tasks to a
+ * batching dispatcher, and waits for all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TaskDispatcherBenchmark {
+
+    private static final int MAX_BUFFER_SIZE = 10000;
+    private static final int BATCH_SIZE = 250;
+    private static final long RETRY_DELAY_MS = 100;
+    private static final long EXPIRY_MS = 60 * 1000;
+
+    @Param({"1", "8"})
+    public int workerCount;
+
+    @Param({"1000"})
+    public int burstSize;
+
+    private final Semaphore processed = new Semaphore(0);
+    private TaskDispatcher<Integer, Integer> nonBatchingDispatcher;
+    private TaskDispatcher<Integer, Integer> batchingDispatcher;
+
+    @Setup
+    public void setUp() {
+        TaskProcessor<Integer> processor = new TaskProcessor<Integer>() {
+            @Override
+            public ProcessingResult process(Integer task) {
+                processed.release();
+                return ProcessingResult.Success;
+            }
+
+            @Override
+            public ProcessingResult process(List<Integer> tasks) {
+                processed.release(tasks.size());
+                return ProcessingResult.Success;
+            }
+        };
+        nonBatchingDispatcher = TaskDispatchers.createNonBatchingTaskDispatcher(
+                "benchmarkSingle", MAX_BUFFER_SIZE, workerCount, 0, RETRY_DELAY_MS, RETRY_DELAY_MS, processor);
+        batchingDispatcher = TaskDispatchers.createBatchingTaskDispatcher(
+                "benchmarkBatch", MAX_BUFFER_SIZE, BATCH_SIZE, workerCount, 0, RETRY_DELAY_MS, RETRY_DELAY_MS, processor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        nonBatchingDispatcher.shutdown();
+        batchingDispatcher.shutdown();
+    }
+
+    @Benchmark
+    public void singleTaskLatency() throws InterruptedException {
+        nonBatchingDispatcher.process(0, 0, System.currentTimeMillis() + EXPIRY_MS);
+        processed.acquire();
+    }
+
+    @Benchmark
+    public void batchThroughput() throws InterruptedException {
+        long expiryTime = System.currentTimeMillis() + EXPIRY_MS;
+        for (int i = 0; i < burstSize; i++) {
+            batchingDispatcher.process(i, i, expiryTime);
+        }
+        processed.acquire(burstSize);
+    }
+}
@@ -165,6 +165,18 @@ public class EurekaArchaius2ClientConfig implements EurekaClientConfig {
         return prefixedConfig.getBoolean(SHOULD_FILTER_ONLY_UP_INSTANCES_KEY, true);
     }
 
+    public boolean shouldUseRegistrySnapshots() {
+        return prefixedConfig.getBoolean(SHOULD_USE_REGISTRY_SNAPSHOTS_KEY, false);
+    }
+
+    public boolean shouldUseDeltaLongPolling() {
+        return prefixedConfig.getBoolean(SHOULD_USE_DELTA_LONG_POLLING_KEY, false);
+    }
+
+    public boolean shouldUseVersionedDelta() {
+        return prefixedConfig.getBoolean(SHOULD_USE_VERSIONED_DELTA_KEY, false);
+    }
+
     public int getEurekaConnectionIdleTimeoutSeconds() {
         return prefixedConfig.getInteger(EUREKA_SERVER_CONNECTION_IDLE_TIMEOUT_KEY, 30);
     }
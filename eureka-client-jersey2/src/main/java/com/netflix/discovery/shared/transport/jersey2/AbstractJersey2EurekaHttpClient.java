@@ -214,6 +214,24 @@ public abstract class AbstractJersey2EurekaHttpClient implements EurekaHttpClien
         return getApplicationsInternal("apps/delta", regions);
     }
 
+    @Override
+    public EurekaHttpResponse<Applications> longPollDelta(long lastSeenVersion, long maxWaitMs, String... regions) {
+        Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("lastSeenVersion", Long.toString(lastSeenVersion));
+        queryParams.put("maxWaitMs", Long.toString(maxWaitMs));
+        return getApplicationsInternal("apps/delta", regions, queryParams);
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getDeltaSince(long sinceVersion, long maxWaitMs, String... regions) {
+        Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("since", Long.toString(sinceVersion));
+        if (maxWaitMs > 0) {
+            queryParams.put("maxWaitMs", Long.toString(maxWaitMs));
+        }
+        return getApplicationsInternal("apps/delta", regions, queryParams);
+    }
+
     @Override
     public EurekaHttpResponse<Applications> getVip(String vipAddress, String... regions) {
         return getApplicationsInternal("vips/" + vipAddress, regions);
@@ -250,12 +268,20 @@ public abstract class AbstractJersey2EurekaHttpClient implements EurekaHttpClien
     }
 
     private EurekaHttpResponse<Applications> getApplicationsInternal(String urlPath, String[] regions) {
+        return getApplicationsInternal(urlPath, regions, Collections.<String, String>emptyMap());
+    }
+
+    private EurekaHttpResponse<Applications> getApplicationsInternal(String urlPath, String[] regions,
+                                                                     Map<String, String> queryParams) {
         Response response = null;
         try {
             WebTarget webTarget = jerseyClient.target(serviceUrl).path(urlPath);
             if (regions != null && regions.length > 0) {
                 webTarget = webTarget.queryParam("regions", StringUtil.join(regions));
             }
+            for (Entry<String, String> queryParam : queryParams.entrySet()) {
+                webTarget = webTarget.queryParam(queryParam.getKey(), queryParam.getValue());
+            }
             Builder requestBuilder = webTarget.request();
             addExtraProperties(requestBuilder);
             addExtraHeaders(requestBuilder);
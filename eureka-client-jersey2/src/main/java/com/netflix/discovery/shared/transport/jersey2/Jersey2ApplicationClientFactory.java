@@ -166,7 +166,7 @@ public class Jersey2ApplicationClientFactory implements TransportClientFactory {
             if (allowRedirect) {
                 additionalHeaders.add(HTTP_X_DISCOVERY_ALLOW_REDIRECT, "true");
             }
-            if (EurekaAccept.compact == eurekaAccept) {
+            if (eurekaAccept != null && EurekaAccept.full != eurekaAccept) {
                 additionalHeaders.add(EurekaAccept.HTTP_X_EUREKA_ACCEPT, eurekaAccept.name());
             }
 
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.EurekaBinary;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJson;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJsonMini;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonXml;
@@ -17,7 +18,7 @@ import com.netflix.discovery.converters.wrappers.DecoderWrapper;
  * @author David Liu
  */
 public enum EurekaAccept {
-    full, compact;
+    full, compact, binary;
 
     public static final String HTTP_X_EUREKA_ACCEPT = "X-Eureka-Accept";
 
@@ -32,6 +33,8 @@ public enum EurekaAccept {
 
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonJsonMini.class), compact);
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonXmlMini.class), compact);
+
+        decoderNameToAcceptMap.put(CodecWrappers.getCodecName(EurekaBinary.class), binary);
     }
 
     public static EurekaAccept getClientAccept(DecoderWrapper decoderWrapper) {
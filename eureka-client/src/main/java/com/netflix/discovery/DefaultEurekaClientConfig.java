@@ -394,6 +394,42 @@ public class DefaultEurekaClientConfig implements EurekaClientConfig {
                 namespace + SHOULD_FILTER_ONLY_UP_INSTANCES_KEY, true).get();
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.netflix.discovery.EurekaClientConfig#shouldUseRegistrySnapshots()
+     */
+    @Override
+    public boolean shouldUseRegistrySnapshots() {
+        return configInstance.getBooleanProperty(
+                namespace + SHOULD_USE_REGISTRY_SNAPSHOTS_KEY, false).get();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.netflix.discovery.EurekaClientConfig#shouldUseDeltaLongPolling()
+     */
+    @Override
+    public boolean shouldUseDeltaLongPolling() {
+        return configInstance.getBooleanProperty(
+                namespace + SHOULD_USE_DELTA_LONG_POLLING_KEY, false).get();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.netflix.discovery.EurekaClientConfig#shouldUseVersionedDelta()
+     */
+    @Override
+    public boolean shouldUseVersionedDelta() {
+        return configInstance.getBooleanProperty(
+                namespace + SHOULD_USE_VERSIONED_DELTA_KEY, false).get();
+    }
+
     /*
      * (non-Javadoc)
      *
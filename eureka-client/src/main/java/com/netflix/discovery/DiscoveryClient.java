@@ -113,9 +113,7 @@ public class DiscoveryClient implements EurekaClient {
 
     // Constants
     public static final String HTTP_X_DISCOVERY_ALLOW_REDIRECT = "X-Discovery-AllowRedirect";
-
-    private static final String VALUE_DELIMITER = ",";
-    private static final String COMMA_STRING = VALUE_DELIMITER;
+    private static final long NO_DELTA_VERSION = -1;
 
     /**
      * @deprecated here for legacy support as the client config has moved to be an instance variable
@@ -170,6 +168,9 @@ public class DiscoveryClient implements EurekaClient {
 
     private volatile int registrySize = 0;
     private volatile long lastSuccessfulRegistryFetchTimestamp = -1;
+    private volatile boolean isLongPollingDelta;
+    // Version of the last delta applied on top of the last full registry fetch, if any
+    private volatile long lastAppliedDeltaVersion = NO_DELTA_VERSION;
     private volatile long lastSuccessfulHeartbeatTimestamp = -1;
     private final ThresholdLevelsMetric heartbeatStalenessMonitor;
     private final ThresholdLevelsMetric registryStalenessMonitor;
@@ -713,34 +714,7 @@ public class DiscoveryClient implements EurekaClient {
             return result;
         }
 
-        String instanceVipAddress;
-        for (Application app : getApplications().getRegisteredApplications()) {
-            for (InstanceInfo instance : app.getInstances()) {
-                if (secure) {
-                    instanceVipAddress = instance.getSecureVipAddress();
-                } else {
-                    instanceVipAddress = instance.getVIPAddress();
-                }
-                if (instanceVipAddress == null) {
-                    continue;
-                }
-                String[] instanceVipAddresses = instanceVipAddress
-                        .split(COMMA_STRING);
-
-                // If the VIP Address is delimited by a comma, then consider to
-                // be a list of VIP Addresses.
-                // Try to match at least one in the list, if it matches then
-                // return the instance info for the same
-                for (String vipAddressFromList : instanceVipAddresses) {
-                    if (vipAddress.equalsIgnoreCase(vipAddressFromList.trim())
-                            && appName.equalsIgnoreCase(instance.getAppName())) {
-                        result.add(instance);
-                        break;
-                    }
-                }
-            }
-        }
-        return result;
+        return getApplications().getInstancesByVirtualHostNameAndAppName(vipAddress, appName, secure);
     }
 
     /*
@@ -752,13 +726,15 @@ public class DiscoveryClient implements EurekaClient {
      */
     @Override
     public InstanceInfo getNextServerFromEureka(String virtualHostname, boolean secure) {
-        List<InstanceInfo> instanceInfoList = this.getInstancesByVipAddress(
-                virtualHostname, secure);
+        // Read the instance list and the round robin index from the same registry snapshot
+        Applications apps = this.localRegionApps.get();
+        List<InstanceInfo> instanceInfoList = secure
+                ? apps.getInstancesBySecureVirtualHostName(virtualHostname)
+                : apps.getInstancesByVirtualHostName(virtualHostname);
         if (instanceInfoList == null || instanceInfoList.isEmpty()) {
             throw new RuntimeException("No matches for the virtual host name :"
                     + virtualHostname);
         }
-        Applications apps = this.localRegionApps.get();
         int index = (int) (apps.getNextIndex(virtualHostname.toUpperCase(Locale.ROOT),
                 secure).incrementAndGet() % instanceInfoList.size());
         return instanceInfoList.get(index);
@@ -928,7 +904,10 @@ public class DiscoveryClient implements EurekaClient {
             } else {
                 getAndUpdateDelta(applications);
             }
-            applications.setAppsHashCode(applications.getReconcileHashCode());
+            if (applications == getApplications()) {
+                // Registry snapshots get their hash code before they are published
+                applications.setAppsHashCode(applications.getReconcileHashCode());
+            }
             logTotalInstances();
         } catch (Throwable e) {
             logger.error(PREFIX + appPathIdentifier + " - was unable to refresh its cache! status = " + e.getMessage(), e);
@@ -1021,6 +1000,7 @@ public class DiscoveryClient implements EurekaClient {
             logger.error("The application is null for some reason. Not storing this information");
         } else if (fetchRegistryGeneration.compareAndSet(currentUpdateGeneration, currentUpdateGeneration + 1)) {
             localRegionApps.set(this.filterAndShuffle(apps));
+            lastAppliedDeltaVersion = NO_DELTA_VERSION;
             logger.debug("Got full registry with apps hashcode {}", apps.getAppsHashCode());
         } else {
             logger.warn("Not updating applications as another thread is updating it already");
@@ -1044,7 +1024,22 @@ public class DiscoveryClient implements EurekaClient {
         long currentUpdateGeneration = fetchRegistryGeneration.get();
 
         Applications delta = null;
-        EurekaHttpResponse<Applications> httpResponse = eurekaTransport.queryClient.getDelta(remoteRegionsRef.get());
+        EurekaHttpResponse<Applications> httpResponse = null;
+        long sinceVersion = lastAppliedDeltaVersion;
+        if (clientConfig.shouldUseVersionedDelta() && sinceVersion != NO_DELTA_VERSION) {
+            httpResponse = eurekaTransport.queryClient.getDeltaSince(
+                    sinceVersion, isLongPollingDelta ? getDeltaLongPollWaitMs() : 0, remoteRegionsRef.get());
+            if (httpResponse.getStatusCode() == Status.GONE.getStatusCode()) {
+                logger.info("The changes since delta version {} are no longer available, getting the recent changes",
+                        sinceVersion);
+                httpResponse = null;
+            }
+        }
+        if (httpResponse == null) {
+            httpResponse = isLongPollingDelta
+                    ? eurekaTransport.queryClient.longPollDelta(applications.getVersion(), getDeltaLongPollWaitMs(), remoteRegionsRef.get())
+                    : eurekaTransport.queryClient.getDelta(remoteRegionsRef.get());
+        }
         if (httpResponse.getStatusCode() == Status.OK.getStatusCode()) {
             delta = httpResponse.getEntity();
         }
@@ -1058,7 +1053,12 @@ public class DiscoveryClient implements EurekaClient {
             String reconcileHashCode = "";
             if (fetchRegistryUpdateLock.tryLock()) {
                 try {
-                    updateDelta(delta);
+                    if (clientConfig.shouldUseRegistrySnapshots()) {
+                        applications = updateDeltaOnSnapshot(delta);
+                    } else {
+                        updateDelta(delta);
+                    }
+                    lastAppliedDeltaVersion = delta.getVersion();
                     reconcileHashCode = getReconcileHashCode(applications);
                 } finally {
                     fetchRegistryUpdateLock.unlock();
@@ -1076,6 +1076,13 @@ public class DiscoveryClient implements EurekaClient {
         }
     }
 
+    /**
+     * Long polled deltas are held by the server for up to a second less than the read timeout.
+     */
+    private long getDeltaLongPollWaitMs() {
+        return Math.max(0, clientConfig.getEurekaServerReadTimeoutSeconds() * 1000L - 1000);
+    }
+
     /**
      * Logs the total number of non-filtered instances stored locally.
      */
@@ -1147,6 +1154,8 @@ public class DiscoveryClient implements EurekaClient {
         if (fetchRegistryGeneration.compareAndSet(currentUpdateGeneration, currentUpdateGeneration + 1)) {
             localRegionApps.set(this.filterAndShuffle(serverApps));
             getApplications().setVersion(delta.getVersion());
+            // The full registry may be older than the delta, so the next delta covers all the recent changes
+            lastAppliedDeltaVersion = NO_DELTA_VERSION;
             logger.debug(
                     "The Reconcile hashcodes after complete sync up, client : {}, server : {}.",
                     getApplications().getReconcileHashCode(),
@@ -1165,16 +1174,60 @@ public class DiscoveryClient implements EurekaClient {
      *            poll cycle.
      */
     private void updateDelta(Applications delta) {
+        applyDelta(delta, getApplications(), remoteRegionVsApps);
+
+        getApplications().setVersion(delta.getVersion());
+        getApplications().shuffleChangedInstances(clientConfig.shouldFilterOnlyUpInstances());
+
+        for (Applications applications : remoteRegionVsApps.values()) {
+            applications.setVersion(delta.getVersion());
+            applications.shuffleChangedInstances(clientConfig.shouldFilterOnlyUpInstances());
+        }
+    }
+
+    /**
+     * Applies the delta information fetched from the eureka server to copies of the local and remote region
+     * registries, and publishes the copies once they are fully indexed. Threads reading the registry keep
+     * using the previous copies until then, and never see a registry that is being modified.
+     *
+     * @param delta
+     *            the delta information received from eureka server in the last
+     *            poll cycle.
+     * @return the new local region registry.
+     */
+    private Applications updateDeltaOnSnapshot(Applications delta) {
+        Applications localApps = getApplications().copy();
+        Map<String, Applications> remoteApps = new ConcurrentHashMap<String, Applications>();
+        for (Map.Entry<String, Applications> entry : remoteRegionVsApps.entrySet()) {
+            remoteApps.put(entry.getKey(), entry.getValue().copy());
+        }
+
+        applyDelta(delta, localApps, remoteApps);
+
+        localApps.setVersion(delta.getVersion());
+        localApps.shuffleChangedInstances(clientConfig.shouldFilterOnlyUpInstances());
+        localApps.setAppsHashCode(localApps.getReconcileHashCode());
+        for (Applications applications : remoteApps.values()) {
+            applications.setVersion(delta.getVersion());
+            applications.shuffleChangedInstances(clientConfig.shouldFilterOnlyUpInstances());
+        }
+
+        remoteRegionVsApps = remoteApps;
+        localRegionApps.set(localApps);
+        return localApps;
+    }
+
+    private void applyDelta(Applications delta, Applications localApps, Map<String, Applications> remoteRegionApps) {
         int deltaCount = 0;
         for (Application app : delta.getRegisteredApplications()) {
             for (InstanceInfo instance : app.getInstances()) {
-                Applications applications = getApplications();
+                Applications applications = localApps;
                 String instanceRegion = instanceRegionChecker.getInstanceRegion(instance);
                 if (!instanceRegionChecker.isLocalRegion(instanceRegion)) {
-                    Applications remoteApps = remoteRegionVsApps.get(instanceRegion);
+                    Applications remoteApps = remoteRegionApps.get(instanceRegion);
                     if (null == remoteApps) {
                         remoteApps = new Applications();
-                        remoteRegionVsApps.put(instanceRegion, remoteApps);
+                        remoteRegionApps.put(instanceRegion, remoteApps);
                     }
                     applications = remoteApps;
                 }
@@ -1186,7 +1239,7 @@ public class DiscoveryClient implements EurekaClient {
                         applications.addApplication(app);
                     }
                     logger.debug("Added instance {} to the existing apps in region {}", instance.getId(), instanceRegion);
-                    applications.getRegisteredApplications(instance.getAppName()).addInstance(instance);
+                    applications.addInstance(instance);
                 } else if (ActionType.MODIFIED.equals(instance.getActionType())) {
                     Application existingApp = applications.getRegisteredApplications(instance.getAppName());
                     if (existingApp == null) {
@@ -1194,7 +1247,7 @@ public class DiscoveryClient implements EurekaClient {
                     }
                     logger.debug("Modified instance {} to the existing apps ", instance.getId());
 
-                    applications.getRegisteredApplications(instance.getAppName()).addInstance(instance);
+                    applications.addInstance(instance);
 
                 } else if (ActionType.DELETED.equals(instance.getActionType())) {
                     Application existingApp = applications.getRegisteredApplications(instance.getAppName());
@@ -1202,26 +1255,22 @@ public class DiscoveryClient implements EurekaClient {
                         applications.addApplication(app);
                     }
                     logger.debug("Deleted instance {} to the existing apps ", instance.getId());
-                    applications.getRegisteredApplications(instance.getAppName()).removeInstance(instance);
+                    applications.removeInstance(instance);
                 }
             }
         }
         logger.debug("The total number of instances fetched by the delta processor : {}", deltaCount);
-
-        getApplications().setVersion(delta.getVersion());
-        getApplications().shuffleInstances(clientConfig.shouldFilterOnlyUpInstances());
-
-        for (Applications applications : remoteRegionVsApps.values()) {
-            applications.setVersion(delta.getVersion());
-            applications.shuffleInstances(clientConfig.shouldFilterOnlyUpInstances());
-        }
     }
 
     /**
      * Initializes all scheduled tasks.
      */
     private void initScheduledTasks() {
-        if (clientConfig.shouldFetchRegistry()) {
+        if (clientConfig.shouldFetchRegistry() && clientConfig.shouldUseDeltaLongPolling()) {
+            // registry deltas are long polled back to back on a cache refresh executor thread
+            isLongPollingDelta = true;
+            cacheRefreshExecutor.execute(new DeltaLongPollThread());
+        } else if (clientConfig.shouldFetchRegistry()) {
             // registry cache refresh timer
             int registryFetchIntervalSeconds = clientConfig.getRegistryFetchIntervalSeconds();
             int expBackOffBound = clientConfig.getCacheRefreshExecutorExponentialBackOffBound();
@@ -1419,6 +1468,30 @@ public class DiscoveryClient implements EurekaClient {
         }
     }
 
+    /**
+     * The task that fetches the registry information continuously, long polling the deltas. A fetch that
+     * completes early without a newer delta, because of an error or a server that does not hold delta requests,
+     * is followed by the regular registry fetch interval.
+     */
+    class DeltaLongPollThread implements Runnable {
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                long lastSeenVersion = getApplications().getVersion();
+                long startTime = System.currentTimeMillis();
+                refreshRegistry();
+                if (getApplications().getVersion() == lastSeenVersion
+                        && System.currentTimeMillis() - startTime < getDeltaLongPollWaitMs()) {
+                    try {
+                        Thread.sleep(clientConfig.getRegistryFetchIntervalSeconds() * 1000L);
+                    } catch (InterruptedException e) {
+                        logger.info("Delta long polling interrupted");
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
     @VisibleForTesting
     void refreshRegistry() {
         try {
@@ -423,6 +423,60 @@ public interface EurekaClientConfig {
      */
     boolean shouldFilterOnlyUpInstances();
 
+    /**
+     * Indicates whether each registry delta is applied to a copy of the local registry, which is then published
+     * as a whole, instead of being applied to the registry that is being read from.
+     *
+     * <p>
+     * With this enabled, lookups such as {@link EurekaClient#getInstancesByVipAddress(String, boolean)} never
+     * observe a registry that is half way through an update, at the cost of copying the application
+     * containers on every fetch cycle.
+     * </p>
+     *
+     * <p>
+     * <em>The changes are effective at runtime at the next registry fetch cycle as specified by
+     * {@link #getRegistryFetchIntervalSeconds()}</em>
+     * </p>
+     *
+     * @return true to publish a new registry snapshot after each delta, false to update the registry in place.
+     */
+    boolean shouldUseRegistrySnapshots();
+
+    /**
+     * Indicates whether deltas should be long polled, instead of fetched every
+     * {@link #getRegistryFetchIntervalSeconds()}.
+     *
+     * <p>
+     * With this enabled, the client fetches deltas back to back, and the server holds each request until a delta
+     * newer than the one seen last by the client is available, so registry changes are seen right away. Requests
+     * are held for up to a second less than {@link #getEurekaServerReadTimeoutSeconds()}. When a request is
+     * answered early without a newer delta, as servers without long polling do, the client waits for
+     * {@link #getRegistryFetchIntervalSeconds()} before the next one.
+     * </p>
+     *
+     * @return true to long poll deltas, false to fetch them periodically.
+     */
+    boolean shouldUseDeltaLongPolling();
+
+    /**
+     * Indicates whether deltas should be fetched by version.
+     *
+     * <p>
+     * With this enabled, the client asks for the changes made after the last delta it has applied, instead of
+     * all the changes recorded by the server for the last few minutes, which it has mostly seen already. The
+     * regular delta is fetched after a full registry fetch, and whenever the server no longer has the changes
+     * following the client's version, for instance after switching to another server.
+     * </p>
+     *
+     * <p>
+     * <em>The changes are effective at runtime at the next registry fetch cycle as specified by
+     * {@link #getRegistryFetchIntervalSeconds()}</em>
+     * </p>
+     *
+     * @return true to fetch the changes since the last delta applied, false to fetch the recent changes.
+     */
+    boolean shouldUseVersionedDelta();
+
     /**
      * Indicates how much time (in seconds) that the HTTP connections to eureka
      * server can stay idle before it can be closed.
@@ -524,6 +578,9 @@ public interface EurekaClientConfig {
     String getDecoderName();
 
     /**
+     * Use {@link com.netflix.appinfo.EurekaAccept#binary} to fetch the registry in the compact binary format;
+     * servers that do not support it fall back to JSON.
+     *
      * @return {@link com.netflix.appinfo.EurekaAccept#name()} for client data accept
      */
     String getClientDataAccept();
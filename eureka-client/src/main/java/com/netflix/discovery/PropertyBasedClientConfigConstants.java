@@ -26,6 +26,9 @@ final class PropertyBasedClientConfigConstants {
     static final String SHOULD_DISABLE_DELTA_KEY = "disableDelta";
     static final String SHOULD_FETCH_REMOTE_REGION_KEY = "fetchRemoteRegionsRegistry";
     static final String SHOULD_FILTER_ONLY_UP_INSTANCES_KEY = "shouldFilterOnlyUpInstances";
+    static final String SHOULD_USE_REGISTRY_SNAPSHOTS_KEY = "shouldUseRegistrySnapshots";
+    static final String SHOULD_USE_DELTA_LONG_POLLING_KEY = "shouldUseDeltaLongPolling";
+    static final String SHOULD_USE_VERSIONED_DELTA_KEY = "shouldUseVersionedDelta";
     static final String FETCH_SINGLE_VIP_ONLY_KEY = "registryRefreshSingleVipAddress";
     static final String CLIENT_ENCODER_NAME_KEY = "encoderName";
     static final String CLIENT_DECODER_NAME_KEY = "decoderName";
@@ -0,0 +1,555 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.discovery.converters;
+
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.ActionType;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.InstanceInfo.PortType;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.StringCache;
+
+/**
+ * Compact binary encoding of {@link Applications}, {@link Application} and {@link InstanceInfo} entities.
+ * <p>
+ * Integers are written as zig-zag varints. Strings are dictionary encoded: the first occurrence of a string
+ * is written inline and added to a per payload string table, and every later occurrence is written as its
+ * index in that table. Registry payloads repeat the same application names, VIP addresses, statuses and
+ * metadata keys for every instance, so most strings shrink to one or two bytes.
+ * <p>
+ * The format is self contained and versioned by the header; unknown versions are rejected rather than
+ * guessed at, so a client and a server can only exchange it after negotiating it via
+ * {@link com.netflix.appinfo.EurekaAccept#binary}.
+ */
+public class EurekaBinaryCodec {
+
+    public static final String APPLICATION_EUREKA_BINARY = "application/x-eureka-binary";
+    public static final MediaType APPLICATION_EUREKA_BINARY_TYPE = new MediaType("application", "x-eureka-binary");
+
+    private static final int MAGIC = 0x45555242; // "EURB"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int ENTITY_APPLICATIONS = 1;
+    private static final int ENTITY_APPLICATION = 2;
+    private static final int ENTITY_INSTANCE_INFO = 3;
+
+    private static final int STRING_NULL = 0;
+    private static final int STRING_INLINE = 1;
+    private static final int STRING_TABLE_OFFSET = 2;
+
+    private static final int FLAG_UNSECURE_PORT_ENABLED = 1;
+    private static final int FLAG_SECURE_PORT_ENABLED = 1 << 1;
+    private static final int FLAG_HAS_LEASE_INFO = 1 << 2;
+    private static final int FLAG_HAS_LAST_DIRTY_TIMESTAMP = 1 << 3;
+    private static final int FLAG_COORDINATING_DISCOVERY_SERVER = 1 << 4;
+    private static final int FLAG_HAS_COORDINATING_DISCOVERY_SERVER = 1 << 5;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public <T> void writeTo(T object, OutputStream outputStream) throws IOException {
+        Writer writer = new Writer();
+        writer.writeEntity(object);
+        outputStream.write(writer.buffer, 0, writer.size);
+    }
+
+    public <T> byte[] writeToBytes(T object) throws IOException {
+        Writer writer = new Writer();
+        writer.writeEntity(object);
+        byte[] result = new byte[writer.size];
+        System.arraycopy(writer.buffer, 0, result, 0, writer.size);
+        return result;
+    }
+
+    public <T> T readValue(Class<T> type, InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[8192];
+        int size = 0;
+        int count;
+        while ((count = inputStream.read(buffer, size, buffer.length - size)) != -1) {
+            size += count;
+            if (size == buffer.length) {
+                byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, size);
+                buffer = grown;
+            }
+        }
+        return readValue(type, buffer, size);
+    }
+
+    public <T> T readValue(Class<T> type, byte[] data) throws IOException {
+        return readValue(type, data, data.length);
+    }
+
+    private static <T> T readValue(Class<T> type, byte[] data, int size) throws IOException {
+        Reader reader = new Reader(data, size);
+        Object entity = reader.readEntity();
+        if (!type.isInstance(entity)) {
+            throw new IOException("Expected " + type.getSimpleName() + " but payload contains "
+                    + entity.getClass().getSimpleName());
+        }
+        return type.cast(entity);
+    }
+
+    private static final class Writer {
+
+        private final Map<String, Integer> stringTable = new HashMap<>();
+        private byte[] buffer = new byte[4096];
+        private int size;
+
+        void writeEntity(Object object) throws IOException {
+            writeInt(MAGIC);
+            writeVarLong(FORMAT_VERSION);
+            if (object instanceof Applications) {
+                writeVarLong(ENTITY_APPLICATIONS);
+                writeApplications((Applications) object);
+            } else if (object instanceof Application) {
+                writeVarLong(ENTITY_APPLICATION);
+                writeApplication((Application) object);
+            } else if (object instanceof InstanceInfo) {
+                writeVarLong(ENTITY_INSTANCE_INFO);
+                writeInstanceInfo((InstanceInfo) object);
+            } else {
+                throw new IOException("Binary encoding not supported for " + object.getClass().getName());
+            }
+        }
+
+        private void writeApplications(Applications applications) {
+            Long version = applications.getVersion();
+            writeVarLong(version == null ? 0 : 1);
+            if (version != null) {
+                writeSignedVarLong(version);
+            }
+            writeString(applications.getAppsHashCode());
+            List<Application> registered = applications.getRegisteredApplications();
+            writeVarLong(registered.size());
+            for (Application application : registered) {
+                writeApplication(application);
+            }
+        }
+
+        private void writeApplication(Application application) {
+            writeString(application.getName());
+            List<InstanceInfo> instances = application.getInstances();
+            writeVarLong(instances.size());
+            for (InstanceInfo instance : instances) {
+                writeInstanceInfo(instance);
+            }
+        }
+
+        private void writeInstanceInfo(InstanceInfo info) {
+            writeString(info.getInstanceId());
+            writeString(info.getHostName());
+            writeString(info.getAppName());
+            writeString(info.getIPAddr());
+            String sid = info.getSID();
+            writeString("unknown".equals(sid) || "na".equals(sid) ? null : sid);
+            writeString(info.getStatus() == null ? null : info.getStatus().name());
+            writeString(info.getOverriddenStatus() == null ? null : info.getOverriddenStatus().name());
+
+            int flags = 0;
+            if (info.isPortEnabled(PortType.UNSECURE)) {
+                flags |= FLAG_UNSECURE_PORT_ENABLED;
+            }
+            if (info.isPortEnabled(PortType.SECURE)) {
+                flags |= FLAG_SECURE_PORT_ENABLED;
+            }
+            if (info.getLeaseInfo() != null) {
+                flags |= FLAG_HAS_LEASE_INFO;
+            }
+            if (info.getLastDirtyTimestamp() != null) {
+                flags |= FLAG_HAS_LAST_DIRTY_TIMESTAMP;
+            }
+            if (info.isCoordinatingDiscoveryServer() != null) {
+                flags |= FLAG_HAS_COORDINATING_DISCOVERY_SERVER;
+                if (info.isCoordinatingDiscoveryServer()) {
+                    flags |= FLAG_COORDINATING_DISCOVERY_SERVER;
+                }
+            }
+            writeVarLong(flags);
+            writeSignedVarLong(info.getPort());
+            writeSignedVarLong(info.getSecurePort());
+            writeSignedVarLong(info.getCountryId());
+
+            writeDataCenterInfo(info.getDataCenterInfo());
+            if (info.getLeaseInfo() != null) {
+                writeLeaseInfo(info.getLeaseInfo());
+            }
+            writeMap(info.getMetadata());
+
+            writeString(info.getAppGroupName());
+            writeString(info.getHomePageUrl());
+            writeString(info.getStatusPageUrl());
+            writeString(info.getHealthCheckUrl());
+            writeString(info.getSecureHealthCheckUrl());
+            writeString(info.getVIPAddress());
+            writeString(info.getSecureVipAddress());
+            writeString(info.getASGName());
+            writeString(info.getActionType() == null ? null : info.getActionType().name());
+            writeSignedVarLong(info.getLastUpdatedTimestamp());
+            if (info.getLastDirtyTimestamp() != null) {
+                writeSignedVarLong(info.getLastDirtyTimestamp());
+            }
+        }
+
+        private void writeDataCenterInfo(DataCenterInfo dataCenterInfo) {
+            if (dataCenterInfo == null) {
+                writeString(null);
+                return;
+            }
+            writeString(dataCenterInfo.getName().name());
+            if (dataCenterInfo.getName() == Name.Amazon) {
+                writeMap(((AmazonInfo) dataCenterInfo).getMetadata());
+            }
+        }
+
+        private void writeLeaseInfo(LeaseInfo leaseInfo) {
+            writeSignedVarLong(leaseInfo.getRenewalIntervalInSecs());
+            writeSignedVarLong(leaseInfo.getDurationInSecs());
+            writeSignedVarLong(leaseInfo.getRegistrationTimestamp());
+            writeSignedVarLong(leaseInfo.getRenewalTimestamp());
+            writeSignedVarLong(leaseInfo.getEvictionTimestamp());
+            writeSignedVarLong(leaseInfo.getServiceUpTimestamp());
+        }
+
+        private void writeMap(Map<String, String> map) {
+            if (map == null) {
+                writeVarLong(0);
+                return;
+            }
+            writeVarLong(map.size() + 1);
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                writeString(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(STRING_NULL);
+                return;
+            }
+            Integer index = stringTable.get(value);
+            if (index != null) {
+                writeVarLong(index + STRING_TABLE_OFFSET);
+                return;
+            }
+            stringTable.put(value, stringTable.size());
+            writeVarLong(STRING_INLINE);
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void writeInt(int value) {
+            ensureCapacity(4);
+            buffer[size++] = (byte) (value >>> 24);
+            buffer[size++] = (byte) (value >>> 16);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, size + extra)];
+                System.arraycopy(buffer, 0, grown, 0, size);
+                buffer = grown;
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final List<String> stringTable = new ArrayList<>();
+        private final byte[] data;
+        private final int size;
+        private int position;
+
+        Reader(byte[] data, int size) {
+            this.data = data;
+            this.size = size;
+        }
+
+        Object readEntity() throws IOException {
+            if (readInt() != MAGIC) {
+                throw new IOException("Not a binary eureka payload");
+            }
+            int version = (int) readVarLong();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported binary eureka payload version " + version);
+            }
+            int entityType = (int) readVarLong();
+            switch (entityType) {
+                case ENTITY_APPLICATIONS:
+                    return readApplications();
+                case ENTITY_APPLICATION:
+                    return readApplication();
+                case ENTITY_INSTANCE_INFO:
+                    return readInstanceInfo();
+                default:
+                    throw new IOException("Unknown binary eureka entity type " + entityType);
+            }
+        }
+
+        private Applications readApplications() throws IOException {
+            Applications applications = new Applications();
+            if (readVarLong() != 0) {
+                applications.setVersion(readSignedVarLong());
+            }
+            applications.setAppsHashCode(readString());
+            int count = readCount();
+            for (int i = 0; i < count; i++) {
+                applications.addApplication(readApplication());
+            }
+            return applications;
+        }
+
+        private Application readApplication() throws IOException {
+            Application application = new Application(readString());
+            int count = readCount();
+            for (int i = 0; i < count; i++) {
+                application.addInstance(readInstanceInfo());
+            }
+            return application;
+        }
+
+        private InstanceInfo readInstanceInfo() throws IOException {
+            InstanceInfo.Builder builder = InstanceInfo.Builder.newBuilder();
+            builder.setInstanceId(readString());
+            builder.setHostName(readString());
+            builder.setAppName(readString());
+            builder.setIPAddr(readString());
+            String sid = readString();
+            if (sid != null) {
+                builder.setSID(sid);
+            }
+            String status = readString();
+            if (status != null) {
+                builder.setStatus(InstanceStatus.toEnum(status));
+            }
+            String overriddenStatus = readString();
+            if (overriddenStatus != null) {
+                builder.setOverriddenStatus(InstanceStatus.toEnum(overriddenStatus));
+            }
+
+            int flags = (int) readVarLong();
+            builder.setPort((int) readSignedVarLong());
+            builder.enablePort(PortType.UNSECURE, (flags & FLAG_UNSECURE_PORT_ENABLED) != 0);
+            builder.setSecurePort((int) readSignedVarLong());
+            builder.enablePort(PortType.SECURE, (flags & FLAG_SECURE_PORT_ENABLED) != 0);
+            builder.setCountryId((int) readSignedVarLong());
+
+            DataCenterInfo dataCenterInfo = readDataCenterInfo();
+            if (dataCenterInfo != null) {
+                builder.setDataCenterInfo(dataCenterInfo);
+            }
+            if ((flags & FLAG_HAS_LEASE_INFO) != 0) {
+                builder.setLeaseInfo(readLeaseInfo());
+            }
+            Map<String, String> metadata = readMetadata();
+            if (metadata != null) {
+                builder.setMetadata(metadata);
+            }
+
+            String appGroupName = readString();
+            if (appGroupName != null) {
+                builder.setAppGroupName(appGroupName);
+            }
+            String homePageUrl = readString();
+            if (homePageUrl != null) {
+                builder.setHomePageUrlForDeser(homePageUrl);
+            }
+            String statusPageUrl = readString();
+            if (statusPageUrl != null) {
+                builder.setStatusPageUrlForDeser(statusPageUrl);
+            }
+            String healthCheckUrl = readString();
+            String secureHealthCheckUrl = readString();
+            builder.setHealthCheckUrlsForDeser(healthCheckUrl, secureHealthCheckUrl);
+            String vipAddress = readString();
+            if (vipAddress != null) {
+                builder.setVIPAddressDeser(vipAddress);
+            }
+            String secureVipAddress = readString();
+            if (secureVipAddress != null) {
+                builder.setSecureVIPAddressDeser(secureVipAddress);
+            }
+            String asgName = readString();
+            if (asgName != null) {
+                builder.setASGName(asgName);
+            }
+            String actionType = readString();
+            if (actionType != null) {
+                builder.setActionType(ActionType.valueOf(actionType));
+            }
+            if ((flags & FLAG_HAS_COORDINATING_DISCOVERY_SERVER) != 0) {
+                builder.setIsCoordinatingDiscoveryServer((flags & FLAG_COORDINATING_DISCOVERY_SERVER) != 0);
+            }
+            builder.setLastUpdatedTimestamp(readSignedVarLong());
+            if ((flags & FLAG_HAS_LAST_DIRTY_TIMESTAMP) != 0) {
+                builder.setLastDirtyTimestamp(readSignedVarLong());
+            }
+            return builder.build();
+        }
+
+        private DataCenterInfo readDataCenterInfo() throws IOException {
+            String nameValue = readString();
+            if (nameValue == null) {
+                return null;
+            }
+            Name name = Name.valueOf(nameValue);
+            if (name != Name.Amazon) {
+                return new MyDataCenterInfo(name);
+            }
+            Map<String, String> metadata = new HashMap<>();
+            int count = readMapSize();
+            for (int i = 0; i < count; i++) {
+                String key = readString();
+                metadata.put(StringCache.intern(key), StringCache.intern(readString()));
+            }
+            AmazonInfo amazonInfo = new AmazonInfo();
+            amazonInfo.setMetadata(metadata);
+            return amazonInfo;
+        }
+
+        private LeaseInfo readLeaseInfo() throws IOException {
+            return LeaseInfo.Builder.newBuilder()
+                    .setRenewalIntervalInSecs((int) readSignedVarLong())
+                    .setDurationInSecs((int) readSignedVarLong())
+                    .setRegistrationTimestamp(readSignedVarLong())
+                    .setRenewalTimestamp(readSignedVarLong())
+                    .setEvictionTimestamp(readSignedVarLong())
+                    .setServiceUpTimestamp(readSignedVarLong())
+                    .build();
+        }
+
+        private Map<String, String> readMetadata() throws IOException {
+            int count = readMapSize();
+            if (count < 0) {
+                return null;
+            }
+            if (count == 0) {
+                return Collections.emptyMap();
+            }
+            Map<String, String> metadata = new ConcurrentHashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                String key = StringCache.intern(readString());
+                metadata.put(key, StringCache.intern(readString()));
+            }
+            return metadata;
+        }
+
+        /**
+         * @return the number of map entries, or -1 for a null map
+         */
+        private int readMapSize() throws IOException {
+            return readCount() - 1;
+        }
+
+        private String readString() throws IOException {
+            long code = readVarLong();
+            if (code == STRING_NULL) {
+                return null;
+            }
+            if (code == STRING_INLINE) {
+                int length = readCount();
+                if (length > size - position) {
+                    throw new IOException("Truncated binary eureka payload");
+                }
+                String value = new String(data, position, length, UTF_8);
+                position += length;
+                stringTable.add(value);
+                return value;
+            }
+            long index = code - STRING_TABLE_OFFSET;
+            if (index >= stringTable.size()) {
+                throw new IOException("Invalid string reference " + index + " in binary eureka payload");
+            }
+            return stringTable.get((int) index);
+        }
+
+        private int readCount() throws IOException {
+            long count = readVarLong();
+            if (count < 0 || count > Integer.MAX_VALUE) {
+                throw new IOException("Invalid element count " + count + " in binary eureka payload");
+            }
+            return (int) count;
+        }
+
+        private int readInt() throws IOException {
+            if (size - position < 4) {
+                throw new IOException("Truncated binary eureka payload");
+            }
+            return (data[position++] & 0xFF) << 24
+                    | (data[position++] & 0xFF) << 16
+                    | (data[position++] & 0xFF) << 8
+                    | (data[position++] & 0xFF);
+        }
+
+        private long readSignedVarLong() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= size) {
+                    throw new IOException("Truncated binary eureka payload");
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in binary eureka payload");
+        }
+    }
+}
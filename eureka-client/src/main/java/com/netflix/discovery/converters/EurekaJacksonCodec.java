@@ -8,17 +8,19 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -27,7 +29,6 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.netflix.appinfo.AmazonInfo;
 import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.DataCenterInfo.Name;
@@ -215,6 +216,77 @@ public class EurekaJacksonCodec {
         INSTANCE = instance;
     }
 
+    /*
+     * The deserializers below consume the token stream directly rather than reading each entity into a
+     * JsonNode tree first, which would double the allocation of a full registry decode.
+     */
+
+    /**
+     * Custom deserializers are entered either on the START_OBJECT token, or on the first FIELD_NAME if
+     * the object start was consumed already (for example during type resolution).
+     */
+    private static JsonToken firstFieldToken(JsonParser jp) throws IOException {
+        JsonToken token = jp.getCurrentToken();
+        return token == JsonToken.START_OBJECT ? jp.nextToken() : token;
+    }
+
+    /**
+     * Text of the current value, as returned by {@link JsonNode#asText()}; structured values are skipped.
+     */
+    private static String readText(JsonParser jp) throws IOException {
+        if (jp.getCurrentToken().isStructStart()) {
+            jp.skipChildren();
+            return "";
+        }
+        return jp.getText();
+    }
+
+    /**
+     * Current value as long, with the {@link JsonNode#asLong()} conversion rules.
+     */
+    private static long readLong(JsonParser jp) throws IOException {
+        if (jp.getCurrentToken().isStructStart()) {
+            jp.skipChildren();
+            return 0;
+        }
+        return jp.getValueAsLong();
+    }
+
+    /**
+     * Current value as boolean, with the {@link JsonNode#asBoolean()} conversion rules.
+     */
+    private static boolean readBoolean(JsonParser jp) throws IOException {
+        if (jp.getCurrentToken().isStructStart()) {
+            jp.skipChildren();
+            return false;
+        }
+        return jp.getValueAsBoolean();
+    }
+
+    /**
+     * Deserializer of a nested entity, resolved on first use. Jackson does not cache the type resolution
+     * of root values, so looking it up for each instance (as {@link DeserializationContext#readValue} does)
+     * would dominate the decoding time of polymorphic fields like {@link DataCenterInfo}.
+     */
+    private static final class NestedValueDeserializer<T> {
+
+        private final Class<T> type;
+        private volatile JsonDeserializer<Object> deserializer;
+
+        NestedValueDeserializer(Class<T> type) {
+            this.type = type;
+        }
+
+        T deserialize(JsonParser jp, DeserializationContext context) throws IOException {
+            JsonDeserializer<Object> current = deserializer;
+            if (current == null) {
+                current = context.findRootValueDeserializer(context.constructType(type));
+                deserializer = current;
+            }
+            return type.cast(current.deserialize(jp, context));
+        }
+    }
+
     public static class DataCenterInfoSerializer extends JsonSerializer<DataCenterInfo> {
         @Override
         public void serializeWithType(DataCenterInfo dataCenterInfo, JsonGenerator jgen,
@@ -248,8 +320,26 @@ public class EurekaJacksonCodec {
 
         @Override
         public DataCenterInfo deserialize(JsonParser jp, DeserializationContext context) throws IOException {
-            JsonNode node = jp.getCodec().readTree(jp);
-            final Name name = Name.valueOf(node.get(ELEM_NAME).asText());
+            String nameValue = null;
+            Map<String, String> metaData = null;
+            for (JsonToken token = firstFieldToken(jp); token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+                String fieldName = jp.getCurrentName();
+                JsonToken valueToken = jp.nextToken();
+                if (ELEM_NAME.equals(fieldName)) {
+                    nameValue = readText(jp);
+                } else if (DATACENTER_METADATA.equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    metaData = new HashMap<String, String>();
+                    while (jp.nextToken() == JsonToken.FIELD_NAME) {
+                        String key = jp.getCurrentName();
+                        jp.nextToken();
+                        metaData.put(StringCache.intern(key), StringCache.intern(readText(jp)));
+                    }
+                } else {
+                    jp.skipChildren();
+                }
+            }
+
+            final Name name = Name.valueOf(nameValue);
             if (name != Name.Amazon) {
                 return new DataCenterInfo() {
                     @Override
@@ -259,17 +349,8 @@ public class EurekaJacksonCodec {
                 };
             }
 
-            Map<String, String> metaData = new HashMap<String, String>();
-            JsonNode metaNode = node.get(DATACENTER_METADATA);
-            Iterator<String> metaNamesIt = metaNode.fieldNames();
-            while (metaNamesIt.hasNext()) {
-                String key = metaNamesIt.next();
-                String value = metaNode.get(key).asText();
-                metaData.put(StringCache.intern(key), StringCache.intern(value));
-            }
-
             AmazonInfo amazonInfo = new AmazonInfo();
-            amazonInfo.setMetadata(metaData);
+            amazonInfo.setMetadata(metaData == null ? new HashMap<String, String>() : metaData);
 
             return amazonInfo;
         }
@@ -288,25 +369,33 @@ public class EurekaJacksonCodec {
         public LeaseInfo deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
             LeaseInfo.Builder builder = LeaseInfo.Builder.newBuilder();
 
-            JsonNode node = jp.getCodec().readTree(jp);
-            Iterator<String> fieldNames = node.fieldNames();
-            while (fieldNames.hasNext()) {
-                String nodeName = fieldNames.next();
-                if (!node.get(nodeName).isNull()) {
-                    long longValue = node.get(nodeName).asLong();
-                    if (ELEM_DURATION.equals(nodeName)) {
+            for (JsonToken token = firstFieldToken(jp); token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+                String nodeName = jp.getCurrentName();
+                if (jp.nextToken() == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                long longValue = readLong(jp);
+                switch (nodeName) {
+                    case ELEM_DURATION:
                         builder.setDurationInSecs((int) longValue);
-                    } else if (ELEM_EVICTION_TIMESTAMP.equals(nodeName)) {
+                        break;
+                    case ELEM_EVICTION_TIMESTAMP:
                         builder.setEvictionTimestamp(longValue);
-                    } else if (ELEM_LAST_RENEW_TIMESTAMP.equals(nodeName)) {
+                        break;
+                    case ELEM_LAST_RENEW_TIMESTAMP:
                         builder.setRenewalTimestamp(longValue);
-                    } else if (ELEM_REG_TIMESTAMP.equals(nodeName)) {
+                        break;
+                    case ELEM_REG_TIMESTAMP:
                         builder.setRegistrationTimestamp(longValue);
-                    } else if (ELEM_RENEW_INT.equals(nodeName)) {
+                        break;
+                    case ELEM_RENEW_INT:
                         builder.setRenewalIntervalInSecs((int) longValue);
-                    } else if (ELEM_SERVICE_UP_TIMESTAMP.equals(nodeName)) {
+                        break;
+                    case ELEM_SERVICE_UP_TIMESTAMP:
                         builder.setServiceUpTimestamp(longValue);
-                    }
+                        break;
+                    default:
+                        break;
                 }
             }
             return builder.build();
@@ -393,6 +482,15 @@ public class EurekaJacksonCodec {
     }
 
     public static class InstanceInfoDeserializer extends JsonDeserializer<InstanceInfo> {
+
+        /**
+         * {@link Auto} annotated fields by name, resolved once per class instead of on each unknown field.
+         */
+        private static final ConcurrentMap<Class<?>, Map<String, AutoField>> AUTO_FIELDS_BY_CLASS = new ConcurrentHashMap<>();
+
+        private final NestedValueDeserializer<DataCenterInfo> dataCenterInfoDeserializer = new NestedValueDeserializer<>(DataCenterInfo.class);
+        private final NestedValueDeserializer<LeaseInfo> leaseInfoDeserializer = new NestedValueDeserializer<>(LeaseInfo.class);
+
         protected ObjectMapper mapper;
 
         protected InstanceInfoDeserializer(ObjectMapper mapper) {
@@ -403,8 +501,6 @@ public class EurekaJacksonCodec {
         public InstanceInfo deserialize(JsonParser jp, DeserializationContext context) throws IOException {
             InstanceInfo.Builder builder = InstanceInfo.Builder.newBuilder();
 
-            JsonNode node = jp.getCodec().readTree(jp);
-
             /**
              * These are set via single call to
              * {@link com.netflix.appinfo.InstanceInfo.Builder#setHealthCheckUrlsForDeser(String, String, String)}.
@@ -412,92 +508,92 @@ public class EurekaJacksonCodec {
             String healthChecUrl = null;
             String healthCheckSecureUrl = null;
 
-            Iterator<String> fieldNames = node.fieldNames();
-            while (fieldNames.hasNext()) {
-                String fieldName = fieldNames.next();
-                JsonNode fieldNode = node.get(fieldName);
-
-                if (!fieldNode.isNull()) {
-                    if (ELEM_HOST.equals(fieldName)) {
-                        builder.setHostName(fieldNode.asText());
-                    } else if (ELEM_INSTANCE_ID.equals(fieldName)) {
-                        builder.setInstanceId(fieldNode.asText());
-                    } else if (ELEM_APP.equals(fieldName)) {
-                        builder.setAppName(fieldNode.asText());
-                    } else if (ELEM_IP.equals(fieldName)) {
-                        builder.setIPAddr(fieldNode.asText());
-                    } else if (ELEM_SID.equals(fieldName)) {
-                        builder.setSID(fieldNode.asText());
-                    } else if (ELEM_IDENTIFYING_ATTR.equals(fieldName)) {
-                        // nothing;
-                    } else if (ELEM_STATUS.equals(fieldName)) {
-                        builder.setStatus(InstanceStatus.toEnum(fieldNode.asText()));
-                    } else if (ELEM_OVERRIDDEN_STATUS.equals(fieldName)) {
-                        builder.setOverriddenStatus(InstanceStatus.toEnum(fieldNode.asText()));
-                    } else if (ELEM_PORT.equals(fieldName)) {
-                        int port = fieldNode.get("$").asInt();
-                        boolean enabled = fieldNode.get("@enabled").asBoolean();
-                        builder.setPort(port);
-                        builder.enablePort(PortType.UNSECURE, enabled);
-                    } else if (ELEM_SECURE_PORT.equals(fieldName)) {
-                        int port = fieldNode.get("$").asInt();
-                        boolean enabled = fieldNode.get("@enabled").asBoolean();
-                        builder.setSecurePort(port);
-                        builder.enablePort(PortType.SECURE, enabled);
-                    } else if (ELEM_COUNTRY_ID.equals(fieldName)) {
-                        builder.setCountryId(Integer.valueOf(fieldNode.asText()).intValue());
-                    } else if (NODE_DATACENTER.equals(fieldName)) {
-                        builder.setDataCenterInfo(mapper.treeToValue(fieldNode, DataCenterInfo.class));
-                    } else if (NODE_LEASE.equals(fieldName)) {
-                        builder.setLeaseInfo(mapper.treeToValue(fieldNode, LeaseInfo.class));
-                    } else if (NODE_METADATA.equals(fieldName)) {
-                        Map<String, String> meta = null;
-                        Iterator<String> metaNameIt = fieldNode.fieldNames();
-                        while (metaNameIt.hasNext()) {
-                            String key = StringCache.intern(metaNameIt.next());
-                            if (key.equals("@class")) { // For backwards compatibility
-                                if (meta == null && !metaNameIt.hasNext()) { // Optimize for empty maps
-                                    meta = Collections.emptyMap();
-                                }
-                            } else {
-                                if (meta == null) {
-                                    meta = new ConcurrentHashMap<String, String>();
-                                }
-                                String value = StringCache.intern(fieldNode.get(key).asText());
-                                meta.put(key, value);
-                            }
-                        }
-                        if (meta == null) {
-                            meta = Collections.emptyMap();
-                        }
-                        builder.setMetadata(meta);
-                    } else if (ELEM_HEALTHCHECKURL.equals(fieldName)) {
-                        healthChecUrl = fieldNode.asText();
-                    } else if (ELEM_SECHEALTHCHECKURL.equals(fieldName)) {
-                        healthCheckSecureUrl = fieldNode.asText();
-                    } else if (ELEM_APPGROUPNAME.equals(fieldName)) {
-                        builder.setAppGroupName(fieldNode.asText());
-                    } else if (ELEM_HOMEPAGEURL.equals(fieldName)) {
-                        builder.setHomePageUrlForDeser(fieldNode.asText());
-                    } else if (ELEM_STATUSPAGEURL.equals(fieldName)) {
-                        builder.setStatusPageUrlForDeser(fieldNode.asText());
-                    } else if (ELEM_VIPADDRESS.equals(fieldName)) {
-                        builder.setVIPAddressDeser(fieldNode.asText());
-                    } else if (ELEM_SECVIPADDRESS.equals(fieldName)) {
-                        builder.setSecureVIPAddressDeser(fieldNode.asText());
-                    } else if (ELEM_ISCOORDINATINGDISCSOERVER.equals(fieldName)) {
-                        builder.setIsCoordinatingDiscoveryServer(fieldNode.asBoolean());
-                    } else if (ELEM_LASTUPDATEDTS.equals(fieldName)) {
-                        builder.setLastUpdatedTimestamp(fieldNode.asLong());
-                    } else if (ELEM_LASTDIRTYTS.equals(fieldName)) {
-                        builder.setLastDirtyTimestamp(fieldNode.asLong());
-                    } else if (ELEM_ACTIONTYPE.equals(fieldName)) {
-                        builder.setActionType(ActionType.valueOf(fieldNode.asText()));
-                    } else if (ELEM_ASGNAME.equals(fieldName)) {
-                        builder.setASGName(fieldNode.asText());
-                    } else {
-                        autoUnmarshalEligible(fieldName, fieldNode.asText(), builder.getRawInstance());
-                    }
+            for (JsonToken token = firstFieldToken(jp); token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+                String fieldName = jp.getCurrentName();
+                if (jp.nextToken() == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (fieldName) {
+                    case ELEM_HOST:
+                        builder.setHostName(readText(jp));
+                        break;
+                    case ELEM_INSTANCE_ID:
+                        builder.setInstanceId(readText(jp));
+                        break;
+                    case ELEM_APP:
+                        builder.setAppName(readText(jp));
+                        break;
+                    case ELEM_IP:
+                        builder.setIPAddr(readText(jp));
+                        break;
+                    case ELEM_SID:
+                        builder.setSID(readText(jp));
+                        break;
+                    case ELEM_IDENTIFYING_ATTR:
+                        jp.skipChildren();
+                        break;
+                    case ELEM_STATUS:
+                        builder.setStatus(InstanceStatus.toEnum(readText(jp)));
+                        break;
+                    case ELEM_OVERRIDDEN_STATUS:
+                        builder.setOverriddenStatus(InstanceStatus.toEnum(readText(jp)));
+                        break;
+                    case ELEM_PORT:
+                        readPort(jp, builder, PortType.UNSECURE);
+                        break;
+                    case ELEM_SECURE_PORT:
+                        readPort(jp, builder, PortType.SECURE);
+                        break;
+                    case ELEM_COUNTRY_ID:
+                        builder.setCountryId(Integer.valueOf(readText(jp)));
+                        break;
+                    case NODE_DATACENTER:
+                        builder.setDataCenterInfo(dataCenterInfoDeserializer.deserialize(jp, context));
+                        break;
+                    case NODE_LEASE:
+                        builder.setLeaseInfo(leaseInfoDeserializer.deserialize(jp, context));
+                        break;
+                    case NODE_METADATA:
+                        builder.setMetadata(readMetadata(jp));
+                        break;
+                    case ELEM_HEALTHCHECKURL:
+                        healthChecUrl = readText(jp);
+                        break;
+                    case ELEM_SECHEALTHCHECKURL:
+                        healthCheckSecureUrl = readText(jp);
+                        break;
+                    case ELEM_APPGROUPNAME:
+                        builder.setAppGroupName(readText(jp));
+                        break;
+                    case ELEM_HOMEPAGEURL:
+                        builder.setHomePageUrlForDeser(readText(jp));
+                        break;
+                    case ELEM_STATUSPAGEURL:
+                        builder.setStatusPageUrlForDeser(readText(jp));
+                        break;
+                    case ELEM_VIPADDRESS:
+                        builder.setVIPAddressDeser(readText(jp));
+                        break;
+                    case ELEM_SECVIPADDRESS:
+                        builder.setSecureVIPAddressDeser(readText(jp));
+                        break;
+                    case ELEM_ISCOORDINATINGDISCSOERVER:
+                        builder.setIsCoordinatingDiscoveryServer(readBoolean(jp));
+                        break;
+                    case ELEM_LASTUPDATEDTS:
+                        builder.setLastUpdatedTimestamp(readLong(jp));
+                        break;
+                    case ELEM_LASTDIRTYTS:
+                        builder.setLastDirtyTimestamp(readLong(jp));
+                        break;
+                    case ELEM_ACTIONTYPE:
+                        builder.setActionType(ActionType.valueOf(readText(jp)));
+                        break;
+                    case ELEM_ASGNAME:
+                        builder.setASGName(readText(jp));
+                        break;
+                    default:
+                        autoUnmarshalEligible(fieldName, readText(jp), builder.getRawInstance());
                 }
             }
             builder.setHealthCheckUrlsForDeser(healthChecUrl, healthCheckSecureUrl);
@@ -505,40 +601,92 @@ public class EurekaJacksonCodec {
             return builder.build();
         }
 
-        protected void autoUnmarshalEligible(String fieldName, String value, Object o) {
-            try {
-                Class c = o.getClass();
-                Field f = null;
-                try {
-                    f = c.getDeclaredField(fieldName);
-                } catch (NoSuchFieldException e) {
-                    // TODO XStream version increments metrics counter here
-                }
-                if (f == null) {
-                    return;
-                }
-                Annotation annotation = f.getAnnotation(Auto.class);
-                if (annotation == null) {
-                    return;
+        private static void readPort(JsonParser jp, InstanceInfo.Builder builder, PortType portType) throws IOException {
+            if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+                throw new JsonMappingException("Expected port object but found " + jp.getCurrentToken(), jp.getCurrentLocation());
+            }
+            int port = 0;
+            boolean enabled = false;
+            while (jp.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jp.getCurrentName();
+                jp.nextToken();
+                if ("$".equals(fieldName)) {
+                    port = (int) readLong(jp);
+                } else if ("@enabled".equals(fieldName)) {
+                    enabled = readBoolean(jp);
+                } else {
+                    jp.skipChildren();
                 }
-                f.setAccessible(true);
-
-                Class returnClass = f.getType();
-                if (value != null) {
-                    if (!String.class.equals(returnClass)) {
-                        Method method = returnClass.getDeclaredMethod("valueOf", java.lang.String.class);
-                        Object valueObject = method.invoke(returnClass, value);
-                        f.set(o, valueObject);
-                    } else {
-                        f.set(o, value);
+            }
+            if (portType == PortType.SECURE) {
+                builder.setSecurePort(port);
+            } else {
+                builder.setPort(port);
+            }
+            builder.enablePort(portType, enabled);
+        }
 
+        private static Map<String, String> readMetadata(JsonParser jp) throws IOException {
+            if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+                jp.skipChildren();
+                return Collections.emptyMap();
+            }
+            Map<String, String> meta = null;
+            while (jp.nextToken() == JsonToken.FIELD_NAME) {
+                String key = StringCache.intern(jp.getCurrentName());
+                jp.nextToken();
+                String value = readText(jp);
+                if (!key.equals("@class")) { // For backwards compatibility
+                    if (meta == null) {
+                        meta = new ConcurrentHashMap<String, String>();
                     }
+                    meta.put(key, StringCache.intern(value));
+                }
+            }
+            return meta == null ? Collections.<String, String>emptyMap() : meta;
+        }
+
+        protected void autoUnmarshalEligible(String fieldName, String value, Object o) {
+            try {
+                AutoField autoField = autoFieldsOf(o.getClass()).get(fieldName);
+                // TODO XStream version increments metrics counter for unknown fields
+                if (autoField != null && value != null) {
+                    autoField.set(o, value);
                 }
             } catch (Throwable th) {
                 logger.error("Error in unmarshalling the object:", th);
             }
         }
 
+        private static Map<String, AutoField> autoFieldsOf(Class<?> c) throws NoSuchMethodException {
+            Map<String, AutoField> autoFields = AUTO_FIELDS_BY_CLASS.get(c);
+            if (autoFields == null) {
+                autoFields = new HashMap<>();
+                for (Field f : c.getDeclaredFields()) {
+                    if (f.getAnnotation(Auto.class) != null) {
+                        autoFields.put(f.getName(), new AutoField(f));
+                    }
+                }
+                AUTO_FIELDS_BY_CLASS.putIfAbsent(c, autoFields);
+            }
+            return autoFields;
+        }
+
+        private static class AutoField {
+            private final Field field;
+            private final Method valueOf;
+
+            AutoField(Field field) throws NoSuchMethodException {
+                this.field = field;
+                this.field.setAccessible(true);
+                Class<?> returnClass = field.getType();
+                this.valueOf = String.class.equals(returnClass) ? null : returnClass.getDeclaredMethod("valueOf", String.class);
+            }
+
+            void set(Object o, String value) throws Exception {
+                field.set(o, valueOf == null ? value : valueOf.invoke(null, value));
+            }
+        }
     }
 
     public static class ApplicationSerializer extends JsonSerializer<Application> {
@@ -553,6 +701,8 @@ public class EurekaJacksonCodec {
 
     public static class ApplicationDeserializer extends JsonDeserializer<Application> {
 
+        private final NestedValueDeserializer<InstanceInfo> instanceInfoDeserializer = new NestedValueDeserializer<>(InstanceInfo.class);
+
         protected ObjectMapper mapper;
 
         public ApplicationDeserializer(ObjectMapper mapper) {
@@ -561,21 +711,25 @@ public class EurekaJacksonCodec {
 
         @Override
         public Application deserialize(JsonParser jp, DeserializationContext context) throws IOException {
-            JsonNode node = jp.getCodec().readTree(jp);
-
-            Application application = new Application(node.get(ELEM_NAME).asText());
-
-            JsonNode instanceNode = node.get(ELEM_INSTANCE);
-            if (instanceNode != null) {
-                if (instanceNode instanceof ArrayNode) {
-                    ArrayNode instancesNode = (ArrayNode) instanceNode;
-                    if (instancesNode != null) {
-                        for (JsonNode nextNode : instancesNode) {
-                            application.addInstance(mapper.treeToValue(nextNode, InstanceInfo.class));
+            Application application = new Application();
+
+            for (JsonToken token = firstFieldToken(jp); token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+                String fieldName = jp.getCurrentName();
+                JsonToken valueToken = jp.nextToken();
+                if (ELEM_NAME.equals(fieldName)) {
+                    application.setName(readText(jp));
+                } else if (ELEM_INSTANCE.equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    for (JsonToken item = jp.nextToken(); item != JsonToken.END_ARRAY; item = jp.nextToken()) {
+                        if (item == JsonToken.START_OBJECT) {
+                            application.addInstance(instanceInfoDeserializer.deserialize(jp, context));
+                        } else {
+                            jp.skipChildren();
                         }
                     }
+                } else if (ELEM_INSTANCE.equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    application.addInstance(instanceInfoDeserializer.deserialize(jp, context));
                 } else {
-                    application.addInstance(mapper.treeToValue(instanceNode, InstanceInfo.class));
+                    jp.skipChildren();
                 }
             }
             return application;
@@ -601,6 +755,8 @@ public class EurekaJacksonCodec {
     }
 
     public static class ApplicationsDeserializer extends JsonDeserializer<Applications> {
+        private final NestedValueDeserializer<Application> applicationDeserializer = new NestedValueDeserializer<>(Application.class);
+
         protected ObjectMapper mapper;
         protected String versionDeltaKey;
         protected String appHashCodeKey;
@@ -615,23 +771,25 @@ public class EurekaJacksonCodec {
         public Applications deserialize(JsonParser jp, DeserializationContext context) throws IOException {
             Applications apps = new Applications();
 
-            JsonNode node = jp.getCodec().readTree(jp);
-
-            if (node.get(versionDeltaKey) != null) {
-                apps.setVersion(node.get(versionDeltaKey).asLong());
-            }
-            if (node.get(appHashCodeKey) != null) {
-                apps.setAppsHashCode(node.get(appHashCodeKey).asText());
-            }
-            JsonNode appNode = node.get(NODE_APP);
-            if (appNode != null) {
-                if (appNode instanceof ArrayNode) {
-                    ArrayNode appsNode = (ArrayNode) appNode;
-                    for (JsonNode item : appsNode) {
-                        apps.addApplication(mapper.treeToValue(item, Application.class));
+            for (JsonToken token = firstFieldToken(jp); token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+                String fieldName = jp.getCurrentName();
+                JsonToken valueToken = jp.nextToken();
+                if (versionDeltaKey.equals(fieldName)) {
+                    apps.setVersion(readLong(jp));
+                } else if (appHashCodeKey.equals(fieldName)) {
+                    apps.setAppsHashCode(readText(jp));
+                } else if (NODE_APP.equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    for (JsonToken item = jp.nextToken(); item != JsonToken.END_ARRAY; item = jp.nextToken()) {
+                        if (item == JsonToken.START_OBJECT) {
+                            apps.addApplication(applicationDeserializer.deserialize(jp, context));
+                        } else {
+                            jp.skipChildren();
+                        }
                     }
+                } else if (NODE_APP.equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    apps.addApplication(applicationDeserializer.deserialize(jp, context));
                 } else {
-                    apps.addApplication(mapper.treeToValue(appNode, Application.class));
+                    jp.skipChildren();
                 }
             }
             return apps;
@@ -4,10 +4,12 @@ import javax.ws.rs.core.MediaType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.netflix.appinfo.EurekaAccept;
+import com.netflix.discovery.converters.EurekaBinaryCodec;
 import com.netflix.discovery.converters.EurekaJacksonCodec;
 import com.netflix.discovery.converters.JsonXStream;
 import com.netflix.discovery.converters.KeyFormatter;
@@ -95,6 +97,8 @@ public final class CodecWrappers {
         switch (accept) {
             case compact:
                 return getDecoder(JacksonJsonMini.class);
+            case binary:
+                return getDecoder(EurekaBinary.class);
             case full:
             default:
                 return getDecoder(name);
@@ -131,6 +135,8 @@ public final class CodecWrappers {
             return new JacksonXmlMini();
         } else if (getCodecName(XStreamXml.class).equals(name)) {
             return new XStreamXml();
+        } else if (getCodecName(EurekaBinary.class).equals(name)) {
+            return new EurekaBinary();
         } else {
             return null;
         }
@@ -387,4 +393,46 @@ public final class CodecWrappers {
             return (T) codec.fromXML(inputStream, type);
         }
     }
+
+    /**
+     * Binary codec negotiated with {@link EurekaAccept#binary}. The payload is not text, so the string variants
+     * map each byte to one ISO-8859-1 character, which keeps them lossless for the callers that cache payloads
+     * as strings.
+     */
+    public static class EurekaBinary implements CodecWrapper {
+
+        private static final Charset BYTE_PER_CHAR = Charset.forName("ISO-8859-1");
+
+        protected final EurekaBinaryCodec codec = new EurekaBinaryCodec();
+
+        @Override
+        public String codecName() {
+            return getCodecName(this.getClass());
+        }
+
+        @Override
+        public boolean support(MediaType mediaType) {
+            return mediaType.equals(EurekaBinaryCodec.APPLICATION_EUREKA_BINARY_TYPE);
+        }
+
+        @Override
+        public <T> String encode(T object) throws IOException {
+            return new String(codec.writeToBytes(object), BYTE_PER_CHAR);
+        }
+
+        @Override
+        public <T> void encode(T object, OutputStream outputStream) throws IOException {
+            codec.writeTo(object, outputStream);
+        }
+
+        @Override
+        public <T> T decode(String textValue, Class<T> type) throws IOException {
+            return codec.readValue(type, textValue.getBytes(BYTE_PER_CHAR));
+        }
+
+        @Override
+        public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+            return codec.readValue(type, inputStream);
+        }
+    }
 }
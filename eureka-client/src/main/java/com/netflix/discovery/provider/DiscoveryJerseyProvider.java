@@ -32,7 +32,9 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.Map;
 
+import com.netflix.discovery.converters.EurekaBinaryCodec;
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.EurekaBinary;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.LegacyJacksonJson;
 import com.netflix.discovery.converters.wrappers.DecoderWrapper;
 import com.netflix.discovery.converters.wrappers.EncoderWrapper;
@@ -47,7 +49,7 @@ import org.slf4j.LoggerFactory;
  * @author Karthik Ranganathan
  */
 @Provider
-@Produces({"application/json", "application/xml"})
+@Produces({"application/json", "application/xml", EurekaBinaryCodec.APPLICATION_EUREKA_BINARY})
 @Consumes("*/*")
 public class DiscoveryJerseyProvider implements MessageBodyWriter<Object>, MessageBodyReader<Object> {
     private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryJerseyProvider.class);
@@ -60,11 +62,22 @@ public class DiscoveryJerseyProvider implements MessageBodyWriter<Object>, Messa
     private final EncoderWrapper xmlEncoder;
     private final DecoderWrapper xmlDecoder;
 
+    // Binary content is only exchanged when negotiated via X-Eureka-Accept header, and servers that do not
+    // support it reply with JSON, so a binary decoder always comes with a JSON fallback.
+    private final EncoderWrapper binaryEncoder;
+    private final DecoderWrapper binaryDecoder;
+
     public DiscoveryJerseyProvider() {
         this(null, null);
     }
 
     public DiscoveryJerseyProvider(EncoderWrapper jsonEncoder, DecoderWrapper jsonDecoder) {
+        this.binaryEncoder = CodecWrappers.getEncoder(EurekaBinary.class);
+        this.binaryDecoder = CodecWrappers.getDecoder(EurekaBinary.class);
+        if (jsonDecoder instanceof EurekaBinary) {
+            jsonDecoder = null;
+        }
+
         this.jsonEncoder = jsonEncoder == null ? CodecWrappers.getEncoder(LegacyJacksonJson.class) : jsonEncoder;
         this.jsonDecoder = jsonDecoder == null ? CodecWrappers.getDecoder(LegacyJacksonJson.class) : jsonDecoder;
         LOGGER.info("Using JSON encoding codec {}", this.jsonEncoder.codecName());
@@ -95,6 +108,8 @@ public class DiscoveryJerseyProvider implements MessageBodyWriter<Object>, Messa
             decoder = xmlDecoder;
         } else if ("json".equalsIgnoreCase(mediaType.getSubtype())) {
             decoder = jsonDecoder;
+        } else if (isBinaryMediaType(mediaType)) {
+            decoder = binaryDecoder;
         } else {
             decoder = xmlDecoder; // default
         }
@@ -125,7 +140,14 @@ public class DiscoveryJerseyProvider implements MessageBodyWriter<Object>, Messa
     public void writeTo(Object serializableObject, Class serializableClass,
                         Type type, Annotation[] annotations, MediaType mediaType,
                         MultivaluedMap headers, OutputStream outputStream) throws IOException, WebApplicationException {
-        EncoderWrapper encoder = "json".equalsIgnoreCase(mediaType.getSubtype()) ? jsonEncoder : xmlEncoder;
+        EncoderWrapper encoder;
+        if ("json".equalsIgnoreCase(mediaType.getSubtype())) {
+            encoder = jsonEncoder;
+        } else if (isBinaryMediaType(mediaType)) {
+            encoder = binaryEncoder;
+        } else {
+            encoder = xmlEncoder;
+        }
 
         // XML codec may not be available
         if (encoder == null) {
@@ -142,9 +164,20 @@ public class DiscoveryJerseyProvider implements MessageBodyWriter<Object>, Messa
         if (MediaType.APPLICATION_XML_TYPE.isCompatible(mediaType)) {
             return xmlDecoder != null;
         }
+        if (isBinaryMediaType(mediaType)) {
+            return true;
+        }
         return false;
     }
 
+    /**
+     * Matched on the exact subtype, as wildcard media types must keep resolving to the text codecs.
+     */
+    private static boolean isBinaryMediaType(MediaType mediaType) {
+        return EurekaBinaryCodec.APPLICATION_EUREKA_BINARY_TYPE.getType().equalsIgnoreCase(mediaType.getType())
+                && EurekaBinaryCodec.APPLICATION_EUREKA_BINARY_TYPE.getSubtype().equalsIgnoreCase(mediaType.getSubtype());
+    }
+
     /**
      * As content is cached, we expect both ends use UTF-8 always. If no content charset encoding is explicitly
      * defined, UTF-8 is assumed as a default.
@@ -19,9 +19,11 @@ package com.netflix.discovery.shared;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -70,6 +72,12 @@ public class Application {
 
     private AtomicReference<List<InstanceInfo>> shuffledInstances = new AtomicReference<List<InstanceInfo>>();
 
+    // Shuffled instances grouped by vip, built along with shuffledInstances
+    @XStreamOmitField
+    private volatile Map<String, List<InstanceInfo>> shuffledInstancesByVip;
+    @XStreamOmitField
+    private volatile Map<String, List<InstanceInfo>> shuffledInstancesBySecureVip;
+
     private Map<String, InstanceInfo> instancesMap;
 
     public Application() {
@@ -83,6 +91,22 @@ public class Application {
         instances = new LinkedHashSet<InstanceInfo>();
     }
 
+    /**
+     * Creates a copy of the given application, that can be modified without affecting the original one.
+     * The {@link InstanceInfo} objects are shared between both.
+     */
+    Application(Application other) {
+        this.name = other.name;
+        this.isDirty = other.isDirty;
+        synchronized (other.instances) {
+            this.instances = new LinkedHashSet<InstanceInfo>(other.instances);
+        }
+        this.instancesMap = new ConcurrentHashMap<String, InstanceInfo>(other.instancesMap);
+        this.shuffledInstances.set(other.shuffledInstances.get());
+        this.shuffledInstancesByVip = other.shuffledInstancesByVip;
+        this.shuffledInstancesBySecureVip = other.shuffledInstancesBySecureVip;
+    }
+
     @JsonCreator
     public Application(
             @JsonProperty("name") String name,
@@ -138,6 +162,26 @@ public class Application {
         }
     }
 
+    /**
+     * Gets the list of instances of this application with the given vip address, in the same order as
+     * {@link #getInstances()}. An instance matches if any of its comma separated vip addresses is equal to
+     * the given one, ignoring case and surrounding white space.
+     *
+     * @param vipAddress
+     *            the vip address to match.
+     * @param secure
+     *            true to match the secure vip addresses, false otherwise.
+     * @return a new list of the matching instances.
+     */
+    public List<InstanceInfo> getInstancesByVipAddress(String vipAddress, boolean secure) {
+        Map<String, List<InstanceInfo>> vipIndex = secure ? shuffledInstancesBySecureVip : shuffledInstancesByVip;
+        if (vipIndex == null) {
+            vipIndex = indexByVip(getInstances(), secure);
+        }
+        List<InstanceInfo> instances = vipIndex.get(vipAddress.trim().toUpperCase(Locale.ROOT));
+        return instances == null ? new ArrayList<InstanceInfo>() : new ArrayList<InstanceInfo>(instances);
+    }
+
     /**
      * Gets the list of non-shuffled and non-filtered instances associated with this particular
      * application.
@@ -247,6 +291,31 @@ public class Application {
         }
         Collections.shuffle(instanceInfoList);
         this.shuffledInstances.set(instanceInfoList);
+        this.shuffledInstancesByVip = indexByVip(instanceInfoList, false);
+        this.shuffledInstancesBySecureVip = indexByVip(instanceInfoList, true);
+    }
+
+    private static Map<String, List<InstanceInfo>> indexByVip(List<InstanceInfo> instances, boolean secure) {
+        Map<String, List<InstanceInfo>> vipIndex = new HashMap<String, List<InstanceInfo>>();
+        for (InstanceInfo instance : instances) {
+            String vipAddresses = secure ? instance.getSecureVipAddress() : instance.getVIPAddress();
+            if (vipAddresses == null) {
+                continue;
+            }
+            for (String vipAddress : vipAddresses.split(",")) {
+                String vipName = vipAddress.trim().toUpperCase(Locale.ROOT);
+                List<InstanceInfo> vipInstances = vipIndex.get(vipName);
+                if (vipInstances == null) {
+                    vipInstances = new ArrayList<InstanceInfo>();
+                    vipIndex.put(vipName, vipInstances);
+                }
+                // an instance listing the same vip twice is returned once
+                if (vipInstances.isEmpty() || vipInstances.get(vipInstances.size() - 1) != instance) {
+                    vipInstances.add(instance);
+                }
+            }
+        }
+        return vipIndex;
     }
 
     private void removeInstance(InstanceInfo i, boolean markAsDirty) {
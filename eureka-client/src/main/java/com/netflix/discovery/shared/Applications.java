@@ -84,6 +84,12 @@ public class Applications {
     private Map<String, AtomicReference<List<InstanceInfo>>> shuffleVirtualHostNameMap = new ConcurrentHashMap<String, AtomicReference<List<InstanceInfo>>>();
     private Map<String, AtomicReference<List<InstanceInfo>>> shuffledSecureVirtualHostNameMap = new ConcurrentHashMap<String, AtomicReference<List<InstanceInfo>>>();
 
+    // Applications and vips changed since the last shuffle, see shuffleChangedInstances
+    private Set<String> changedAppNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Set<String> changedVirtualHostNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Set<String> changedSecureVirtualHostNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private volatile Boolean shuffledWithUpInstancesFilter;
+
     private String appsHashCode;
 
     /**
@@ -120,6 +126,37 @@ public class Applications {
         this.applications.addAll(apps);
     }
 
+    /**
+     * Creates a copy of this applications list, that can be modified and re-indexed without affecting
+     * threads still reading from this one. Each {@link Application} is copied, while the {@link InstanceInfo}
+     * objects are shared. The virtual host name index is copied as well, so that the copy can be updated
+     * incrementally with {@link #addInstance(InstanceInfo)}, {@link #removeInstance(InstanceInfo)} and
+     * {@link #shuffleChangedInstances(boolean)}.
+     *
+     * @return a copy of this applications list
+     */
+    public Applications copy() {
+        Applications copy = new Applications();
+        for (Application app : applications) {
+            Application appCopy = new Application(app);
+            copy.appNameApplicationMap.put(appCopy.getName().toUpperCase(Locale.ROOT), appCopy);
+            copy.applications.add(appCopy);
+        }
+        copyVIPMap(virtualHostNameAppMap, copy.virtualHostNameAppMap);
+        copyVIPMap(secureVirtualHostNameAppMap, copy.secureVirtualHostNameAppMap);
+        copyShuffledVIPMap(shuffleVirtualHostNameMap, copy.shuffleVirtualHostNameMap);
+        copyShuffledVIPMap(shuffledSecureVirtualHostNameMap, copy.shuffledSecureVirtualHostNameMap);
+        copy.virtualHostNameIndexMap.putAll(virtualHostNameIndexMap);
+        copy.secureVirtualHostNameIndexMap.putAll(secureVirtualHostNameIndexMap);
+        copy.changedAppNames.addAll(changedAppNames);
+        copy.changedVirtualHostNames.addAll(changedVirtualHostNames);
+        copy.changedSecureVirtualHostNames.addAll(changedSecureVirtualHostNames);
+        copy.shuffledWithUpInstancesFilter = shuffledWithUpInstancesFilter;
+        copy.appsHashCode = appsHashCode;
+        copy.versionDelta = versionDelta;
+        return copy;
+    }
+
     /**
      * Add the <em>application</em> to the list.
      *
@@ -130,6 +167,51 @@ public class Applications {
         appNameApplicationMap.put(app.getName().toUpperCase(Locale.ROOT), app);
         addInstancesToVIPMaps(app);
         applications.add(app);
+        changedAppNames.add(app.getName().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Adds the <em>instance</em> to its application, replacing the instance with the same id if there is one,
+     * and updates the virtual host name index. If the application is not registered yet, an empty one is
+     * added first. The affected application and vips are reshuffled by the next call to
+     * {@link #shuffleChangedInstances(boolean)}.
+     *
+     * @param info
+     *            the <em>instance</em> to be added.
+     */
+    public void addInstance(InstanceInfo info) {
+        Application app = getRegisteredApplications(info.getAppName());
+        if (app == null) {
+            app = new Application(info.getAppName());
+            addApplication(app);
+        }
+        InstanceInfo previous = app.getByInstanceId(info.getId());
+        if (previous != null) {
+            removeInstanceFromVIPMaps(previous);
+        }
+        app.addInstance(info);
+        addInstanceToVIPMaps(info);
+        changedAppNames.add(app.getName().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Removes the <em>instance</em> from its application, and from the virtual host name index. The affected
+     * application and vips are reshuffled by the next call to {@link #shuffleChangedInstances(boolean)}.
+     *
+     * @param info
+     *            the <em>instance</em> to be removed.
+     */
+    public void removeInstance(InstanceInfo info) {
+        Application app = getRegisteredApplications(info.getAppName());
+        if (app == null) {
+            return;
+        }
+        InstanceInfo previous = app.getByInstanceId(info.getId());
+        if (previous != null) {
+            removeInstanceFromVIPMaps(previous);
+        }
+        app.removeInstance(info);
+        changedAppNames.add(app.getName().toUpperCase(Locale.ROOT));
     }
 
 
@@ -195,6 +277,30 @@ public class Applications {
         }
     }
 
+    /**
+     * Gets the list of <em>instances</em> of an application, associated to a virtual host name. This uses the
+     * per application vip index built when the instances are shuffled, so the cost depends on the number of
+     * matching instances only.
+     *
+     * @param virtualHostName
+     *            the virtual hostname for which the instances need to be
+     *            returned.
+     * @param appName
+     *            the application name for which the instances need to be
+     *            returned.
+     * @param secure
+     *            true for the secure virtual hostname, false otherwise.
+     * @return list of <em>instances</em>.
+     */
+    public List<InstanceInfo> getInstancesByVirtualHostNameAndAppName(String virtualHostName, String appName,
+                                                                      boolean secure) {
+        Application application = getRegisteredApplications(appName);
+        if (application == null) {
+            return new ArrayList<InstanceInfo>();
+        }
+        return application.getInstancesByVipAddress(virtualHostName, secure);
+    }
+
     /**
      * @return a weakly consistent size of the number of instances in all the applications
      */
@@ -427,10 +533,42 @@ public class Applications {
                 instanceRegionChecker);
     }
 
+    /**
+     * Shuffles only the applications and vips changed by {@link #addApplication(Application)},
+     * {@link #addInstance(InstanceInfo)} and {@link #removeInstance(InstanceInfo)} since the last shuffle,
+     * leaving the others as they are. Falls back to {@link #shuffleInstances(boolean)} if this list was
+     * never shuffled, or was shuffled with a different UP instances filter.
+     *
+     * @param filterUpInstances whether to return only UP instances
+     */
+    public void shuffleChangedInstances(boolean filterUpInstances) {
+        if (shuffledWithUpInstancesFilter == null || shuffledWithUpInstancesFilter != filterUpInstances) {
+            shuffleInstances(filterUpInstances);
+            return;
+        }
+        for (String appName : drain(changedAppNames)) {
+            Application application = appNameApplicationMap.get(appName);
+            if (application != null) {
+                application.shuffleAndStoreInstances(filterUpInstances);
+            }
+        }
+        for (String vipName : drain(changedVirtualHostNames)) {
+            shuffleAndFilterInstances(vipName, virtualHostNameAppMap, shuffleVirtualHostNameMap,
+                    virtualHostNameIndexMap, filterUpInstances);
+        }
+        for (String vipName : drain(changedSecureVirtualHostNames)) {
+            shuffleAndFilterInstances(vipName, secureVirtualHostNameAppMap, shuffledSecureVirtualHostNameMap,
+                    secureVirtualHostNameIndexMap, filterUpInstances);
+        }
+    }
+
     private void shuffleInstances(boolean filterUpInstances, boolean indexByRemoteRegions,
                                   @Nullable Map<String, Applications> remoteRegionsRegistry,
                                   @Nullable EurekaClientConfig clientConfig,
                                   @Nullable InstanceRegionChecker instanceRegionChecker) {
+        this.changedAppNames.clear();
+        this.changedVirtualHostNames.clear();
+        this.changedSecureVirtualHostNames.clear();
         this.virtualHostNameAppMap.clear();
         this.secureVirtualHostNameAppMap.clear();
         for (Application application : appNameApplicationMap.values()) {
@@ -447,6 +585,9 @@ public class Applications {
         shuffleAndFilterInstances(this.secureVirtualHostNameAppMap,
                 this.shuffledSecureVirtualHostNameMap,
                 secureVirtualHostNameIndexMap, filterUpInstances);
+        this.changedVirtualHostNames.clear();
+        this.changedSecureVirtualHostNames.clear();
+        this.shuffledWithUpInstancesFilter = filterUpInstances;
     }
 
     /**
@@ -478,26 +619,7 @@ public class Applications {
             Map<String, AtomicReference<List<InstanceInfo>>> destMap,
             Map<String, AtomicLong> vipIndexMap, boolean filterUpInstances) {
         for (Map.Entry<String, AbstractQueue<InstanceInfo>> entries : srcMap.entrySet()) {
-            AbstractQueue<InstanceInfo> instanceInfoQueue = entries.getValue();
-            List<InstanceInfo> l = new ArrayList<InstanceInfo>(instanceInfoQueue);
-            if (filterUpInstances) {
-                Iterator<InstanceInfo> it = l.iterator();
-
-                while (it.hasNext()) {
-                    InstanceInfo instanceInfo = it.next();
-                    if (!InstanceStatus.UP.equals(instanceInfo.getStatus())) {
-                        it.remove();
-                    }
-                }
-            }
-            Collections.shuffle(l);
-            AtomicReference<List<InstanceInfo>> instanceInfoList = destMap.get(entries.getKey());
-            if (instanceInfoList == null) {
-                instanceInfoList = new AtomicReference<List<InstanceInfo>>(l);
-                destMap.put(entries.getKey(), instanceInfoList);
-            }
-            instanceInfoList.set(l);
-            vipIndexMap.put(entries.getKey(), new AtomicLong(0));
+            storeShuffledInstances(entries.getKey(), entries.getValue(), destMap, vipIndexMap, filterUpInstances);
         }
 
         // finally remove all vips that are completed deleted (i.e. missing) from the srcSet
@@ -506,6 +628,50 @@ public class Applications {
         destVips.retainAll(srcVips);
     }
 
+    /**
+     * Shuffle the instances of a single vip, or drop the vip if it has no instances left.
+     */
+    private void shuffleAndFilterInstances(
+            String vipName,
+            Map<String, AbstractQueue<InstanceInfo>> srcMap,
+            Map<String, AtomicReference<List<InstanceInfo>>> destMap,
+            Map<String, AtomicLong> vipIndexMap, boolean filterUpInstances) {
+        AbstractQueue<InstanceInfo> instanceInfoQueue = srcMap.get(vipName);
+        if (instanceInfoQueue == null || instanceInfoQueue.isEmpty()) {
+            srcMap.remove(vipName);
+            destMap.remove(vipName);
+            vipIndexMap.remove(vipName);
+        } else {
+            storeShuffledInstances(vipName, instanceInfoQueue, destMap, vipIndexMap, filterUpInstances);
+        }
+    }
+
+    private static void storeShuffledInstances(
+            String vipName,
+            AbstractQueue<InstanceInfo> instanceInfoQueue,
+            Map<String, AtomicReference<List<InstanceInfo>>> destMap,
+            Map<String, AtomicLong> vipIndexMap, boolean filterUpInstances) {
+        List<InstanceInfo> l = new ArrayList<InstanceInfo>(instanceInfoQueue);
+        if (filterUpInstances) {
+            Iterator<InstanceInfo> it = l.iterator();
+
+            while (it.hasNext()) {
+                InstanceInfo instanceInfo = it.next();
+                if (!InstanceStatus.UP.equals(instanceInfo.getStatus())) {
+                    it.remove();
+                }
+            }
+        }
+        Collections.shuffle(l);
+        AtomicReference<List<InstanceInfo>> instanceInfoList = destMap.get(vipName);
+        if (instanceInfoList == null) {
+            instanceInfoList = new AtomicReference<List<InstanceInfo>>(l);
+            destMap.put(vipName, instanceInfoList);
+        }
+        instanceInfoList.set(l);
+        vipIndexMap.put(vipName, new AtomicLong(0));
+    }
+
     /**
      * Add the instance to the given map based if the vip address matches with
      * that of the instance. Note that an instance can be mapped to multiple vip
@@ -513,7 +679,7 @@ public class Applications {
      *
      */
     private void addInstanceToMap(InstanceInfo info, String vipAddresses,
-                                  Map<String, AbstractQueue<InstanceInfo>> vipMap) {
+                                  Map<String, AbstractQueue<InstanceInfo>> vipMap, Set<String> changedVips) {
         if (vipAddresses != null) {
             String[] vipAddressArray = vipAddresses.split(",");
             for (String vipAddress : vipAddressArray) {
@@ -524,6 +690,34 @@ public class Applications {
                     vipMap.put(vipName, instanceInfoList);
                 }
                 instanceInfoList.add(info);
+                changedVips.add(vipName);
+            }
+        }
+    }
+
+    /**
+     * Remove the instance from all the vips it is mapped to. Instances are matched by application name and
+     * id, as instance ids are only unique within an application.
+     */
+    private void removeInstanceFromMap(InstanceInfo info, String vipAddresses,
+                                       Map<String, AbstractQueue<InstanceInfo>> vipMap, Set<String> changedVips) {
+        if (vipAddresses != null) {
+            String[] vipAddressArray = vipAddresses.split(",");
+            for (String vipAddress : vipAddressArray) {
+                String vipName = vipAddress.toUpperCase(Locale.ROOT);
+                AbstractQueue<InstanceInfo> instanceInfoList = vipMap.get(vipName);
+                if (instanceInfoList == null) {
+                    continue;
+                }
+                Iterator<InstanceInfo> it = instanceInfoList.iterator();
+                while (it.hasNext()) {
+                    InstanceInfo candidate = it.next();
+                    if (info.getId().equals(candidate.getId()) && info.getAppName().equals(candidate.getAppName())) {
+                        it.remove();
+                        changedVips.add(vipName);
+                        break;
+                    }
+                }
             }
         }
     }
@@ -536,15 +730,45 @@ public class Applications {
         // Check and add the instances to the their respective virtual host name
         // mappings
         for (InstanceInfo info : app.getInstances()) {
-            String vipAddresses = info.getVIPAddress();
-            String secureVipAddresses = info.getSecureVipAddress();
-            if ((vipAddresses == null) && (secureVipAddresses == null)) {
-                continue;
-            }
-            addInstanceToMap(info, vipAddresses, virtualHostNameAppMap);
-            addInstanceToMap(info, secureVipAddresses,
-                    secureVirtualHostNameAppMap);
+            addInstanceToVIPMaps(info);
         }
     }
 
+    private void addInstanceToVIPMaps(InstanceInfo info) {
+        String vipAddresses = info.getVIPAddress();
+        String secureVipAddresses = info.getSecureVipAddress();
+        if ((vipAddresses == null) && (secureVipAddresses == null)) {
+            return;
+        }
+        addInstanceToMap(info, vipAddresses, virtualHostNameAppMap, changedVirtualHostNames);
+        addInstanceToMap(info, secureVipAddresses,
+                secureVirtualHostNameAppMap, changedSecureVirtualHostNames);
+    }
+
+    private void removeInstanceFromVIPMaps(InstanceInfo info) {
+        removeInstanceFromMap(info, info.getVIPAddress(), virtualHostNameAppMap, changedVirtualHostNames);
+        removeInstanceFromMap(info, info.getSecureVipAddress(),
+                secureVirtualHostNameAppMap, changedSecureVirtualHostNames);
+    }
+
+    private static void copyVIPMap(Map<String, AbstractQueue<InstanceInfo>> srcMap,
+                                   Map<String, AbstractQueue<InstanceInfo>> destMap) {
+        for (Map.Entry<String, AbstractQueue<InstanceInfo>> entry : srcMap.entrySet()) {
+            destMap.put(entry.getKey(), new ConcurrentLinkedQueue<InstanceInfo>(entry.getValue()));
+        }
+    }
+
+    private static void copyShuffledVIPMap(Map<String, AtomicReference<List<InstanceInfo>>> srcMap,
+                                           Map<String, AtomicReference<List<InstanceInfo>>> destMap) {
+        for (Map.Entry<String, AtomicReference<List<InstanceInfo>>> entry : srcMap.entrySet()) {
+            destMap.put(entry.getKey(), new AtomicReference<List<InstanceInfo>>(entry.getValue().get()));
+        }
+    }
+
+    private static List<String> drain(Set<String> names) {
+        List<String> drained = new ArrayList<String>(names);
+        names.removeAll(drained);
+        return drained;
+    }
+
 }
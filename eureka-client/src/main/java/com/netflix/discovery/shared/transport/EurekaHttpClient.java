@@ -26,6 +26,20 @@ public interface EurekaHttpClient {
 
     EurekaHttpResponse<Applications> getDelta(String... regions);
 
+    /**
+     * Same as {@link #getDelta(String...)}, except that the server holds the request until a delta newer than
+     * the given version is available, or the given time elapses. The server may cap the wait time, or answer
+     * right away, so the returned delta can be the one seen already.
+     */
+    EurekaHttpResponse<Applications> longPollDelta(long lastSeenVersion, long maxWaitMs, String... regions);
+
+    /**
+     * Same as {@link #getDelta(String...)}, except that only the changes made after the given delta version are
+     * returned. The server answers with status 410 if these changes are no longer recorded. With a positive wait
+     * time, the request is held as by {@link #longPollDelta(long, long, String...)}.
+     */
+    EurekaHttpResponse<Applications> getDeltaSince(long sinceVersion, long maxWaitMs, String... regions);
+
     EurekaHttpResponse<Applications> getVip(String vipAddress, String... regions);
 
     EurekaHttpResponse<Applications> getSecureVip(String secureVipAddress, String... regions);
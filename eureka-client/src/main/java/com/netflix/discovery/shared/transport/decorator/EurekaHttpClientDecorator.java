@@ -36,6 +36,8 @@ public abstract class EurekaHttpClientDecorator implements EurekaHttpClient {
         DeleteStatusOverride,
         GetApplications,
         GetDelta,
+        LongPollDelta,
+        GetDeltaSince,
         GetVip,
         GetSecureVip,
         GetApplication,
@@ -159,6 +161,36 @@ public abstract class EurekaHttpClientDecorator implements EurekaHttpClient {
         });
     }
 
+    @Override
+    public EurekaHttpResponse<Applications> longPollDelta(final long lastSeenVersion, final long maxWaitMs, final String... regions) {
+        return execute(new RequestExecutor<Applications>() {
+            @Override
+            public EurekaHttpResponse<Applications> execute(EurekaHttpClient delegate) {
+                return delegate.longPollDelta(lastSeenVersion, maxWaitMs, regions);
+            }
+
+            @Override
+            public RequestType getRequestType() {
+                return RequestType.LongPollDelta;
+            }
+        });
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getDeltaSince(final long sinceVersion, final long maxWaitMs, final String... regions) {
+        return execute(new RequestExecutor<Applications>() {
+            @Override
+            public EurekaHttpResponse<Applications> execute(EurekaHttpClient delegate) {
+                return delegate.getDeltaSince(sinceVersion, maxWaitMs, regions);
+            }
+
+            @Override
+            public RequestType getRequestType() {
+                return RequestType.GetDeltaSince;
+            }
+        });
+    }
+
     @Override
     public EurekaHttpResponse<Applications> getVip(final String vipAddress, final String... regions) {
         return execute(new RequestExecutor<Applications>() {
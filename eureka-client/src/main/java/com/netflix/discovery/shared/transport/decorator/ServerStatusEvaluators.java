@@ -34,7 +34,11 @@ public final class ServerStatusEvaluators {
                 return true;
             } else if (requestType == RequestType.Cancel) {  // cancel is best effort
                 return true;
-            } else if (requestType == RequestType.GetDelta && (statusCode == 403 || statusCode == 404)) {
+            } else if ((requestType == RequestType.GetDelta || requestType == RequestType.LongPollDelta)
+                    && (statusCode == 403 || statusCode == 404)) {
+                return true;
+            } else if (requestType == RequestType.GetDeltaSince
+                    && (statusCode == 403 || statusCode == 404 || statusCode == 410)) {
                 return true;
             }
             return false;
@@ -170,6 +170,24 @@ public abstract class AbstractJerseyEurekaHttpClient implements EurekaHttpClient
         return getApplicationsInternal("apps/delta", regions);
     }
 
+    @Override
+    public EurekaHttpResponse<Applications> longPollDelta(long lastSeenVersion, long maxWaitMs, String... regions) {
+        Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("lastSeenVersion", Long.toString(lastSeenVersion));
+        queryParams.put("maxWaitMs", Long.toString(maxWaitMs));
+        return getApplicationsInternal("apps/delta", regions, queryParams);
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getDeltaSince(long sinceVersion, long maxWaitMs, String... regions) {
+        Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("since", Long.toString(sinceVersion));
+        if (maxWaitMs > 0) {
+            queryParams.put("maxWaitMs", Long.toString(maxWaitMs));
+        }
+        return getApplicationsInternal("apps/delta", regions, queryParams);
+    }
+
     @Override
     public EurekaHttpResponse<Applications> getVip(String vipAddress, String... regions) {
         return getApplicationsInternal("vips/" + vipAddress, regions);
@@ -181,6 +199,11 @@ public abstract class AbstractJerseyEurekaHttpClient implements EurekaHttpClient
     }
 
     private EurekaHttpResponse<Applications> getApplicationsInternal(String urlPath, String[] regions) {
+        return getApplicationsInternal(urlPath, regions, Collections.<String, String>emptyMap());
+    }
+
+    private EurekaHttpResponse<Applications> getApplicationsInternal(String urlPath, String[] regions,
+                                                                     Map<String, String> queryParams) {
         ClientResponse response = null;
         String regionsParamValue = null;
         try {
@@ -189,6 +212,9 @@ public abstract class AbstractJerseyEurekaHttpClient implements EurekaHttpClient
                 regionsParamValue = StringUtil.join(regions);
                 webResource = webResource.queryParam("regions", regionsParamValue);
             }
+            for (Entry<String, String> queryParam : queryParams.entrySet()) {
+                webResource = webResource.queryParam(queryParam.getKey(), queryParam.getValue());
+            }
             Builder requestBuilder = webResource.getRequestBuilder();
             addExtraHeaders(requestBuilder);
             response = requestBuilder.accept(MediaType.APPLICATION_JSON_TYPE).get(ClientResponse.class);
@@ -245,6 +245,104 @@ public class DiscoveryClientRegistryTest {
     }
 
 
+    @Test
+    public void testDeltaIsPublishedAsNewSnapshot() throws Exception {
+        DiscoveryClientResource snapshotClientResource = discoveryClientResource.fork().withRegistrySnapshots(true).build();
+        InstanceInfoGenerator instanceGen = InstanceInfoGenerator.newBuilder(2, "testApp").build();
+
+        // Full fetch with one item
+        InstanceInfo first = instanceGen.first();
+        when(requestHandler.getApplications(TEST_REMOTE_REGION)).thenReturn(
+                anEurekaHttpResponse(200, toApplications(first)).type(MediaType.APPLICATION_JSON_TYPE).build()
+        );
+        EurekaClient client = snapshotClientResource.getClient();
+        Applications initial = client.getApplications();
+        assertThat(countInstances(initial), is(equalTo(1)));
+
+        // Delta with one add
+        Applications delta = toApplications(instanceGen.take(1));
+        delta.setAppsHashCode("UP_2_");
+        when(requestHandler.getDelta(TEST_REMOTE_REGION)).thenReturn(
+                anEurekaHttpResponse(200, delta).type(MediaType.APPLICATION_JSON_TYPE).build()
+        );
+
+        assertThat(snapshotClientResource.awaitCacheUpdate(5, TimeUnit.SECONDS), is(true));
+        Applications updated = client.getApplications();
+        assertThat(updated == initial, is(false));
+        assertThat(countInstances(updated), is(equalTo(2)));
+        assertThat(updated.getAppsHashCode(), is(equalTo("UP_2_")));
+        assertThat(client.getInstancesByVipAddress(first.getVIPAddress(), false).size(), is(equalTo(2)));
+
+        // Readers of the previous snapshot are not affected by the delta
+        assertThat(countInstances(initial), is(equalTo(1)));
+        assertThat(initial.getInstancesByVirtualHostName(first.getVIPAddress()).size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testDeltaIsLongPolledWithLastSeenVersion() throws Exception {
+        DiscoveryClientResource longPollClientResource = discoveryClientResource.fork().withDeltaLongPolling(true).build();
+        InstanceInfoGenerator instanceGen = InstanceInfoGenerator.newBuilder(2, "testApp").build();
+
+        // Full fetch with one item
+        Applications initial = toApplications(instanceGen.first());
+        initial.setVersion(5L);
+        when(requestHandler.getApplications(TEST_REMOTE_REGION)).thenReturn(
+                anEurekaHttpResponse(200, initial).type(MediaType.APPLICATION_JSON_TYPE).build()
+        );
+
+        // Delta with one add
+        Applications delta = toApplications(instanceGen.take(1));
+        delta.setAppsHashCode("UP_2_");
+        delta.setVersion(6L);
+        when(requestHandler.longPollDelta(5L, 7000L, TEST_REMOTE_REGION)).thenReturn(
+                anEurekaHttpResponse(200, delta).type(MediaType.APPLICATION_JSON_TYPE).build()
+        );
+
+        EurekaClient client = longPollClientResource.getClient();
+
+        // The next poll carries the version of the applied delta
+        verify(requestHandler, timeout(5000).atLeastOnce()).longPollDelta(6L, 7000L, TEST_REMOTE_REGION);
+        assertThat(countInstances(client.getApplications()), is(equalTo(2)));
+        assertThat(client.getApplications().getVersion(), is(equalTo(6L)));
+    }
+
+    @Test
+    public void testVersionedDeltaFallsBackToRecentChanges() throws Exception {
+        DiscoveryClientResource versionedClientResource = discoveryClientResource.fork().withVersionedDelta(true).build();
+        InstanceInfoGenerator instanceGen = InstanceInfoGenerator.newBuilder(3, "testApp").build();
+
+        // Full fetch with one item
+        when(requestHandler.getApplications(TEST_REMOTE_REGION)).thenReturn(
+                anEurekaHttpResponse(200, toApplications(instanceGen.first())).type(MediaType.APPLICATION_JSON_TYPE).build()
+        );
+        EurekaClient client = versionedClientResource.getClient();
+
+        // The first delta after a full fetch carries all the recent changes
+        Applications delta = toApplications(instanceGen.take(1));
+        delta.setAppsHashCode("UP_2_");
+        delta.setVersion(6L);
+        when(requestHandler.getDelta(TEST_REMOTE_REGION)).thenReturn(
+                anEurekaHttpResponse(200, delta).type(MediaType.APPLICATION_JSON_TYPE).build()
+        );
+        assertThat(versionedClientResource.awaitCacheUpdate(5, TimeUnit.SECONDS), is(true));
+        assertThat(countInstances(client.getApplications()), is(equalTo(2)));
+
+        // Then only the later changes are requested
+        Applications deltaSince = toApplications(instanceGen.take(2));
+        deltaSince.setAppsHashCode("UP_3_");
+        deltaSince.setVersion(7L);
+        when(requestHandler.getDeltaSince(6L, 0L, TEST_REMOTE_REGION)).thenReturn(
+                anEurekaHttpResponse(200, deltaSince).type(MediaType.APPLICATION_JSON_TYPE).build()
+        );
+        verify(requestHandler, timeout(5000).atLeastOnce()).getDeltaSince(7L, 0L, TEST_REMOTE_REGION);
+        assertThat(countInstances(client.getApplications()), is(equalTo(3)));
+
+        // Until the server no longer has them
+        reset(requestHandler);
+        when(requestHandler.getDeltaSince(7L, 0L, TEST_REMOTE_REGION)).thenReturn(anEurekaHttpResponse(410, Applications.class).build());
+        verify(requestHandler, timeout(5000).atLeastOnce()).getDelta(TEST_REMOTE_REGION);
+    }
+
     @Test
     public void testApplyDeltaWithBadInstanceInfoDataCenterInfoAsNull() throws Exception {
         InstanceInfoGenerator instanceGen = InstanceInfoGenerator.newBuilder(2, "testApp").build();
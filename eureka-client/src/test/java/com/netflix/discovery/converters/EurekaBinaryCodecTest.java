@@ -0,0 +1,130 @@
+package com.netflix.discovery.converters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.ActionType;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.EurekaEntityComparators;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EurekaBinaryCodecTest {
+
+    private final EurekaBinaryCodec codec = new EurekaBinaryCodec();
+    private final InstanceInfoGenerator infoGenerator = InstanceInfoGenerator.newBuilder(20, 4).withMetaData(true).build();
+
+    @Test
+    public void testApplicationsEncodeDecode() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        applications.setVersion(42L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+
+        Applications decoded = codec.readValue(Applications.class, codec.writeToBytes(applications));
+
+        assertThat(EurekaEntityComparators.equal(applications, decoded), is(true));
+        assertThat(decoded.getVersion(), is(equalTo(42L)));
+        assertThat(decoded.getAppsHashCode(), is(equalTo(applications.getAppsHashCode())));
+    }
+
+    @Test
+    public void testDeltaEncodeDecode() throws Exception {
+        Applications delta = infoGenerator.takeDelta(5);
+
+        Applications decoded = codec.readValue(Applications.class, codec.writeToBytes(delta));
+
+        assertThat(EurekaEntityComparators.equal(delta, decoded), is(true));
+        for (Application app : decoded.getRegisteredApplications()) {
+            for (InstanceInfo instance : app.getInstances()) {
+                assertThat(instance.getActionType(), is(equalTo(ActionType.ADDED)));
+            }
+        }
+    }
+
+    @Test
+    public void testApplicationEncodeDecode() throws Exception {
+        Application application = infoGenerator.toApplications().getRegisteredApplications().get(0);
+
+        Application decoded = codec.readValue(Application.class, codec.writeToBytes(application));
+
+        assertThat(EurekaEntityComparators.equal(application, decoded), is(true));
+    }
+
+    @Test
+    public void testInstanceInfoWithOptionalFieldsUnsetEncodeDecode() throws Exception {
+        InstanceInfo instanceInfo = InstanceInfo.Builder.newBuilder()
+                .setAppName("BARE-APP")
+                .setHostName("bare.host")
+                .setDataCenterInfo(new MyDataCenterInfo(Name.MyOwn))
+                .setMetadata(Collections.<String, String>emptyMap())
+                .build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.writeTo(instanceInfo, out);
+        InstanceInfo decoded = codec.readValue(InstanceInfo.class, new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(EurekaEntityComparators.equal(instanceInfo, decoded), is(true));
+        assertThat(decoded.getMetadata().isEmpty(), is(true));
+        assertThat(decoded.getDataCenterInfo().getName(), is(equalTo(Name.MyOwn)));
+    }
+
+    @Test
+    public void testRepeatedStringsAreDictionaryEncoded() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        CodecWrapper jsonCodec = CodecWrappers.getCodec(CodecWrappers.LegacyJacksonJson.class);
+
+        int binarySize = codec.writeToBytes(applications).length;
+        int jsonSize = jsonCodec.encode(applications).getBytes("UTF-8").length;
+
+        assertTrue("Binary payload of " + binarySize + " bytes not smaller than half of JSON payload of " + jsonSize,
+                binarySize * 2 < jsonSize);
+    }
+
+    @Test
+    public void testWrapperStringEncodingIsLossless() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        CodecWrapper binaryCodec = CodecWrappers.getCodec(CodecWrappers.EurekaBinary.class);
+
+        Applications decoded = binaryCodec.decode(binaryCodec.encode(applications), Applications.class);
+
+        assertThat(EurekaEntityComparators.equal(applications, decoded), is(true));
+    }
+
+    @Test
+    public void testEntityTypeMismatchIsRejected() throws Exception {
+        byte[] encoded = codec.writeToBytes(InstanceInfoGenerator.takeOne());
+        try {
+            codec.readValue(Applications.class, encoded);
+            fail("Expected decoding failure");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTruncatedPayloadIsRejected() throws Exception {
+        byte[] encoded = codec.writeToBytes(infoGenerator.toApplications());
+        byte[] truncated = new byte[encoded.length / 2];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        try {
+            codec.readValue(Applications.class, truncated);
+            fail("Expected decoding failure");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+}
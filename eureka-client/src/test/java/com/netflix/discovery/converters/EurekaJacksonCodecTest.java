@@ -7,6 +7,7 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Iterator;
 
+import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.ActionType;
 import com.netflix.discovery.shared.Application;
@@ -15,6 +16,9 @@ import com.netflix.discovery.util.EurekaEntityComparators;
 import com.netflix.discovery.util.InstanceInfoGenerator;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -226,4 +230,47 @@ public class EurekaJacksonCodecTest {
 
         assertTrue(EurekaEntityComparators.equal(decoded, INSTANCE_INFO_1_A1));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testApplicationWithLegacyValueFormatsDecode() throws Exception {
+        String json = "{\"application\":{"
+                + "\"name\":\"APP1\","
+                + "\"unknownArray\":[1,{\"a\":2}],"
+                + "\"instance\":{"
+                + "\"instanceId\":\"i-1\",\"hostName\":\"h1\",\"app\":\"APP1\",\"ipAddr\":\"10.0.0.1\","
+                + "\"status\":\"UP\",\"overriddenstatus\":\"UNKNOWN\","
+                + "\"port\":{\"$\":\"8080\",\"@enabled\":\"true\"},"
+                + "\"securePort\":{\"$\":443,\"@enabled\":false},"
+                + "\"countryId\":\"1\","
+                + "\"dataCenterInfo\":{\"@class\":\"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo\",\"name\":\"MyOwn\"},"
+                + "\"leaseInfo\":{\"renewalIntervalInSecs\":\"30\",\"durationInSecs\":90,\"registrationTimestamp\":null},"
+                + "\"metadata\":{\"@class\":\"java.util.Collections$EmptyMap\"},"
+                + "\"vipAddress\":\"app1\",\"asgName\":null,"
+                + "\"isCoordinatingDiscoveryServer\":\"true\","
+                + "\"lastUpdatedTimestamp\":\"123\",\"lastDirtyTimestamp\":456,"
+                + "\"identifyingAttribute\":{\"x\":\"y\"},"
+                + "\"unknownField\":{\"nested\":[1]}"
+                + "}}}";
+
+        Application decoded = codec.readValue(Application.class, json);
+
+        assertEquals("APP1", decoded.getName());
+        assertEquals(1, decoded.getInstances().size());
+        InstanceInfo instance = decoded.getInstances().get(0);
+        assertEquals("i-1", instance.getInstanceId());
+        assertEquals(8080, instance.getPort());
+        assertTrue(instance.isPortEnabled(InstanceInfo.PortType.UNSECURE));
+        assertEquals(443, instance.getSecurePort());
+        assertFalse(instance.isPortEnabled(InstanceInfo.PortType.SECURE));
+        assertEquals(1, instance.getCountryId());
+        assertEquals(DataCenterInfo.Name.MyOwn, instance.getDataCenterInfo().getName());
+        assertEquals(30, instance.getLeaseInfo().getRenewalIntervalInSecs());
+        assertEquals(90, instance.getLeaseInfo().getDurationInSecs());
+        assertTrue(instance.getMetadata().isEmpty());
+        assertEquals("app1", instance.getVIPAddress());
+        assertNull(instance.getASGName());
+        assertTrue(instance.isCoordinatingDiscoveryServer());
+        assertEquals(123L, instance.getLastUpdatedTimestamp());
+        assertEquals(Long.valueOf(456L), instance.getLastDirtyTimestamp());
+    }
+}
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.converters.EurekaBinaryCodec;
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
 import com.netflix.discovery.util.InstanceInfoGenerator;
 import org.apache.commons.io.output.ByteArrayOutputStream;
@@ -53,6 +54,27 @@ public class DiscoveryJerseyProviderTest {
         testEncodingDecoding(MediaType.APPLICATION_XML_TYPE);
     }
 
+    @Test
+    public void testBinaryEncodingDecoding() throws Exception {
+        testEncodingDecoding(EurekaBinaryCodec.APPLICATION_EUREKA_BINARY_TYPE);
+    }
+
+    @Test
+    public void testBinaryDecoderKeepsJsonFallback() throws Exception {
+        DiscoveryJerseyProvider binaryProvider = new DiscoveryJerseyProvider(
+                null,
+                CodecWrappers.resolveDecoder(CodecWrappers.getCodecName(CodecWrappers.JacksonJson.class), "binary")
+        );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        jerseyProvider.writeTo(INSTANCE, InstanceInfo.class, InstanceInfo.class, null, MediaType.APPLICATION_JSON_TYPE, null, out);
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        InstanceInfo decodedInstance = (InstanceInfo) binaryProvider.readFrom(InstanceInfo.class, InstanceInfo.class, null, MediaType.APPLICATION_JSON_TYPE, null, in);
+
+        assertThat(decodedInstance, is(equalTo(INSTANCE)));
+    }
+
     @Test
     public void testDecodingWithUtf8CharsetExplicitlySet() throws Exception {
         Map<String, String> params = new HashMap<>();
@@ -1,16 +1,19 @@
 package com.netflix.discovery.shared;
 
 
+import java.util.HashSet;
 import java.util.List;
 
 import com.google.common.collect.Iterables;
 import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import org.junit.Test;
 
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class ApplicationsTest {
 
@@ -49,4 +52,118 @@ public class ApplicationsTest {
         assertNull(application.getByInstanceId("test.hostname"));
         assertTrue(testApp.isEmpty());
     }
+
+    @Test
+    public void shuffleChangedInstancesUpdatesOnlyChangedVipsTest() {
+        Applications applications = new Applications();
+        applications.addInstance(newInstance("app1", "id1", "vip.a", InstanceStatus.UP));
+        applications.addInstance(newInstance("app1", "id2", "vip.a", InstanceStatus.UP));
+        applications.addInstance(newInstance("app2", "id3", "vip.b", InstanceStatus.UP));
+        applications.shuffleInstances(true);
+        List<InstanceInfo> vipB = applications.getInstancesByVirtualHostName("vip.b");
+        assertEquals(2, applications.getInstancesByVirtualHostName("vip.a").size());
+
+        // Move id1 to another vip, add id4, and take id2 down
+        applications.addInstance(newInstance("app1", "id1", "vip.c", InstanceStatus.UP));
+        applications.addInstance(newInstance("app1", "id4", "vip.a", InstanceStatus.UP));
+        applications.addInstance(newInstance("app1", "id2", "vip.a", InstanceStatus.DOWN));
+        applications.shuffleChangedInstances(true);
+
+        assertEquals(asIds("id4"), asIds(applications.getInstancesByVirtualHostName("vip.a")));
+        assertEquals(asIds("id1"), asIds(applications.getInstancesByVirtualHostName("vip.c")));
+        assertSame(vipB, applications.getInstancesByVirtualHostName("vip.b"));
+        assertEquals(3, applications.getRegisteredApplications("app1").size());
+        assertEquals(2, applications.getRegisteredApplications("app1").getInstances().size());
+
+        applications.removeInstance(newInstance("app1", "id1", "vip.c", InstanceStatus.UP));
+        applications.removeInstance(newInstance("app2", "id3", "vip.b", InstanceStatus.UP));
+        applications.shuffleChangedInstances(true);
+
+        assertTrue(applications.getInstancesByVirtualHostName("vip.c").isEmpty());
+        assertTrue(applications.getInstancesByVirtualHostName("vip.b").isEmpty());
+        assertNull(applications.getNextIndex("VIP.B", false));
+        assertEquals(asIds("id4"), asIds(applications.getInstancesByVirtualHostName("vip.a")));
+    }
+
+    @Test
+    public void shuffleChangedInstancesMatchesFullShuffleTest() {
+        Applications applications = new Applications();
+        for (int i = 0; i < 10; i++) {
+            applications.addInstance(newInstance("app" + i % 3, "id" + i, "vip" + i % 4, InstanceStatus.UP));
+        }
+        applications.shuffleInstances(false);
+        for (int i = 0; i < 10; i += 2) {
+            applications.addInstance(newInstance("app" + i % 3, "id" + i, "vip" + i % 5, InstanceStatus.DOWN));
+        }
+        applications.removeInstance(newInstance("app1", "id1", "vip1", InstanceStatus.UP));
+        applications.shuffleChangedInstances(false);
+
+        Applications expected = new Applications();
+        for (Application app : applications.getRegisteredApplications()) {
+            for (InstanceInfo instance : app.getInstancesAsIsFromEureka()) {
+                expected.addInstance(instance);
+            }
+        }
+        expected.shuffleInstances(false);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(asIds(expected.getInstancesByVirtualHostName("vip" + i)),
+                    asIds(applications.getInstancesByVirtualHostName("vip" + i)));
+        }
+    }
+
+    @Test
+    public void getInstancesByVirtualHostNameAndAppNameTest() {
+        Applications applications = new Applications();
+        applications.addInstance(newInstance("app1", "id1", "vip.a, vip.b", InstanceStatus.UP));
+        applications.addInstance(newInstance("app1", "id2", "vip.b", InstanceStatus.UP));
+        applications.addInstance(newInstance("app1", "id3", "vip.b", InstanceStatus.DOWN));
+        applications.addInstance(newInstance("app2", "id4", "vip.b", InstanceStatus.UP));
+
+        // Before the first shuffle instances are matched without the index
+        assertEquals(asIds("id1", "id2", "id3"), asIds(applications.getInstancesByVirtualHostNameAndAppName("VIP.B", "app1", false)));
+
+        applications.shuffleInstances(true);
+        assertEquals(asIds("id1"), asIds(applications.getInstancesByVirtualHostNameAndAppName("vip.a", "APP1", false)));
+        assertEquals(asIds("id1", "id2"), asIds(applications.getInstancesByVirtualHostNameAndAppName("vip.b", "app1", false)));
+        assertEquals(asIds("id4"), asIds(applications.getInstancesByVirtualHostNameAndAppName("vip.b", "app2", false)));
+        assertTrue(applications.getInstancesByVirtualHostNameAndAppName("vip.b", "app1", true).isEmpty());
+        assertTrue(applications.getInstancesByVirtualHostNameAndAppName("vip.b", "app3", false).isEmpty());
+
+        // The index follows incremental updates
+        applications.addInstance(newInstance("app1", "id2", "vip.c", InstanceStatus.UP));
+        applications.shuffleChangedInstances(true);
+        assertEquals(asIds("id1"), asIds(applications.getInstancesByVirtualHostNameAndAppName("vip.b", "app1", false)));
+        assertEquals(asIds("id2"), asIds(applications.getInstancesByVirtualHostNameAndAppName("vip.c", "app1", false)));
+    }
+
+    private static InstanceInfo newInstance(String appName, String id, String vipAddress, InstanceStatus status) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(appName)
+                .setInstanceId(id)
+                .setHostName(id + ".hostname")
+                .setVIPAddress(vipAddress)
+                .setStatus(status)
+                .setDataCenterInfo(new DataCenterInfo() {
+                    public DataCenterInfo.Name getName() {
+                        return DataCenterInfo.Name.MyOwn;
+                    }
+                })
+                .build();
+    }
+
+    private static HashSet<String> asIds(String... ids) {
+        HashSet<String> result = new HashSet<String>();
+        for (String id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    private static HashSet<String> asIds(List<InstanceInfo> instances) {
+        HashSet<String> result = new HashSet<String>();
+        for (InstanceInfo instance : instances) {
+            result.add(instance.getId());
+        }
+        return result;
+    }
 }
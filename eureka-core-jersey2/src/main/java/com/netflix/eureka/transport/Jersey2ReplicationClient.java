@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.shared.transport.EurekaHttpResponse;
 import com.netflix.discovery.shared.transport.jersey2.AbstractJersey2EurekaHttpClient;
 import com.netflix.discovery.shared.transport.jersey2.EurekaIdentityHeaderFilter;
@@ -29,6 +30,7 @@ import com.netflix.eureka.EurekaServerConfig;
 import com.netflix.eureka.EurekaServerIdentity;
 import com.netflix.eureka.cluster.HttpReplicationClient;
 import com.netflix.eureka.cluster.PeerEurekaNode;
+import com.netflix.eureka.cluster.protocol.ReplicationHeartbeatList;
 import com.netflix.eureka.cluster.protocol.ReplicationList;
 import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
 import com.netflix.eureka.resources.ASGResource.ASGStatus;
@@ -126,6 +128,48 @@ public class Jersey2ReplicationClient extends AbstractJersey2EurekaHttpClient im
         }
     }
 
+    @Override
+    public EurekaHttpResponse<ReplicationListResponse> submitHeartbeats(ReplicationHeartbeatList heartbeatList) {
+        Response response = null;
+        try {
+            response = jerseyClient.target(serviceUrl)
+                    .path(PeerEurekaNode.HEARTBEAT_BATCH_URL_PATH)
+                    .request(MediaType.APPLICATION_JSON_TYPE)
+                    .post(Entity.json(heartbeatList));
+            if (!isSuccess(response.getStatus())) {
+                return anEurekaHttpResponse(response.getStatus(), ReplicationListResponse.class).build();
+            }
+            ReplicationListResponse batchResponse = response.readEntity(ReplicationListResponse.class);
+            return anEurekaHttpResponse(response.getStatus(), batchResponse).type(MediaType.APPLICATION_JSON_TYPE).build();
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getRegistryChunk(int chunk, int chunkCount) {
+        Response response = null;
+        try {
+            response = jerseyClient.target(serviceUrl)
+                    .path(PeerEurekaNode.REGISTRY_URL_PATH)
+                    .queryParam("chunk", Integer.toString(chunk))
+                    .queryParam("chunks", Integer.toString(chunkCount))
+                    .request(MediaType.APPLICATION_JSON_TYPE)
+                    .get();
+            if (!isSuccess(response.getStatus())) {
+                return anEurekaHttpResponse(response.getStatus(), Applications.class).build();
+            }
+            Applications applications = response.readEntity(Applications.class);
+            return anEurekaHttpResponse(response.getStatus(), applications).type(MediaType.APPLICATION_JSON_TYPE).build();
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
     @Override
     public void shutdown() {
         super.shutdown();
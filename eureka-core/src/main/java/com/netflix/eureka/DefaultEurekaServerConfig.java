@@ -334,12 +334,48 @@ public class DefaultEurekaServerConfig implements EurekaServerConfig {
                 namespace + "shouldUseReadOnlyResponseCache", true).get();
     }
 
+    @Override
+    public int getResponseCacheFillThreads() {
+        return configInstance.getIntProperty(
+                namespace + "responseCacheFillThreads", 1).get();
+    }
+
+    @Override
+    public long getResponseCacheColdKeyRetentionSeconds() {
+        return configInstance.getLongProperty(
+                namespace + "responseCacheColdKeyRetentionSeconds", 0).get();
+    }
+
+    @Override
+    public boolean shouldUseIncrementalPayloadAssembly() {
+        return configInstance.getBooleanProperty(
+                namespace + "shouldUseIncrementalPayloadAssembly", false).get();
+    }
+
+    @Override
+    public long getResponseCacheInvalidationWindowMs() {
+        return configInstance.getLongProperty(
+                namespace + "responseCacheInvalidationWindowMs", 0).get();
+    }
+
     @Override
     public boolean shouldDisableDelta() {
         return configInstance.getBooleanProperty(namespace + "disableDelta",
                 false).get();
     }
 
+    @Override
+    public long getDeltaLongPollMaxWaitMs() {
+        return configInstance.getLongProperty(
+                namespace + "deltaLongPollMaxWaitMs", 30 * 1000).get();
+    }
+
+    @Override
+    public int getMaxDeltaLongPollRequests() {
+        return configInstance.getIntProperty(
+                namespace + "maxDeltaLongPollRequests", 100).get();
+    }
+
     @Override
     public long getMaxIdleThreadInMinutesAgeForStatusReplication() {
         return configInstance
@@ -384,6 +420,30 @@ public class DefaultEurekaServerConfig implements EurekaServerConfig {
                 namespace + "registrySyncRetryWaitMs", 30 * 1000).get();
     }
 
+    @Override
+    public int getRegistryBootstrapChunks() {
+        return configInstance.getIntProperty(
+                namespace + "registryBootstrapChunks", 0).get();
+    }
+
+    @Override
+    public int getRegistryBootstrapThreads() {
+        return configInstance.getIntProperty(
+                namespace + "registryBootstrapThreads", 4).get();
+    }
+
+    @Override
+    public String getRegistrySnapshotFile() {
+        return configInstance.getStringProperty(
+                namespace + "registrySnapshotFile", null).get();
+    }
+
+    @Override
+    public long getRegistrySnapshotIntervalMs() {
+        return configInstance.getLongProperty(
+                namespace + "registrySnapshotIntervalMs", (60 * 1000)).get();
+    }
+
     @Override
     public int getMaxElementsInPeerReplicationPool() {
         return configInstance.getIntProperty(
@@ -586,6 +646,16 @@ public class DefaultEurekaServerConfig implements EurekaServerConfig {
         return configInstance.getBooleanProperty(namespace + "shouldBatchReplication", false).get();
     }
 
+    @Override
+    public boolean shouldReplicateHeartbeatsInCompactBatches() {
+        return configInstance.getBooleanProperty(namespace + "shouldReplicateHeartbeatsInCompactBatches", false).get();
+    }
+
+    @Override
+    public boolean shouldAdaptReplicationBatching() {
+        return configInstance.getBooleanProperty(namespace + "shouldAdaptReplicationBatching", false).get();
+    }
+
     @Override
     public boolean shouldLogIdentityHeaders() {
         return configInstance.getBooleanProperty(namespace + "auth.shouldLogIdentityHeaders", true).get();
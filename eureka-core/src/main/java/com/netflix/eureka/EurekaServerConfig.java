@@ -302,6 +302,45 @@ public interface EurekaServerConfig {
      */
     boolean shouldUseReadOnlyResponseCache();
 
+    /**
+     * Get the number of threads regenerating the expired or invalidated payloads of the read only cache, when it
+     * is updated every {@link #getResponseCacheUpdateIntervalMs()}. The most requested payloads are regenerated
+     * first. With a single thread, payloads are regenerated one after the other by the cache update timer.
+     *
+     * @return the number of threads regenerating payloads for the read only cache.
+     */
+    int getResponseCacheFillThreads();
+
+    /**
+     * Get the time after which a payload that was not requested is dropped from both the read only and the
+     * read-write cache. Without this, the read only cache keeps every payload ever requested, and keeps
+     * regenerating it. Payloads requested within this time are kept however old they are.
+     *
+     * @return the retention of unrequested payloads in seconds, 0 to keep them.
+     */
+    long getResponseCacheColdKeyRetentionSeconds();
+
+    /**
+     * If enabled, the full registry payload of the local region is assembled from separately encoded and cached
+     * application fragments, so only applications that changed since the last payload generation are re-encoded.
+     * Unchanged applications are served from their cached fragment, which expires after
+     * {@link #getResponseCacheAutoExpirationInSeconds()}. Codecs that cannot be assembled this way transparently
+     * fall back to encoding the whole registry.
+     *
+     * @return true if the full registry payload should be assembled from cached application fragments
+     */
+    boolean shouldUseIncrementalPayloadAssembly();
+
+    /**
+     * Get the window over which registry change invalidations of the response cache are coalesced. If greater
+     * than 0, the cached payloads affected by the changes within the window are regenerated once, in the
+     * background, and replace the previous payloads, which are served in the meantime. If 0, the affected payloads
+     * are evicted right away, and regenerated by the next request for them.
+     *
+     * @return the coalescing window in milliseconds, 0 to evict changed payloads right away.
+     */
+    long getResponseCacheInvalidationWindowMs();
+
     /**
      * Checks to see if the delta information can be served to client or not.
      * <p>
@@ -313,6 +352,26 @@ public interface EurekaServerConfig {
      */
     boolean shouldDisableDelta();
 
+    /**
+     * Get the longest time a delta request that carries the last delta version seen by the client is held,
+     * waiting for a newer delta, before the current delta is returned. Held requests keep their container
+     * thread, so their number is limited by {@link #getMaxDeltaLongPollRequests()}.
+     * <p>
+     * <em>The changes are effective at runtime.</em>
+     * </p>
+     *
+     * @return the maximum time in milliseconds to hold a delta request, 0 to answer all of them right away.
+     */
+    long getDeltaLongPollMaxWaitMs();
+
+    /**
+     * Get the maximum number of delta requests held at the same time, waiting for a newer delta. Requests
+     * beyond this limit are answered right away with the current delta.
+     *
+     * @return the maximum number of held delta requests.
+     */
+    int getMaxDeltaLongPollRequests();
+
     /**
      * Get the idle time for which the status replication threads can stay
      * alive.
@@ -374,6 +433,40 @@ public interface EurekaServerConfig {
      */
     long getRegistrySyncRetryWaitMs();
 
+    /**
+     * Get the number of chunks the registry is split into when a starting node transfers it from its peers.
+     * The chunks are fetched in parallel from the peer nodes, and loaded in bulk. If the transfer does not
+     * complete, the registry is populated from the embedded client fetch, the same way as when this is 0.
+     *
+     * @return the number of chunks, or 0 to populate the registry from the embedded client fetch
+     */
+    int getRegistryBootstrapChunks();
+
+    /**
+     * Get the number of registry chunks fetched from the peer nodes at the same time, when the registry is
+     * bootstrapped in chunks (see {@link #getRegistryBootstrapChunks()}).
+     *
+     * @return the number of threads transferring registry chunks
+     */
+    int getRegistryBootstrapThreads();
+
+    /**
+     * Get the file the local registry is periodically saved to, and restored from when the server restarts. The
+     * restored instances are available as soon as the server starts, until they are reconciled with the peer
+     * nodes, and the ones that are not renewed expire as their original leases would have.
+     *
+     * @return the path of the registry snapshot file, or null to disable registry snapshots
+     */
+    String getRegistrySnapshotFile();
+
+    /**
+     * Get the time interval with which the local registry is saved to the snapshot file
+     * (see {@link #getRegistrySnapshotFile()}).
+     *
+     * @return time in milliseconds
+     */
+    long getRegistrySnapshotIntervalMs();
+
     /**
      * Get the maximum number of replication events that can be allowed to back
      * up in the replication pool. This replication pool is responsible for all
@@ -572,6 +665,24 @@ public interface EurekaServerConfig {
      */
     boolean shouldBatchReplication();
 
+    /**
+     * Indicates whether heartbeats should be replicated to peers in dedicated batches, which carry only the heartbeat
+     * properties of each instance, instead of as part of the regular replication batches. Replication to a peer that
+     * does not support such batches falls back to the regular batches.
+     *
+     * @return {@code true} if heartbeats should be replicated in compact batches.
+     */
+    boolean shouldReplicateHeartbeatsInCompactBatches();
+
+    /**
+     * Indicates whether the size of replication batches, and the time replication tasks wait for a batch to fill up,
+     * should be tuned for each peer from the observed batch round trip times and replication backlog, instead of
+     * being fixed. The fixed values become upper bounds.
+     *
+     * @return {@code true} if replication batching should adapt to the peer latency and load.
+     */
+    boolean shouldAdaptReplicationBatching();
+
     /**
      * Indicates whether the eureka server should log/metric clientAuthHeaders
      * @return {@code true} if the clientAuthHeaders should be logged and/or emitted as metrics
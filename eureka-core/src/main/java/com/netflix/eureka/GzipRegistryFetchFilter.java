@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.eureka;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.discovery.converters.EurekaBinaryCodec;
+import com.netflix.eureka.registry.Key;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.registry.ResponseCacheImpl;
+import com.netflix.eureka.resources.CurrentRequestVersion;
+import com.netflix.eureka.util.EurekaMonitors;
+
+/**
+ * Serves full registry fetches that accept gzip encoding straight from the response cache, writing the cached
+ * compressed payload to the servlet response as is, without going through <em>jersey</em>. The response is the
+ * same as the one of {@link com.netflix.eureka.resources.ApplicationsResource#getContainers}. Other requests,
+ * and full registry fetches with no cached payload, are passed on along the filter chain.
+ */
+@Singleton
+public class GzipRegistryFetchFilter implements Filter {
+
+    private static final Pattern FULL_FETCH_RE = Pattern.compile("^.*/([^/]+)/apps/?$");
+
+    private PeerAwareInstanceRegistry registry;
+
+    @Inject
+    public GzipRegistryFetchFilter(EurekaServerContext server) {
+        this.registry = server.getRegistry();
+    }
+
+    // for non-DI use
+    public GzipRegistryFetchFilter() {
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        if (registry == null) {
+            EurekaServerContext serverContext = (EurekaServerContext) filterConfig.getServletContext()
+                    .getAttribute(EurekaServerContext.class.getName());
+            registry = serverContext.getRegistry();
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        String acceptEncoding = httpRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        Matcher matcher = FULL_FETCH_RE.matcher(httpRequest.getRequestURI());
+        if (!"GET".equals(httpRequest.getMethod()) || acceptEncoding == null || !acceptEncoding.contains("gzip")
+                || !matcher.matches()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String regionsStr = httpRequest.getParameter("regions");
+        boolean isRemoteRegionRequested = regionsStr != null && !regionsStr.isEmpty();
+        String[] regions = null;
+        if (isRemoteRegionRequested) {
+            regions = regionsStr.toLowerCase().split(",");
+            Arrays.sort(regions);
+        }
+
+        CurrentRequestVersion.set(Version.toEnum(matcher.group(1)));
+        Key.KeyType keyType = Key.KeyType.JSON;
+        String returnMediaType = MediaType.APPLICATION_JSON;
+        String acceptHeader = httpRequest.getHeader(HttpHeaders.ACCEPT);
+        if (acceptHeader == null || !acceptHeader.contains("json")) {
+            keyType = Key.KeyType.XML;
+            returnMediaType = MediaType.APPLICATION_XML;
+        }
+        EurekaAccept eurekaAccept = EurekaAccept.fromString(httpRequest.getHeader(EurekaAccept.HTTP_X_EUREKA_ACCEPT));
+        if (eurekaAccept == EurekaAccept.binary) {
+            returnMediaType = EurekaBinaryCodec.APPLICATION_EUREKA_BINARY;
+        }
+
+        Key cacheKey = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS,
+                keyType, CurrentRequestVersion.get(), eurekaAccept, regions);
+        byte[] payload = registry.shouldAllowAccess(isRemoteRegionRequested)
+                ? registry.getResponseCache().getGZIP(cacheKey)
+                : null;
+        if (payload == null) {
+            // Let the resource answer, and count the request
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (isRemoteRegionRequested) {
+            EurekaMonitors.GET_ALL_WITH_REMOTE_REGIONS.increment();
+        } else {
+            EurekaMonitors.GET_ALL.increment();
+        }
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(HttpServletResponse.SC_OK);
+        httpResponse.setContentType(returnMediaType);
+        httpResponse.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        httpResponse.setContentLength(payload.length);
+        httpResponse.getOutputStream().write(payload);
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -1,7 +1,9 @@
 package com.netflix.eureka.cluster;
 
+import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.shared.transport.EurekaHttpClient;
 import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.cluster.protocol.ReplicationHeartbeatList;
 import com.netflix.eureka.cluster.protocol.ReplicationList;
 import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
 import com.netflix.eureka.resources.ASGResource.ASGStatus;
@@ -15,4 +17,13 @@ public interface HttpReplicationClient extends EurekaHttpClient {
 
     EurekaHttpResponse<ReplicationListResponse> submitBatchUpdates(ReplicationList replicationList);
 
+    EurekaHttpResponse<ReplicationListResponse> submitHeartbeats(ReplicationHeartbeatList heartbeatList);
+
+    /**
+     * Fetches one of the parts of the peer local registry, to bootstrap the registry of a starting node.
+     *
+     * @see com.netflix.eureka.registry.PeerAwareInstanceRegistry#getApplicationsChunk(int, int)
+     */
+    EurekaHttpResponse<Applications> getRegistryChunk(int chunk, int chunkCount);
+
 }
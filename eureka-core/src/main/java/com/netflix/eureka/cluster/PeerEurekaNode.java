@@ -21,6 +21,7 @@ import java.net.URL;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.shared.transport.EurekaHttpResponse;
 import com.netflix.eureka.EurekaServerConfig;
 import com.netflix.eureka.lease.Lease;
@@ -58,12 +59,13 @@ public class PeerEurekaNode {
     private static final long SERVER_UNAVAILABLE_SLEEP_TIME_MS = 1000;
 
     /**
-     * Maximum amount of time in ms to wait for new items prior to dispatching a batch of tasks.
+     * Maximum amount of time in ms to wait for new items prior to dispatching a batch of tasks. With adaptive
+     * batching the actual delay follows the replication round trip time, up to this value.
      */
     private static final long MAX_BATCHING_DELAY_MS = 500;
 
     /**
-     * Maximum batch size for batched requests.
+     * Maximum batch size for batched requests. With adaptive batching the batch size varies up to this value.
      */
     private static final int BATCH_SIZE = 250;
 
@@ -71,6 +73,10 @@ public class PeerEurekaNode {
 
     public static final String BATCH_URL_PATH = "peerreplication/batch/";
 
+    public static final String HEARTBEAT_BATCH_URL_PATH = "peerreplication/heartbeats/";
+
+    public static final String REGISTRY_URL_PATH = "peerreplication/registry";
+
     public static final String HEADER_REPLICATION = "x-netflix-discovery-replication";
 
     private final String serviceUrl;
@@ -100,7 +106,8 @@ public class PeerEurekaNode {
         this.maxProcessingDelayMs = config.getMaxTimeForReplication();
 
         String batcherName = getBatcherName();
-        ReplicationTaskProcessor taskProcessor = new ReplicationTaskProcessor(targetHost, replicationClient);
+        ReplicationTaskProcessor taskProcessor = new ReplicationTaskProcessor(
+                targetHost, replicationClient, config.shouldReplicateHeartbeatsInCompactBatches());
         this.batchingDispatcher = TaskDispatchers.createBatchingTaskDispatcher(
                 batcherName,
                 config.getMaxElementsInPeerReplicationPool(),
@@ -109,6 +116,7 @@ public class PeerEurekaNode {
                 maxBatchingDelayMs,
                 serverUnavailableSleepTimeMs,
                 retrySleepTimeMs,
+                config.shouldAdaptReplicationBatching(),
                 taskProcessor
         );
         this.nonBatchingDispatcher = TaskDispatchers.createNonBatchingTaskDispatcher(
@@ -304,6 +312,15 @@ public class PeerEurekaNode {
                 expiryTime);
     }
 
+    /**
+     * Fetches a part of the local registry of the peer, to bootstrap the registry of this node.
+     *
+     * @see HttpReplicationClient#getRegistryChunk(int, int)
+     */
+    public EurekaHttpResponse<Applications> getRegistryChunk(int chunk, int chunkCount) {
+        return replicationClient.getRegistryChunk(chunk, chunkCount);
+    }
+
     /**
      * Get the service Url of the peer eureka node.
      *
@@ -1,15 +1,20 @@
 package com.netflix.eureka.cluster;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.cluster.protocol.ReplicationHeartbeatList;
 import com.netflix.eureka.cluster.protocol.ReplicationInstance;
 import com.netflix.eureka.cluster.protocol.ReplicationInstance.ReplicationInstanceBuilder;
 import com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse;
 import com.netflix.eureka.cluster.protocol.ReplicationList;
 import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl.Action;
 import com.netflix.eureka.util.batcher.TaskProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,9 +34,17 @@ class ReplicationTaskProcessor implements TaskProcessor<ReplicationTask> {
 
     private volatile long lastNetworkErrorTime;
 
+    // Cleared if the peer does not support compact heartbeat batches
+    private volatile boolean compactHeartbeats;
+
     ReplicationTaskProcessor(String peerId, HttpReplicationClient replicationClient) {
+        this(peerId, replicationClient, false);
+    }
+
+    ReplicationTaskProcessor(String peerId, HttpReplicationClient replicationClient, boolean compactHeartbeats) {
         this.replicationClient = replicationClient;
         this.peerId = peerId;
+        this.compactHeartbeats = compactHeartbeats;
     }
 
     @Override
@@ -66,14 +79,55 @@ class ReplicationTaskProcessor implements TaskProcessor<ReplicationTask> {
 
     @Override
     public ProcessingResult process(List<ReplicationTask> tasks) {
-        ReplicationList list = createReplicationListOf(tasks);
+        if (!compactHeartbeats) {
+            return submitBatch(tasks, false);
+        }
+
+        // Heartbeats go last, so that they follow a registration of the same instance from this batch. Only the
+        // latest heartbeat of each instance is sent, as it supersedes the earlier ones.
+        Map<String, ReplicationTask> heartbeatTasks = new LinkedHashMap<>();
+        List<ReplicationTask> otherTasks = new ArrayList<>();
+        for (ReplicationTask task : tasks) {
+            if (isCompactHeartbeat(task)) {
+                InstanceReplicationTask instanceTask = (InstanceReplicationTask) task;
+                heartbeatTasks.put(instanceTask.getAppName() + '/' + instanceTask.getId(), task);
+            } else {
+                otherTasks.add(task);
+            }
+        }
+        if (!otherTasks.isEmpty()) {
+            ProcessingResult result = submitBatch(otherTasks, false);
+            if (result != ProcessingResult.Success) {
+                return result;
+            }
+        }
+        if (heartbeatTasks.isEmpty()) {
+            return ProcessingResult.Success;
+        }
+        List<ReplicationTask> heartbeats = new ArrayList<>(heartbeatTasks.values());
+        ProcessingResult result = submitBatch(heartbeats, true);
+        if (result != ProcessingResult.Success && heartbeats.size() < tasks.size()) {
+            // The other tasks are applied already, so the failure is reported for the heartbeats only
+            tasks.clear();
+            tasks.addAll(heartbeats);
+        }
+        return result;
+    }
+
+    private ProcessingResult submitBatch(List<ReplicationTask> tasks, boolean asHeartbeats) {
         try {
-            EurekaHttpResponse<ReplicationListResponse> response = replicationClient.submitBatchUpdates(list);
+            EurekaHttpResponse<ReplicationListResponse> response = asHeartbeats
+                    ? replicationClient.submitHeartbeats(createHeartbeatListOf(tasks))
+                    : replicationClient.submitBatchUpdates(createReplicationListOf(tasks));
             int statusCode = response.getStatusCode();
             if (!isSuccess(statusCode)) {
                 if (statusCode == 503) {
                     logger.warn("Server busy (503) HTTP status code received from the peer {}; rescheduling tasks after delay", peerId);
                     return ProcessingResult.Congestion;
+                } else if (asHeartbeats && statusCode == 404) {
+                    logger.warn("Peer {} does not support compact heartbeat batches; falling back to regular batches", peerId);
+                    compactHeartbeats = false;
+                    return submitBatch(tasks, false);
                 } else {
                     // Unexpected error returned from the server. This should ideally never happen.
                     logger.error("Batch update failure with HTTP status code {}; discarding {} replication tasks", statusCode, tasks.size());
@@ -148,6 +202,27 @@ class ReplicationTaskProcessor implements TaskProcessor<ReplicationTask> {
         return list;
     }
 
+    private static boolean isCompactHeartbeat(ReplicationTask task) {
+        if (task.getAction() != Action.Heartbeat || !(task instanceof InstanceReplicationTask)) {
+            return false;
+        }
+        InstanceReplicationTask instanceTask = (InstanceReplicationTask) task;
+        return instanceTask.getInstanceInfo() != null && !instanceTask.shouldReplicateInstanceInfo();
+    }
+
+    private static ReplicationHeartbeatList createHeartbeatListOf(List<ReplicationTask> tasks) {
+        ReplicationHeartbeatList list = new ReplicationHeartbeatList();
+        for (ReplicationTask task : tasks) {
+            InstanceReplicationTask instanceTask = (InstanceReplicationTask) task;
+            InstanceInfo instanceInfo = instanceTask.getInstanceInfo();
+            String overriddenStatus = instanceTask.getOverriddenStatus() == null ? null : instanceTask.getOverriddenStatus().name();
+            String instanceStatus = instanceInfo.getStatus() == null ? null : instanceInfo.getStatus().name();
+            list.addHeartbeat(instanceTask.getAppName(), instanceTask.getId(), instanceInfo.getLastDirtyTimestamp(),
+                    instanceStatus, overriddenStatus);
+        }
+        return list;
+    }
+
     private static boolean isSuccess(int statusCode) {
         return statusCode >= 200 && statusCode < 300;
     }
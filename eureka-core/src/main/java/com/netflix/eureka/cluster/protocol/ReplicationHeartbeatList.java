@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.eureka.cluster.protocol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.netflix.discovery.provider.Serializer;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl.Action;
+
+/**
+ * Batch of replicated heartbeats. Unlike {@link ReplicationList}, it carries only the properties a heartbeat
+ * needs, laid out in columns instead of one object per heartbeat, with each application name stored once.
+ *
+ * @see com.netflix.eureka.resources.PeerReplicationResource#batchHeartbeats(ReplicationHeartbeatList)
+ */
+@Serializer("jackson") // For backwards compatibility with DiscoveryJerseyProvider
+public class ReplicationHeartbeatList {
+
+    private final List<String> appNames;
+    private final List<Integer> appIndexes;
+    private final List<String> ids;
+    private final List<Long> lastDirtyTimestamps;
+    private final List<String> statuses;
+    private final List<String> overriddenStatuses;
+
+    private final Map<String, Integer> appNameIndexes = new HashMap<>();
+
+    public ReplicationHeartbeatList() {
+        this(new ArrayList<String>(), new ArrayList<Integer>(), new ArrayList<String>(),
+                new ArrayList<Long>(), new ArrayList<String>(), new ArrayList<String>());
+    }
+
+    @JsonCreator
+    public ReplicationHeartbeatList(@JsonProperty("appNames") List<String> appNames,
+                                    @JsonProperty("appIndexes") List<Integer> appIndexes,
+                                    @JsonProperty("ids") List<String> ids,
+                                    @JsonProperty("lastDirtyTimestamps") List<Long> lastDirtyTimestamps,
+                                    @JsonProperty("statuses") List<String> statuses,
+                                    @JsonProperty("overriddenStatuses") List<String> overriddenStatuses) {
+        this.appNames = appNames;
+        this.appIndexes = appIndexes;
+        this.ids = ids;
+        this.lastDirtyTimestamps = lastDirtyTimestamps;
+        this.statuses = statuses;
+        this.overriddenStatuses = overriddenStatuses;
+        for (int i = 0; i < appNames.size(); i++) {
+            appNameIndexes.put(appNames.get(i), i);
+        }
+    }
+
+    public void addHeartbeat(String appName, String id, Long lastDirtyTimestamp, String status, String overriddenStatus) {
+        Integer appIndex = appNameIndexes.get(appName);
+        if (appIndex == null) {
+            appIndex = appNames.size();
+            appNames.add(appName);
+            appNameIndexes.put(appName, appIndex);
+        }
+        appIndexes.add(appIndex);
+        ids.add(id);
+        lastDirtyTimestamps.add(lastDirtyTimestamp);
+        statuses.add(status);
+        overriddenStatuses.add(overriddenStatus);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Expands the heartbeats into the regular replication events, in the order they were added.
+     */
+    public List<ReplicationInstance> toReplicationInstances() {
+        List<ReplicationInstance> replicationInstances = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            replicationInstances.add(new ReplicationInstance(
+                    appNames.get(appIndexes.get(i)),
+                    ids.get(i),
+                    lastDirtyTimestamps.get(i),
+                    overriddenStatuses.get(i),
+                    statuses.get(i),
+                    null,
+                    Action.Heartbeat
+            ));
+        }
+        return replicationInstances;
+    }
+
+    public List<String> getAppNames() {
+        return appNames;
+    }
+
+    public List<Integer> getAppIndexes() {
+        return appIndexes;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public List<Long> getLastDirtyTimestamps() {
+        return lastDirtyTimestamps;
+    }
+
+    public List<String> getStatuses() {
+        return statuses;
+    }
+
+    public List<String> getOverriddenStatuses() {
+        return overriddenStatuses;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        ReplicationHeartbeatList that = (ReplicationHeartbeatList) o;
+
+        return appNames.equals(that.appNames)
+                && appIndexes.equals(that.appIndexes)
+                && ids.equals(that.ids)
+                && lastDirtyTimestamps.equals(that.lastDirtyTimestamps)
+                && statuses.equals(that.statuses)
+                && overriddenStatuses.equals(that.overriddenStatuses);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = appNames.hashCode();
+        result = 31 * result + appIndexes.hashCode();
+        result = 31 * result + ids.hashCode();
+        result = 31 * result + lastDirtyTimestamps.hashCode();
+        result = 31 * result + statuses.hashCode();
+        result = 31 * result + overriddenStatuses.hashCode();
+        return result;
+    }
+}
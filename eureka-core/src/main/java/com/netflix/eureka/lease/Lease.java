@@ -64,6 +64,14 @@ public class Lease<T> {
 
     }
 
+    /**
+     * Restores the last renewal time of a lease recovered from a registry snapshot, so that it expires when the
+     * original lease would have.
+     */
+    public void setLastRenewalTimestamp(long lastRenewalTimestamp) {
+        this.lastUpdateTimestamp = lastRenewalTimestamp;
+    }
+
     /**
      * Cancels the lease by updating the eviction time.
      */
@@ -111,6 +119,13 @@ public class Lease<T> {
         return (evictionTimestamp > 0 || System.currentTimeMillis() > (lastUpdateTimestamp + duration + additionalLeaseMs));
     }
 
+    /**
+     * Gets the milliseconds since epoch after which the lease is expired, unless renewed in the meantime.
+     */
+    long getExpirationTimestamp() {
+        return lastUpdateTimestamp + duration;
+    }
+
     /**
      * Gets the milliseconds since epoch when the lease was registered.
      *
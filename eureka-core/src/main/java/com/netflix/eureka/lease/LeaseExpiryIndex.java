@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.eureka.lease;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of {@link Lease}s bucketed by their expiration time, so that eviction only has to inspect the leases
+ * that may be due, instead of the whole registry.
+ *
+ * Renewals do not touch the index, they just push the lease expiration time further. A lease is therefore
+ * filed at a time no later than its actual expiration time, and it is up to the caller of {@link #pollDue(long)}
+ * to re-file the leases that turned out not to be expired yet. As a lease renewed regularly is inspected once
+ * per its expiration period only, this keeps the renewal path free of any extra work.
+ *
+ * @param <T> lease holder type
+ */
+public class LeaseExpiryIndex<T> {
+
+    public static final long DEFAULT_BUCKET_WIDTH_MS = 1000;
+
+    private final long bucketWidthMs;
+    private final TreeMap<Long, List<Lease<T>>> buckets = new TreeMap<>();
+    private int size;
+
+    public LeaseExpiryIndex() {
+        this(DEFAULT_BUCKET_WIDTH_MS);
+    }
+
+    public LeaseExpiryIndex(long bucketWidthMs) {
+        if (bucketWidthMs <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive; was " + bucketWidthMs);
+        }
+        this.bucketWidthMs = bucketWidthMs;
+    }
+
+    /**
+     * Files the lease under its current expiration time.
+     */
+    public synchronized void add(Lease<T> lease) {
+        long bucket = lease.getExpirationTimestamp() / bucketWidthMs;
+        List<Lease<T>> leases = buckets.get(bucket);
+        if (leases == null) {
+            leases = new ArrayList<>();
+            buckets.put(bucket, leases);
+        }
+        leases.add(lease);
+        size++;
+    }
+
+    /**
+     * Removes and returns all leases filed in buckets that may hold leases expired before the given time.
+     * Returned leases are not necessarily expired, nor still registered.
+     *
+     * @param expiredBefore the milliseconds since epoch; leases with expiration time before it are due
+     */
+    public List<Lease<T>> pollDue(long expiredBefore) {
+        long lastDueBucket = expiredBefore / bucketWidthMs;
+        List<Lease<T>> due = new ArrayList<>();
+        synchronized (this) {
+            while (!buckets.isEmpty() && buckets.firstKey() <= lastDueBucket) {
+                Map.Entry<Long, List<Lease<T>>> entry = buckets.pollFirstEntry();
+                due.addAll(entry.getValue());
+            }
+            size -= due.size();
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        buckets.clear();
+        size = 0;
+    }
+}
@@ -17,29 +17,34 @@
 package com.netflix.eureka.registry;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import com.google.common.base.Function;
 import com.google.common.cache.CacheBuilder;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.ActionType;
@@ -51,6 +56,7 @@ import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.shared.Pair;
 import com.netflix.eureka.EurekaServerConfig;
 import com.netflix.eureka.lease.Lease;
+import com.netflix.eureka.lease.LeaseExpiryIndex;
 import com.netflix.eureka.registry.rule.InstanceStatusOverrideRule;
 import com.netflix.eureka.resources.ServerCodecs;
 import com.netflix.eureka.util.MeasuredRate;
@@ -78,6 +84,10 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
     private static final String[] EMPTY_STR_ARRAY = new String[0];
     private final ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> registry
             = new ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>>();
+    // Local leases by expiration time, so eviction does not need to scan the whole registry
+    private final LeaseExpiryIndex<InstanceInfo> leaseExpiryIndex = new LeaseExpiryIndex<InstanceInfo>();
+    // Local leases by vip and secure vip address, so vip payloads do not need to scan the whole registry
+    private final VipLeaseIndex vipLeaseIndex = new VipLeaseIndex();
     protected Map<String, RemoteRegionRegistry> regionNameVSRemoteRegistry = new HashMap<String, RemoteRegionRegistry>();
     protected final ConcurrentMap<String, InstanceStatus> overriddenInstanceStatusMap = CacheBuilder
             .newBuilder().initialCapacity(500)
@@ -88,10 +98,21 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
     private final CircularQueue<Pair<Long, String>> recentRegisteredQueue;
     private final CircularQueue<Pair<Long, String>> recentCanceledQueue;
     private ConcurrentLinkedQueue<RecentlyChangedItem> recentlyChangedQueue = new ConcurrentLinkedQueue<RecentlyChangedItem>();
-
-    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    private final Lock read = readWriteLock.readLock();
-    private final Lock write = readWriteLock.writeLock();
+    // The registry change sequence starts from the server start time in nanoseconds, so that sequences handed out
+    // before a restart, or by another server, are older than the truncated part of the log, or newer than its end
+    private final AtomicLong recentlyChangedVersion =
+            new AtomicLong(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+    private volatile long truncatedVersion = recentlyChangedVersion.get();
+
+    // Registry modifications are tracked, so the instance count reconciliation can discard a registry scan that
+    // overlapped with a modification
+    private final AtomicLong modificationsStarted = new AtomicLong(0);
+    private final AtomicLong modificationsCompleted = new AtomicLong(0);
+
+    // Number of local region instances by status ordinal, updated with each status transition, so the reconcile
+    // hash code is available without a full registry scan. Guarded by the recently changed queue monitor, so the
+    // counts are updated together with the registry change sequence, and a delta reads both consistently.
+    private final long[] localInstanceCountByStatus = new long[InstanceStatus.values().length];
     protected final Object lock = new Object();
 
     private Timer deltaRetentionTimer = new Timer("Eureka-DeltaRetentionTimer", true);
@@ -100,6 +121,12 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
 
     private final AtomicReference<EvictionTask> evictionTaskRef = new AtomicReference<EvictionTask>();
 
+    // Registry snapshots, for warm restarts; null if disabled
+    private final RegistrySnapshotStore snapshotStore;
+    private final Timer snapshotTimer;
+    private final AtomicReference<TimerTask> snapshotTaskRef = new AtomicReference<TimerTask>();
+    private final AtomicBoolean snapshotRestoreAttempted = new AtomicBoolean(false);
+
     protected String[] allKnownRemoteRegions = EMPTY_STR_ARRAY;
     protected volatile int numberOfRenewsPerMinThreshold;
     protected volatile int expectedNumberOfRenewsPerMin;
@@ -124,6 +151,15 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         this.deltaRetentionTimer.schedule(getDeltaRetentionTask(),
                 serverConfig.getDeltaRetentionTimerIntervalInMs(),
                 serverConfig.getDeltaRetentionTimerIntervalInMs());
+
+        String snapshotFile = serverConfig.getRegistrySnapshotFile();
+        if (snapshotFile != null && !snapshotFile.trim().isEmpty()) {
+            this.snapshotStore = new RegistrySnapshotStore(new File(snapshotFile.trim()), serverCodecs.getFullJsonCodec());
+            this.snapshotTimer = new Timer("Eureka-RegistrySnapshotTimer", true);
+        } else {
+            this.snapshotStore = null;
+            this.snapshotTimer = null;
+        }
     }
 
     @Override
@@ -145,6 +181,12 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                         serverCodecs,
                         remoteRegionUrlWithName.getKey(),
                         new URL(remoteRegionUrlWithName.getValue()));
+                remoteRegionRegistry.setUpdateListener(new Runnable() {
+                    @Override
+                    public void run() {
+                        responseCache.invalidateRemoteRegionDeltas();
+                    }
+                });
                 regionNameVSRemoteRegistry.put(remoteRegionUrlWithName.getKey(), remoteRegionRegistry);
                 allKnownRemoteRegions[remoteRegionArrayIndex++] = remoteRegionUrlWithName.getKey();
             }
@@ -174,8 +216,14 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         overriddenInstanceStatusMap.clear();
         recentCanceledQueue.clear();
         recentRegisteredQueue.clear();
+        truncatedVersion = recentlyChangedVersion.get();
         recentlyChangedQueue.clear();
         registry.clear();
+        leaseExpiryIndex.clear();
+        vipLeaseIndex.clear();
+        synchronized (recentlyChangedQueue) {
+            Arrays.fill(localInstanceCountByStatus, 0);
+        }
     }
 
     // for server info use
@@ -190,8 +238,35 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
      * @see com.netflix.eureka.lease.LeaseManager#register(java.lang.Object, int, boolean)
      */
     public void register(InstanceInfo registrant, int leaseDuration, boolean isReplication) {
+        register(registrant, leaseDuration, isReplication, false, 0);
+    }
+
+    /**
+     * Registers an instance transferred from a peer node while this node bootstraps its registry. The lease is
+     * filed in the registry and its indexes as with {@link #register(InstanceInfo, int, boolean)}, but the response
+     * cache is not invalidated, and the change is not recorded in the delta queue, as a bulk load is followed by
+     * a single {@link #completeBulkRegistration()}.
+     */
+    void bulkRegister(InstanceInfo registrant, int leaseDuration) {
+        register(registrant, leaseDuration, true, true, 0);
+    }
+
+    /**
+     * Makes the instances loaded with {@link #bulkRegister(InstanceInfo, int)} visible to clients at once. The whole
+     * response cache is invalidated, and the delta history is truncated, so that a client that tracks deltas of
+     * this node from before the bulk load falls back to a full registry fetch.
+     */
+    void completeBulkRegistration() {
+        synchronized (recentlyChangedQueue) {
+            truncatedVersion = recentlyChangedVersion.incrementAndGet();
+        }
+        responseCache.invalidateAll();
+    }
+
+    private void register(InstanceInfo registrant, int leaseDuration, boolean isReplication, boolean isBulkLoad,
+                          long lastRenewalTimestamp) {
         try {
-            read.lock();
+            beginModification();
             Map<String, Lease<InstanceInfo>> gMap = registry.get(registrant.getAppName());
             REGISTER.increment(isReplication);
             if (gMap == null) {
@@ -202,6 +277,9 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 }
             }
             Lease<InstanceInfo> existingLease = gMap.get(registrant.getId());
+            InstanceStatus existingStatus = existingLease != null && existingLease.getHolder() != null
+                    ? existingLease.getHolder().getStatus()
+                    : null;
             // Retain the last dirty timestamp without overwriting it, if there is already a lease
             if (existingLease != null && (existingLease.getHolder() != null)) {
                 Long existingLastDirtyTimestamp = existingLease.getHolder().getLastDirtyTimestamp();
@@ -213,7 +291,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     logger.warn("Using the existing instanceInfo instead of the new instanceInfo as the registrant");
                     registrant = existingLease.getHolder();
                 }
-            } else {
+            } else if (!isBulkLoad) {
                 // The lease does not exist and hence it is a new registration
                 synchronized (lock) {
                     if (this.expectedNumberOfRenewsPerMin > 0) {
@@ -231,7 +309,15 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
             if (existingLease != null) {
                 lease.setServiceUpTimestamp(existingLease.getServiceUpTimestamp());
             }
+            if (lastRenewalTimestamp > 0) {
+                lease.setLastRenewalTimestamp(lastRenewalTimestamp);
+            }
             gMap.put(registrant.getId(), lease);
+            leaseExpiryIndex.add(lease);
+            if (existingLease != null) {
+                vipLeaseIndex.remove(existingLease);
+            }
+            vipLeaseIndex.add(lease);
             synchronized (recentRegisteredQueue) {
                 recentRegisteredQueue.add(new Pair<Long, String>(
                         System.currentTimeMillis(),
@@ -261,13 +347,19 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 lease.serviceUp();
             }
             registrant.setActionType(ActionType.ADDED);
-            recentlyChangedQueue.add(new RecentlyChangedItem(lease));
+            if (isBulkLoad) {
+                updateInstanceCount(existingStatus, registrant.getStatus());
+                registrant.setLastUpdatedTimestamp();
+                logger.debug("Bulk loaded instance {}/{} with status {}", registrant.getAppName(), registrant.getId(), registrant.getStatus());
+                return;
+            }
+            recordRecentlyChanged(lease, existingStatus, registrant.getStatus());
             registrant.setLastUpdatedTimestamp();
             invalidateCache(registrant.getAppName(), registrant.getVIPAddress(), registrant.getSecureVipAddress());
             logger.info("Registered instance {}/{} with status {} (replication={})",
                     registrant.getAppName(), registrant.getId(), registrant.getStatus(), isReplication);
         } finally {
-            read.unlock();
+            endModification();
         }
     }
 
@@ -297,7 +389,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
      */
     protected boolean internalCancel(String appName, String id, boolean isReplication) {
         try {
-            read.lock();
+            beginModification();
             CANCEL.increment(isReplication);
             Map<String, Lease<InstanceInfo>> gMap = registry.get(appName);
             Lease<InstanceInfo> leaseToCancel = null;
@@ -317,12 +409,13 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 return false;
             } else {
                 leaseToCancel.cancel();
+                vipLeaseIndex.remove(leaseToCancel);
                 InstanceInfo instanceInfo = leaseToCancel.getHolder();
                 String vip = null;
                 String svip = null;
                 if (instanceInfo != null) {
                     instanceInfo.setActionType(ActionType.DELETED);
-                    recentlyChangedQueue.add(new RecentlyChangedItem(leaseToCancel));
+                    recordRecentlyChanged(leaseToCancel, instanceInfo.getStatus(), null);
                     instanceInfo.setLastUpdatedTimestamp();
                     vip = instanceInfo.getVIPAddress();
                     svip = instanceInfo.getSecureVipAddress();
@@ -332,7 +425,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 return true;
             }
         } finally {
-            read.unlock();
+            endModification();
         }
     }
 
@@ -340,6 +433,11 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
      * Marks the given instance of the given app name as renewed, and also marks whether it originated from
      * replication.
      *
+     * <p>
+     * Renewing a known instance with an unchanged status allocates nothing here, which keeps replicated renewals
+     * garbage free. Renewals from clients are also replicated to the peers, which allocates a replication task each.
+     * </p>
+     *
      * @see com.netflix.eureka.lease.LeaseManager#renew(java.lang.String, java.lang.String, boolean)
      */
     public boolean renew(String appName, String id, boolean isReplication) {
@@ -374,7 +472,15 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     logger.info(
                             "The instance status {} is different from overridden instance status {} for instance {}. "
                                     + "Hence setting the status to overridden status", args);
-                    instanceInfo.setStatus(overriddenInstanceStatus);
+                    try {
+                        beginModification();
+                        InstanceStatus previousStatus = instanceInfo.setStatus(overriddenInstanceStatus);
+                        if (previousStatus != null) {
+                            updateInstanceCount(previousStatus, overriddenInstanceStatus);
+                        }
+                    } finally {
+                        endModification();
+                    }
                 }
             }
             renewsLastMin.increment();
@@ -459,7 +565,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                                 InstanceStatus newStatus, String lastDirtyTimestamp,
                                 boolean isReplication) {
         try {
-            read.lock();
+            beginModification();
             STATUS_UPDATE.increment(isReplication);
             Map<String, Lease<InstanceInfo>> gMap = registry.get(appName);
             Lease<InstanceInfo> lease = null;
@@ -492,6 +598,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     }
                     // If the replication's dirty timestamp is more than the existing one, just update
                     // it to the replica's.
+                    InstanceStatus previousStatus = info.getStatus();
                     if (replicaDirtyTimestamp > info.getLastDirtyTimestamp()) {
                         info.setLastDirtyTimestamp(replicaDirtyTimestamp);
                         info.setStatusWithoutDirty(newStatus);
@@ -499,14 +606,14 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                         info.setStatus(newStatus);
                     }
                     info.setActionType(ActionType.MODIFIED);
-                    recentlyChangedQueue.add(new RecentlyChangedItem(lease));
+                    recordRecentlyChanged(lease, previousStatus, newStatus);
                     info.setLastUpdatedTimestamp();
                     invalidateCache(appName, info.getVIPAddress(), info.getSecureVipAddress());
                 }
                 return true;
             }
         } finally {
-            read.unlock();
+            endModification();
         }
     }
 
@@ -527,7 +634,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                                         String lastDirtyTimestamp,
                                         boolean isReplication) {
         try {
-            read.lock();
+            beginModification();
             STATUS_OVERRIDE_DELETE.increment(isReplication);
             Map<String, Lease<InstanceInfo>> gMap = registry.get(appName);
             Lease<InstanceInfo> lease = null;
@@ -549,6 +656,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 InstanceStatus currentOverride = overriddenInstanceStatusMap.remove(id);
                 if (currentOverride != null && info != null) {
                     info.setOverriddenStatus(InstanceStatus.UNKNOWN);
+                    InstanceStatus previousStatus = info.getStatus();
                     info.setStatus(newStatus);
                     long replicaDirtyTimestamp = 0;
                     if (lastDirtyTimestamp != null) {
@@ -560,14 +668,14 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                         info.setLastDirtyTimestamp(replicaDirtyTimestamp);
                     }
                     info.setActionType(ActionType.MODIFIED);
-                    recentlyChangedQueue.add(new RecentlyChangedItem(lease));
+                    recordRecentlyChanged(lease, previousStatus, newStatus);
                     info.setLastUpdatedTimestamp();
                     invalidateCache(appName, info.getVIPAddress(), info.getSecureVipAddress());
                 }
                 return true;
             }
         } finally {
-            read.unlock();
+            endModification();
         }
     }
 
@@ -586,21 +694,27 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
 
         if (!isLeaseExpirationEnabled()) {
             logger.debug("DS: lease expiration is currently disabled.");
+            // Still drop the cancelled and replaced leases, so they do not accumulate in the index meanwhile
+            for (Lease<InstanceInfo> lease : leaseExpiryIndex.pollDue(System.currentTimeMillis() - additionalLeaseMs)) {
+                if (isRegisteredLease(lease)) {
+                    leaseExpiryIndex.add(lease);
+                }
+            }
             return;
         }
 
         // We collect first all expired items, to evict them in random order. For large eviction sets,
         // if we do not that, we might wipe out whole apps before self preservation kicks in. By randomizing it,
         // the impact should be evenly distributed across all applications.
+        // Only leases filed under a due expiration time are inspected. The ones which are not expired yet, because
+        // they were renewed since, are filed again under their current expiration time.
         List<Lease<InstanceInfo>> expiredLeases = new ArrayList<>();
-        for (Entry<String, Map<String, Lease<InstanceInfo>>> groupEntry : registry.entrySet()) {
-            Map<String, Lease<InstanceInfo>> leaseMap = groupEntry.getValue();
-            if (leaseMap != null) {
-                for (Entry<String, Lease<InstanceInfo>> leaseEntry : leaseMap.entrySet()) {
-                    Lease<InstanceInfo> lease = leaseEntry.getValue();
-                    if (lease.isExpired(additionalLeaseMs) && lease.getHolder() != null) {
-                        expiredLeases.add(lease);
-                    }
+        for (Lease<InstanceInfo> lease : leaseExpiryIndex.pollDue(System.currentTimeMillis() - additionalLeaseMs)) {
+            if (isRegisteredLease(lease)) {
+                if (lease.isExpired(additionalLeaseMs)) {
+                    expiredLeases.add(lease);
+                } else {
+                    leaseExpiryIndex.add(lease);
                 }
             }
         }
@@ -629,8 +743,23 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 internalCancel(appName, id, false);
             }
         }
+        // Expired leases spared by self preservation are inspected again on the next run
+        for (int i = Math.max(toEvict, 0); i < expiredLeases.size(); i++) {
+            leaseExpiryIndex.add(expiredLeases.get(i));
+        }
     }
 
+    /**
+     * Checks that the lease was not cancelled or replaced by a new registration since it was indexed. Leases without
+     * a holder are never registered, so they are dropped from the expiry index like the cancelled and replaced ones.
+     */
+    private boolean isRegisteredLease(Lease<InstanceInfo> lease) {
+        if (lease.getHolder() == null) {
+            return false;
+        }
+        Map<String, Lease<InstanceInfo>> leaseMap = registry.get(lease.getHolder().getAppName());
+        return leaseMap != null && leaseMap.get(lease.getHolder().getId()) == lease;
+    }
 
     /**
      * Returns the given app that is in this instance only, falling back to other regions transparently only
@@ -680,6 +809,14 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         return app;
     }
 
+    /**
+     * Get names of all applications registered in the local region, in the same order as they appear in
+     * {@link #getApplicationsFromMultipleRegions(String[])}.
+     */
+    Set<String> getLocalApplicationNames() {
+        return registry.keySet();
+    }
+
     /**
      * Get all applications in this instance registry, falling back to other regions if allowed in the Eureka config.
      *
@@ -713,6 +850,121 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         return getApplicationsFromMultipleRegions(EMPTY_STR_ARRAY);
     }
 
+    /**
+     * Saves the local registry to the snapshot file, if registry snapshots are enabled
+     * (see {@link EurekaServerConfig#getRegistrySnapshotFile()}).
+     */
+    public void saveSnapshot() {
+        if (snapshotStore == null) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Applications apps = getApplicationsChunk(0, 1);
+        // Changes made while the applications were collected may be included too, so the version is taken last
+        apps.setVersion(recentlyChangedVersion.get());
+        try {
+            snapshotStore.write(apps, new HashMap<String, InstanceStatus>(overriddenInstanceStatusMap));
+            logger.debug("Saved {} instances to registry snapshot {} in {}ms",
+                    apps.size(), snapshotStore.getFile(), System.currentTimeMillis() - startTime);
+        } catch (IOException e) {
+            logger.error("Cannot save registry snapshot {}", snapshotStore.getFile(), e);
+        }
+    }
+
+    /**
+     * Restores the local registry from the snapshot file, if registry snapshots are enabled, and only once per
+     * registry. The leases are restored with their last renewal time, so the instances that are not renewed any more
+     * expire as their original leases would have, and the ones that had already expired are skipped. The delta
+     * history is truncated, as for a bulk load.
+     *
+     * @return the number of instances restored
+     */
+    public int restoreSnapshot() {
+        if (snapshotStore == null || !snapshotRestoreAttempted.compareAndSet(false, true)) {
+            return 0;
+        }
+        RegistrySnapshotStore.Snapshot snapshot;
+        try {
+            snapshot = snapshotStore.read();
+        } catch (IOException e) {
+            logger.warn("Cannot read registry snapshot {}", snapshotStore.getFile(), e);
+            return 0;
+        }
+        if (snapshot == null) {
+            logger.info("No registry snapshot found in {}", snapshotStore.getFile());
+            return 0;
+        }
+
+        overriddenInstanceStatusMap.putAll(snapshot.getOverriddenStatuses());
+        long now = System.currentTimeMillis();
+        int count = 0;
+        int expired = 0;
+        for (Application app : snapshot.getApplications().getRegisteredApplications()) {
+            for (InstanceInfo instance : app.getInstances()) {
+                LeaseInfo leaseInfo = instance.getLeaseInfo();
+                int leaseDuration = leaseInfo == null ? Lease.DEFAULT_DURATION_IN_SECS : leaseInfo.getDurationInSecs();
+                long lastRenewalTimestamp = leaseInfo == null ? 0 : leaseInfo.getRenewalTimestamp();
+                if (lastRenewalTimestamp > 0 && lastRenewalTimestamp + leaseDuration * 1000L < now) {
+                    expired++;
+                    continue;
+                }
+                try {
+                    register(instance, leaseDuration, true, true, lastRenewalTimestamp);
+                    count++;
+                } catch (Throwable t) {
+                    logger.error("Cannot restore instance {}/{} from registry snapshot", app.getName(), instance.getId(), t);
+                }
+            }
+        }
+        // Keep the change sequence increasing, should the clock have gone back since the snapshot
+        synchronized (recentlyChangedQueue) {
+            long snapshotVersion = snapshot.getApplications().getVersion();
+            if (recentlyChangedVersion.get() < snapshotVersion) {
+                recentlyChangedVersion.set(snapshotVersion);
+            }
+        }
+        completeBulkRegistration();
+        logger.info("Restored {} instances from registry snapshot {} taken {}ms ago; skipped {} expired leases",
+                count, snapshotStore.getFile(), now - snapshot.getTimestamp(), expired);
+        return count;
+    }
+
+    /**
+     * Returns one of {@code chunkCount} disjoint parts of the local region applications, partitioned by application
+     * name, so that a peer node can transfer the whole local registry in several requests, possibly in parallel.
+     *
+     * @param chunk the index of the part, from 0 to {@code chunkCount - 1}
+     * @param chunkCount the number of parts the registry is split into
+     * @return the local region applications that belong to the given part
+     */
+    public Applications getApplicationsChunk(int chunk, int chunkCount) {
+        Applications apps = new Applications();
+        apps.setVersion(1L);
+        for (Entry<String, Map<String, Lease<InstanceInfo>>> entry : registry.entrySet()) {
+            if (Math.abs(entry.getKey().hashCode() % chunkCount) != chunk) {
+                continue;
+            }
+            Application app = null;
+            if (entry.getValue() != null) {
+                for (Lease<InstanceInfo> lease : entry.getValue().values()) {
+                    if (lease.getHolder() == null) {
+                        // Nothing to transfer or save for a lease without an instance
+                        continue;
+                    }
+                    if (app == null) {
+                        app = new Application(lease.getHolder().getAppName());
+                    }
+                    app.addInstance(decorateInstanceInfo(lease));
+                }
+            }
+            if (app != null) {
+                apps.addApplication(app);
+            }
+        }
+        apps.setAppsHashCode(apps.getReconcileHashCode());
+        return apps;
+    }
+
     /**
      * This method will return applications with instances from all passed remote regions as well as the current region.
      * Thus, this gives a union view of instances from multiple regions. <br/>
@@ -793,6 +1045,72 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         return apps;
     }
 
+    /**
+     * Get the applications with instances that have the given vip address, from the local region and, unless
+     * {@link EurekaServerConfig#disableTransparentFallbackToOtherRegion()} is set, from all remote regions, the
+     * same way as {@link #getApplications()} does. Local instances are looked up in the vip index, so the cost
+     * depends on the number of matching instances only.
+     *
+     * @param vipAddress the vip address, matched exactly against each of the comma separated vip addresses of
+     *                   an instance
+     * @param secure true to match the secure vip address, false otherwise
+     * @return the applications with the matching instances
+     */
+    public Applications getApplicationsForVip(String vipAddress, boolean secure) {
+        Applications apps = new Applications();
+        for (Lease<InstanceInfo> lease : vipLeaseIndex.getLeases(vipAddress, secure)) {
+            if (!isRegisteredLease(lease)) {
+                // Left behind by a concurrent registration of the same instance
+                vipLeaseIndex.remove(lease);
+                continue;
+            }
+            InstanceInfo instanceInfo = decorateInstanceInfo(lease);
+            Application app = apps.getRegisteredApplications(instanceInfo.getAppName());
+            if (app == null) {
+                app = new Application(instanceInfo.getAppName());
+                apps.addApplication(app);
+            }
+            app.addInstance(instanceInfo);
+        }
+        if (!serverConfig.disableTransparentFallbackToOtherRegion()) {
+            for (String remoteRegion : allKnownRemoteRegions) {
+                RemoteRegionRegistry remoteRegistry = regionNameVSRemoteRegistry.get(remoteRegion);
+                if (null == remoteRegistry) {
+                    continue;
+                }
+                for (Application application : remoteRegistry.getApplications().getRegisteredApplications()) {
+                    if (!shouldFetchFromRemoteRegistry(application.getName(), remoteRegion)) {
+                        continue;
+                    }
+                    for (InstanceInfo instanceInfo : application.getInstances()) {
+                        if (hasVipAddress(instanceInfo, vipAddress, secure)) {
+                            Application app = apps.getRegisteredApplications(application.getName());
+                            if (app == null) {
+                                app = new Application(application.getName());
+                                apps.addApplication(app);
+                            }
+                            app.addInstance(instanceInfo);
+                        }
+                    }
+                }
+            }
+        }
+        apps.setAppsHashCode(apps.getReconcileHashCode());
+        return apps;
+    }
+
+    private static boolean hasVipAddress(InstanceInfo instanceInfo, String vipAddress, boolean secure) {
+        String vipAddresses = secure ? instanceInfo.getSecureVipAddress() : instanceInfo.getVIPAddress();
+        if (vipAddresses != null) {
+            for (String candidate : vipAddresses.split(",")) {
+                if (candidate.equals(vipAddress)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private boolean shouldFetchFromRemoteRegistry(String appName, String remoteRegion) {
         Set<String> whiteList = serverConfig.getRemoteRegionAppWhitelist(remoteRegion);
         if (null == whiteList) {
@@ -868,57 +1186,40 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
      */
     @Deprecated
     public Applications getApplicationDeltas() {
+        return getApplicationDeltas(Long.MIN_VALUE);
+    }
+
+    private Applications getApplicationDeltas(long sinceVersion) {
         GET_ALL_CACHE_MISS_DELTA.increment();
         Applications apps = new Applications();
-        apps.setVersion(responseCache.getVersionDelta().get());
-        Map<String, Application> applicationInstancesMap = new HashMap<String, Application>();
-        try {
-            write.lock();
-            Iterator<RecentlyChangedItem> iter = this.recentlyChangedQueue.iterator();
-            logger.debug("The number of elements in the delta queue is :"
-                    + this.recentlyChangedQueue.size());
-            while (iter.hasNext()) {
-                Lease<InstanceInfo> lease = iter.next().getLeaseInfo();
-                InstanceInfo instanceInfo = lease.getHolder();
-                Object[] args = {instanceInfo.getId(),
-                        instanceInfo.getStatus().name(),
-                        instanceInfo.getActionType().name()};
-                logger.debug(
-                        "The instance id %s is found with status %s and actiontype %s",
-                        args);
-                Application app = applicationInstancesMap.get(instanceInfo
-                        .getAppName());
-                if (app == null) {
-                    app = new Application(instanceInfo.getAppName());
-                    applicationInstancesMap.put(instanceInfo.getAppName(), app);
-                    apps.addApplication(app);
-                }
-                app.addInstance(decorateInstanceInfo(lease));
-            }
+        final boolean disableTransparentFallback = serverConfig.disableTransparentFallbackToOtherRegion();
 
-            boolean disableTransparentFallback = serverConfig.disableTransparentFallbackToOtherRegion();
+        DeltaSnapshot snapshot = takeDeltaSnapshot(sinceVersion, new Function<TreeMap<String, AtomicInteger>, String>() {
+            @Override
+            public String apply(TreeMap<String, AtomicInteger> localInstanceCountMap) {
+                return getReconcileHashCode(localInstanceCountMap, !disableTransparentFallback);
+            }
+        });
+        addRecentlyChangedInstances(apps, snapshot.getLeases());
 
-            if (!disableTransparentFallback) {
-                Applications allAppsInLocalRegion = getApplications(false);
+        if (!disableTransparentFallback) {
+            Applications allAppsInLocalRegion = getApplications(false);
 
-                for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
-                    Applications applications = remoteRegistry.getApplicationDeltas();
-                    for (Application application : applications.getRegisteredApplications()) {
-                        Application appInLocalRegistry =
-                                allAppsInLocalRegion.getRegisteredApplications(application.getName());
-                        if (appInLocalRegistry == null) {
-                            apps.addApplication(application);
-                        }
+            for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
+                Applications applications = remoteRegistry.getApplicationDeltas();
+                for (Application application : applications.getRegisteredApplications()) {
+                    Application appInLocalRegistry =
+                            allAppsInLocalRegion.getRegisteredApplications(application.getName());
+                    if (appInLocalRegistry == null) {
+                        apps.addApplication(application);
                     }
                 }
             }
-
-            Applications allApps = getApplications(!disableTransparentFallback);
-            apps.setAppsHashCode(allApps.getReconcileHashCode());
-            return apps;
-        } finally {
-            write.unlock();
         }
+
+        apps.setVersion(snapshot.getVersion());
+        apps.setAppsHashCode(snapshot.getAppsHashCode());
+        return apps;
     }
 
     /**
@@ -940,6 +1241,10 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
      * not exist locally or in remote regions.
      */
     public Applications getApplicationDeltasFromMultipleRegions(String[] remoteRegions) {
+        return getApplicationDeltasFromMultipleRegions(remoteRegions, Long.MIN_VALUE);
+    }
+
+    private Applications getApplicationDeltasFromMultipleRegions(String[] remoteRegions, long sinceVersion) {
         if (null == remoteRegions) {
             remoteRegions = allKnownRemoteRegions; // null means all remote regions.
         }
@@ -953,57 +1258,241 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         }
 
         Applications apps = new Applications();
-        apps.setVersion(responseCache.getVersionDeltaWithRegions().get());
-        Map<String, Application> applicationInstancesMap = new HashMap<String, Application>();
-        try {
-            write.lock();
-            Iterator<RecentlyChangedItem> iter = this.recentlyChangedQueue.iterator();
-            logger.debug("The number of elements in the delta queue is :" + this.recentlyChangedQueue.size());
-            while (iter.hasNext()) {
-                Lease<InstanceInfo> lease = iter.next().getLeaseInfo();
-                InstanceInfo instanceInfo = lease.getHolder();
-                Object[] args = {instanceInfo.getId(),
-                        instanceInfo.getStatus().name(),
-                        instanceInfo.getActionType().name()};
-                logger.debug("The instance id %s is found with status %s and actiontype %s", args);
-                Application app = applicationInstancesMap.get(instanceInfo.getAppName());
-                if (app == null) {
-                    app = new Application(instanceInfo.getAppName());
-                    applicationInstancesMap.put(instanceInfo.getAppName(), app);
-                    apps.addApplication(app);
-                }
-                app.addInstance(decorateInstanceInfo(lease));
-            }
-
-            if (includeRemoteRegion) {
-                for (String remoteRegion : remoteRegions) {
-                    RemoteRegionRegistry remoteRegistry = regionNameVSRemoteRegistry.get(remoteRegion);
-                    if (null != remoteRegistry) {
-                        Applications remoteAppsDelta = remoteRegistry.getApplicationDeltas();
-                        if (null != remoteAppsDelta) {
-                            for (Application application : remoteAppsDelta.getRegisteredApplications()) {
-                                if (shouldFetchFromRemoteRegistry(application.getName(), remoteRegion)) {
-                                    Application appInstanceTillNow =
-                                            apps.getRegisteredApplications(application.getName());
-                                    if (appInstanceTillNow == null) {
-                                        appInstanceTillNow = new Application(application.getName());
-                                        apps.addApplication(appInstanceTillNow);
-                                    }
-                                    for (InstanceInfo instanceInfo : application.getInstances()) {
-                                        appInstanceTillNow.addInstance(instanceInfo);
-                                    }
+        final String[] regions = remoteRegions;
+
+        DeltaSnapshot snapshot = takeDeltaSnapshot(sinceVersion, new Function<TreeMap<String, AtomicInteger>, String>() {
+            @Override
+            public String apply(TreeMap<String, AtomicInteger> localInstanceCountMap) {
+                return getReconcileHashCodeFromMultipleRegions(localInstanceCountMap, regions);
+            }
+        });
+        addRecentlyChangedInstances(apps, snapshot.getLeases());
+
+        if (includeRemoteRegion) {
+            for (String remoteRegion : remoteRegions) {
+                RemoteRegionRegistry remoteRegistry = regionNameVSRemoteRegistry.get(remoteRegion);
+                if (null != remoteRegistry) {
+                    Applications remoteAppsDelta = remoteRegistry.getApplicationDeltas();
+                    if (null != remoteAppsDelta) {
+                        for (Application application : remoteAppsDelta.getRegisteredApplications()) {
+                            if (shouldFetchFromRemoteRegistry(application.getName(), remoteRegion)) {
+                                Application appInstanceTillNow =
+                                        apps.getRegisteredApplications(application.getName());
+                                if (appInstanceTillNow == null) {
+                                    appInstanceTillNow = new Application(application.getName());
+                                    apps.addApplication(appInstanceTillNow);
+                                }
+                                for (InstanceInfo instanceInfo : application.getInstances()) {
+                                    appInstanceTillNow.addInstance(instanceInfo);
                                 }
                             }
                         }
                     }
                 }
             }
+        }
 
-            Applications allApps = getApplicationsFromMultipleRegions(remoteRegions);
-            apps.setAppsHashCode(allApps.getReconcileHashCode());
-            return apps;
-        } finally {
-            write.unlock();
+        apps.setVersion(snapshot.getVersion());
+        apps.setAppsHashCode(snapshot.getAppsHashCode());
+        return apps;
+    }
+
+    /**
+     * Gets the changes of the registry made after the given registry change sequence, which is the version of a
+     * delta returned earlier. Unlike {@link #getApplicationDeltasFromMultipleRegions(String[])}, the changes a
+     * client has already seen are left out. The remote region changes are not sequenced, so all the recent ones
+     * are included as in the other deltas.
+     *
+     * @param sinceVersion the version of the last delta seen by the client.
+     * @param remoteRegions the remote regions to include, as for
+     *                      {@link #getApplicationDeltasFromMultipleRegions(String[])}, or null for the same delta
+     *                      as {@link #getApplicationDeltas()}.
+     * @return the delta, with the version of its last change, or null if the changes following the given
+     * version are no longer recorded, or if the version was not handed out by this registry.
+     */
+    @Nullable
+    public Applications getApplicationDeltasSince(long sinceVersion, @Nullable String[] remoteRegions) {
+        if (sinceVersion < truncatedVersion || sinceVersion > recentlyChangedVersion.get()) {
+            return null;
+        }
+        Applications apps = remoteRegions == null
+                ? getApplicationDeltas(sinceVersion)
+                : getApplicationDeltasFromMultipleRegions(remoteRegions, sinceVersion);
+        // Changes truncated while the delta was taken may be missing from it
+        return sinceVersion < truncatedVersion ? null : apps;
+    }
+
+    /**
+     * Takes a consistent snapshot of the recently changed queue, and of the reconcile hash code computed by the
+     * given function from the local instance counts. Only leases recorded after the given version, and up to the
+     * version observed when the snapshot starts are included. The counts are updated together with the version,
+     * under the queue monitor, so reading both under the monitor makes the hash code match the delta without
+     * holding off registry modifications.
+     */
+    private DeltaSnapshot takeDeltaSnapshot(long sinceVersion,
+                                            Function<TreeMap<String, AtomicInteger>, String> appsHashCodeFunction) {
+        long cursor;
+        long[] instanceCounts;
+        // Items are queued under the queue monitor with their version, so all up to the cursor are queued already
+        synchronized (recentlyChangedQueue) {
+            cursor = recentlyChangedVersion.get();
+            instanceCounts = localInstanceCountByStatus.clone();
+        }
+        List<Lease<InstanceInfo>> leases = new ArrayList<Lease<InstanceInfo>>();
+        for (RecentlyChangedItem item : recentlyChangedQueue) {
+            if (item.getVersion() > cursor) {
+                break;
+            }
+            if (item.getVersion() > sinceVersion) {
+                leases.add(item.getLeaseInfo());
+            }
+        }
+        return new DeltaSnapshot(leases, cursor, appsHashCodeFunction.apply(toInstanceCountMap(instanceCounts)));
+    }
+
+    /**
+     * Same as the reconcile hash code of {@link #getApplications(boolean)}, computed from the maintained local
+     * instance counts, and the instances of remote region applications, if requested.
+     */
+    private String getReconcileHashCode(TreeMap<String, AtomicInteger> instanceCountMap, boolean includeRemoteRegion) {
+        if (includeRemoteRegion) {
+            Set<String> remoteAppNames = new HashSet<String>();
+            for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
+                for (Application application : remoteRegistry.getApplications().getRegisteredApplications()) {
+                    Map<String, Lease<InstanceInfo>> leaseMap = registry.get(application.getName());
+                    boolean isLocalApp = leaseMap != null && !leaseMap.isEmpty();
+                    if (!isLocalApp && remoteAppNames.add(application.getName())) {
+                        addInstanceCounts(instanceCountMap, application);
+                    }
+                }
+            }
+        }
+        return Applications.getReconcileHashCode(instanceCountMap);
+    }
+
+    /**
+     * Same as the reconcile hash code of {@link #getApplicationsFromMultipleRegions(String[])}, computed from the
+     * maintained local instance counts, and the instances of whitelisted applications from the given remote regions.
+     */
+    private String getReconcileHashCodeFromMultipleRegions(TreeMap<String, AtomicInteger> instanceCountMap,
+                                                           String[] remoteRegions) {
+        if (null != remoteRegions) {
+            for (String remoteRegion : remoteRegions) {
+                RemoteRegionRegistry remoteRegistry = regionNameVSRemoteRegistry.get(remoteRegion);
+                if (null != remoteRegistry) {
+                    for (Application application : remoteRegistry.getApplications().getRegisteredApplications()) {
+                        if (shouldFetchFromRemoteRegistry(application.getName(), remoteRegion)) {
+                            addInstanceCounts(instanceCountMap, application);
+                        }
+                    }
+                }
+            }
+        }
+        return Applications.getReconcileHashCode(instanceCountMap);
+    }
+
+    private static TreeMap<String, AtomicInteger> toInstanceCountMap(long[] instanceCounts) {
+        TreeMap<String, AtomicInteger> instanceCountMap = new TreeMap<String, AtomicInteger>();
+        for (InstanceStatus status : InstanceStatus.values()) {
+            long count = instanceCounts[status.ordinal()];
+            if (count > 0) {
+                instanceCountMap.put(status.name(), new AtomicInteger((int) count));
+            }
+        }
+        return instanceCountMap;
+    }
+
+    private static void addInstanceCounts(TreeMap<String, AtomicInteger> instanceCountMap, Application application) {
+        for (InstanceInfo info : application.getInstancesAsIsFromEureka()) {
+            AtomicInteger instanceCount = instanceCountMap.get(info.getStatus().name());
+            if (instanceCount == null) {
+                instanceCount = new AtomicInteger(0);
+                instanceCountMap.put(info.getStatus().name(), instanceCount);
+            }
+            instanceCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Moves an instance from the previous to the new status count, for a change that is not recorded in the
+     * recently changed queue. A null previous status adds the instance, and a null new status removes it.
+     */
+    private void updateInstanceCount(@Nullable InstanceStatus previousStatus, @Nullable InstanceStatus newStatus) {
+        synchronized (recentlyChangedQueue) {
+            moveInstanceCount(previousStatus, newStatus);
+        }
+    }
+
+    // Must be called holding the recently changed queue monitor
+    private void moveInstanceCount(@Nullable InstanceStatus previousStatus, @Nullable InstanceStatus newStatus) {
+        if (previousStatus == newStatus) {
+            return;
+        }
+        if (previousStatus != null) {
+            localInstanceCountByStatus[previousStatus.ordinal()]--;
+        }
+        if (newStatus != null) {
+            localInstanceCountByStatus[newStatus.ordinal()]++;
+        }
+    }
+
+    /**
+     * Verifies the maintained instance counts against a scan of the local registry, and corrects them if they
+     * drifted, which may happen if an instance status changes concurrently with its re-registration. The result
+     * is discarded if the scan overlapped with a registry modification.
+     */
+    void reconcileInstanceCounts() {
+        long completed = modificationsCompleted.get();
+        long started = modificationsStarted.get();
+        if (started != completed) {
+            return;
+        }
+
+        int statusCount = localInstanceCountByStatus.length;
+        long[] counted;
+        synchronized (recentlyChangedQueue) {
+            counted = localInstanceCountByStatus.clone();
+        }
+        long[] scanned = new long[statusCount];
+        for (Map<String, Lease<InstanceInfo>> leaseMap : registry.values()) {
+            for (Lease<InstanceInfo> lease : leaseMap.values()) {
+                InstanceInfo instanceInfo = lease.getHolder();
+                if (instanceInfo != null) {
+                    scanned[instanceInfo.getStatus().ordinal()]++;
+                }
+            }
+        }
+        if (modificationsStarted.get() != started) {
+            return;
+        }
+
+        synchronized (recentlyChangedQueue) {
+            for (int i = 0; i < statusCount; i++) {
+                if (scanned[i] != counted[i]) {
+                    logger.warn("Correcting {} instance count from {} to {}", InstanceStatus.values()[i], counted[i], scanned[i]);
+                    // Relative update, as the counts may have been updated since they were read
+                    localInstanceCountByStatus[i] += scanned[i] - counted[i];
+                }
+            }
+        }
+    }
+
+    private void addRecentlyChangedInstances(Applications apps, List<Lease<InstanceInfo>> leases) {
+        logger.debug("The number of elements in the delta queue is :" + leases.size());
+        Map<String, Application> applicationInstancesMap = new HashMap<String, Application>();
+        for (Lease<InstanceInfo> lease : leases) {
+            InstanceInfo instanceInfo = lease.getHolder();
+            Object[] args = {instanceInfo.getId(),
+                    instanceInfo.getStatus().name(),
+                    instanceInfo.getActionType().name()};
+            logger.debug("The instance id %s is found with status %s and actiontype %s", args);
+            Application app = applicationInstancesMap.get(instanceInfo.getAppName());
+            if (app == null) {
+                app = new Application(instanceInfo.getAppName());
+                applicationInstancesMap.put(instanceInfo.getAppName(), app);
+                apps.addApplication(app);
+            }
+            app.addInstance(decorateInstanceInfo(lease));
         }
     }
 
@@ -1050,6 +1539,20 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         return null;
     }
 
+    @Override
+    public Long getLastDirtyTimestamp(String appName, String id) {
+        Map<String, Lease<InstanceInfo>> leaseMap = registry.get(appName);
+        Lease<InstanceInfo> lease = null;
+        if (leaseMap != null) {
+            lease = leaseMap.get(id);
+        }
+        if (lease != null && lease.getHolder() != null
+                && (!isLeaseExpirationEnabled() || !lease.isExpired())) {
+            return lease.getHolder().getLastDirtyTimestamp();
+        }
+        return null;
+    }
+
     /**
      * @deprecated Try {@link #getInstanceByAppAndId(String, String)} instead.
      *
@@ -1194,6 +1697,27 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         return list;
     }
 
+    private void beginModification() {
+        modificationsStarted.incrementAndGet();
+    }
+
+    private void endModification() {
+        modificationsCompleted.incrementAndGet();
+    }
+
+    /**
+     * Records the changed lease with the next registry change sequence, and moves the instance between the status
+     * counts as for {@link #updateInstanceCount(InstanceStatus, InstanceStatus)}, both under the queue monitor.
+     */
+    private void recordRecentlyChanged(Lease<InstanceInfo> lease, @Nullable InstanceStatus previousStatus,
+                                       @Nullable InstanceStatus newStatus) {
+        // Versions must be increasing in the queue order, as delta snapshots stop at the first newer item
+        synchronized (recentlyChangedQueue) {
+            moveInstanceCount(previousStatus, newStatus);
+            recentlyChangedQueue.add(new RecentlyChangedItem(lease, recentlyChangedVersion.incrementAndGet()));
+        }
+    }
+
     private void invalidateCache(String appName, @Nullable String vipAddress, @Nullable String secureVipAddress) {
         // invalidate cache
         responseCache.invalidate(appName, vipAddress, secureVipAddress);
@@ -1201,10 +1725,12 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
 
     private static final class RecentlyChangedItem {
         private long lastUpdateTime;
+        private final long version;
         private Lease<InstanceInfo> leaseInfo;
 
-        public RecentlyChangedItem(Lease<InstanceInfo> lease) {
+        public RecentlyChangedItem(Lease<InstanceInfo> lease, long version) {
             this.leaseInfo = lease;
+            this.version = version;
             lastUpdateTime = System.currentTimeMillis();
         }
 
@@ -1212,11 +1738,39 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
             return this.lastUpdateTime;
         }
 
+        public long getVersion() {
+            return this.version;
+        }
+
         public Lease<InstanceInfo> getLeaseInfo() {
             return this.leaseInfo;
         }
     }
 
+    private static final class DeltaSnapshot {
+        private final List<Lease<InstanceInfo>> leases;
+        private final long version;
+        private final String appsHashCode;
+
+        DeltaSnapshot(List<Lease<InstanceInfo>> leases, long version, String appsHashCode) {
+            this.leases = leases;
+            this.version = version;
+            this.appsHashCode = appsHashCode;
+        }
+
+        List<Lease<InstanceInfo>> getLeases() {
+            return leases;
+        }
+
+        long getVersion() {
+            return version;
+        }
+
+        String getAppsHashCode() {
+            return appsHashCode;
+        }
+    }
+
     protected void postInit() {
         renewsLastMin.start();
         if (evictionTaskRef.get() != null) {
@@ -1226,6 +1780,15 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         evictionTimer.schedule(evictionTaskRef.get(),
                 serverConfig.getEvictionIntervalTimerInMs(),
                 serverConfig.getEvictionIntervalTimerInMs());
+        if (snapshotStore != null) {
+            if (snapshotTaskRef.get() != null) {
+                snapshotTaskRef.get().cancel();
+            }
+            snapshotTaskRef.set(getSnapshotTask());
+            snapshotTimer.schedule(snapshotTaskRef.get(),
+                    serverConfig.getRegistrySnapshotIntervalMs(),
+                    serverConfig.getRegistrySnapshotIntervalMs());
+        }
     }
 
     /**
@@ -1236,6 +1799,13 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         deltaRetentionTimer.cancel();
         evictionTimer.cancel();
         renewsLastMin.stop();
+        if (snapshotStore != null) {
+            snapshotTimer.cancel();
+            // Only a registry opened for traffic is worth saving; an empty one would replace a good snapshot
+            if (snapshotTaskRef.get() != null) {
+                saveSnapshot();
+            }
+        }
     }
 
     @com.netflix.servo.annotations.Monitor(name = "numOfElementsinInstanceCache", description = "Number of overrides in the instance Cache", type = DataSourceType.GAUGE)
@@ -1253,6 +1823,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 long compensationTimeMs = getCompensationTimeMs();
                 logger.info("Running the evict task with compensationTime {}ms", compensationTimeMs);
                 evict(compensationTimeMs);
+                reconcileInstanceCounts();
             } catch (Throwable e) {
                 logger.error("Could not run the evict task", e);
             }
@@ -1321,6 +1892,20 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         return rule.apply(r, existingLease, isReplication).status();
     }
 
+    private TimerTask getSnapshotTask() {
+        return new TimerTask() {
+
+            @Override
+            public void run() {
+                try {
+                    saveSnapshot();
+                } catch (Throwable e) {
+                    logger.error("Could not save the registry snapshot", e);
+                }
+            }
+        };
+    }
+
     private TimerTask getDeltaRetentionTask() {
         return new TimerTask() {
 
@@ -1328,8 +1913,11 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
             public void run() {
                 Iterator<RecentlyChangedItem> it = recentlyChangedQueue.iterator();
                 while (it.hasNext()) {
-                    if (it.next().getLastUpdateTime() <
+                    RecentlyChangedItem item = it.next();
+                    if (item.getLastUpdateTime() <
                             System.currentTimeMillis() - serverConfig.getRetentionTimeInMSInDeltaQueue()) {
+                        // Marked truncated before the removal, so that deltas taken meanwhile are not trusted
+                        truncatedVersion = item.getVersion();
                         it.remove();
                     } else {
                         break;
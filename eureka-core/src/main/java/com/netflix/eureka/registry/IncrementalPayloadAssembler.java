@@ -0,0 +1,350 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.eureka.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.converters.wrappers.EncoderWrapper;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.resources.ServerCodecs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.netflix.eureka.util.EurekaMonitors.GET_ALL_CACHE_MISS;
+
+/**
+ * Assembles the full registry payload of the local region from separately encoded {@link Application}
+ * fragments. A fragment is cached per application and codec, and is dropped when the application is
+ * invalidated, so regenerating the full registry payload re-encodes only the applications that changed.
+ * As an invalidation does not stop a fragment being encoded at the time, each fragment is stamped with the
+ * invalidation clock read before the encoding starts, and is encoded again if its application got invalidated
+ * since then.
+ *
+ * <p>
+ * The payload is stitched together textually, which works only for codecs that encode an application
+ * in a collection the same way as a standalone one. Each codec is verified once by comparing an assembled
+ * payload of a small sample registry with its regular encoding. Codecs failing the check are not supported,
+ * and {@link ResponseCacheImpl} encodes the whole registry for them as before.
+ * </p>
+ */
+class IncrementalPayloadAssembler {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalPayloadAssembler.class);
+
+    private static final String JSON_APPLICATION_ARRAY = "\"application\":[]";
+    private static final String JSON_APPLICATION_PREFIX = "{\"application\":";
+    private static final String JSON_APPLICATION_SUFFIX = "}";
+    private static final String XML_APPLICATIONS_PREFIX = "<applications>";
+    private static final String XML_APPLICATION_PREFIX = "<application>";
+
+    private final EurekaServerConfig serverConfig;
+    private final ServerCodecs serverCodecs;
+    private final AbstractInstanceRegistry registry;
+
+    private final ConcurrentMap<EncoderWrapper, FragmentCodec> fragmentCodecs = new ConcurrentHashMap<>();
+
+    // Ticks on each invalidation; the latest tick is kept per application, and for invalidations of all of them
+    private final AtomicLong invalidationClock = new AtomicLong();
+    private final ConcurrentMap<String, Long> appInvalidations = new ConcurrentHashMap<>();
+    private volatile long allInvalidation;
+
+    IncrementalPayloadAssembler(EurekaServerConfig serverConfig, ServerCodecs serverCodecs, AbstractInstanceRegistry registry) {
+        this.serverConfig = serverConfig;
+        this.serverCodecs = serverCodecs;
+        this.registry = registry;
+    }
+
+    /**
+     * Full registry payload can be assembled only if it consists of local region applications (which are
+     * invalidated on each change), and the codec passed the verification.
+     */
+    boolean isSupported(Key key) {
+        if (key.hasRegions()) {
+            return false;
+        }
+        if (!serverConfig.disableTransparentFallbackToOtherRegion() && registry.allKnownRemoteRegions.length > 0) {
+            return false;
+        }
+        return getFragmentCodec(key.getType(), key.getEurekaAccept()).isSupported();
+    }
+
+    /**
+     * Assemble the full registry payload of the local region for the given key, which must be supported.
+     */
+    String assemble(Key key) throws Exception {
+        GET_ALL_CACHE_MISS.increment();
+
+        FragmentCodec fragmentCodec = getFragmentCodec(key.getType(), key.getEurekaAccept());
+        List<Fragment> fragments = new ArrayList<>();
+        for (String appName : registry.getLocalApplicationNames()) {
+            Fragment fragment = fragmentCodec.getFragment(appName);
+            if (!fragment.isEmpty()) {
+                fragments.add(fragment);
+            }
+        }
+        String payload = fragmentCodec.assemble(fragments);
+        if (logger.isDebugEnabled()) {
+            logger.debug("New application cache entry {} assembled from {} application fragments",
+                    key.toStringCompact(), fragments.size());
+        }
+        return payload;
+    }
+
+    /**
+     * Drop the cached fragments of the given application in all formats.
+     */
+    void invalidate(String appName) {
+        appInvalidations.put(appName, invalidationClock.incrementAndGet());
+        for (FragmentCodec fragmentCodec : fragmentCodecs.values()) {
+            fragmentCodec.invalidate(appName);
+        }
+    }
+
+    /**
+     * Drop all cached fragments.
+     */
+    void invalidateAll() {
+        allInvalidation = invalidationClock.incrementAndGet();
+        for (FragmentCodec fragmentCodec : fragmentCodecs.values()) {
+            fragmentCodec.invalidateAll();
+        }
+    }
+
+    private boolean isInvalidatedSince(String appName, long loadedAt) {
+        if (loadedAt < allInvalidation) {
+            return true;
+        }
+        Long appInvalidation = appInvalidations.get(appName);
+        return appInvalidation != null && loadedAt < appInvalidation;
+    }
+
+    private FragmentCodec getFragmentCodec(Key.KeyType keyType, EurekaAccept eurekaAccept) {
+        EncoderWrapper encoder = serverCodecs.getEncoder(keyType, eurekaAccept);
+        FragmentCodec fragmentCodec = fragmentCodecs.get(encoder);
+        if (fragmentCodec == null) {
+            fragmentCodec = new FragmentCodec(encoder, keyType);
+            FragmentCodec existing = fragmentCodecs.putIfAbsent(encoder, fragmentCodec);
+            if (existing != null) {
+                fragmentCodec = existing;
+            }
+        }
+        return fragmentCodec;
+    }
+
+    /**
+     * Encoded application, together with its instance counts by status, so the reconcile hash code
+     * of the full registry can be computed without touching the instances, and the invalidation clock
+     * read before the encoding.
+     */
+    static class Fragment {
+        private final String payload;
+        private final Map<String, Integer> instanceCountMap;
+        private final long loadedAt;
+
+        Fragment(String payload, Map<String, Integer> instanceCountMap, long loadedAt) {
+            this.payload = payload;
+            this.instanceCountMap = instanceCountMap;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isEmpty() {
+            return payload.isEmpty();
+        }
+    }
+
+    private class FragmentCodec {
+
+        private final EncoderWrapper encoder;
+        private final Key.KeyType keyType;
+        private final Cache<String, Fragment> fragmentCache;
+        private final boolean supported;
+
+        FragmentCodec(EncoderWrapper encoder, Key.KeyType keyType) {
+            this.encoder = encoder;
+            this.keyType = keyType;
+            this.fragmentCache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(serverConfig.getResponseCacheAutoExpirationInSeconds(), TimeUnit.SECONDS)
+                    .<String, Fragment>build();
+            this.supported = verify();
+            if (!supported) {
+                logger.info("Codec {} does not support incremental payload assembly; full registry will be encoded at once",
+                        encoder.codecName());
+            }
+        }
+
+        boolean isSupported() {
+            return supported;
+        }
+
+        Fragment getFragment(final String appName) throws Exception {
+            while (true) {
+                final long loadedAt = invalidationClock.get();
+                Fragment fragment = fragmentCache.get(appName, new Callable<Fragment>() {
+                    @Override
+                    public Fragment call() throws Exception {
+                        return toFragment(registry.getApplication(appName, false), loadedAt);
+                    }
+                });
+                if (!isInvalidatedSince(appName, fragment.loadedAt)) {
+                    return fragment;
+                }
+                // Encoded while the application got invalidated, so it may miss the latest change
+                fragmentCache.asMap().remove(appName, fragment);
+            }
+        }
+
+        void invalidate(String appName) {
+            fragmentCache.invalidate(appName);
+        }
+
+        void invalidateAll() {
+            fragmentCache.invalidateAll();
+        }
+
+        String assemble(List<Fragment> fragments) throws Exception {
+            TreeMap<String, AtomicInteger> instanceCountMap = new TreeMap<>();
+            int payloadSize = 0;
+            for (Fragment fragment : fragments) {
+                payloadSize += fragment.payload.length() + 1;
+                for (Map.Entry<String, Integer> entry : fragment.instanceCountMap.entrySet()) {
+                    AtomicInteger instanceCount = instanceCountMap.get(entry.getKey());
+                    if (instanceCount == null) {
+                        instanceCount = new AtomicInteger(0);
+                        instanceCountMap.put(entry.getKey(), instanceCount);
+                    }
+                    instanceCount.addAndGet(entry.getValue());
+                }
+            }
+
+            Applications envelope = new Applications();
+            envelope.setVersion(1L);
+            envelope.setAppsHashCode(Applications.getReconcileHashCode(instanceCountMap));
+            String envelopePayload = encoder.encode(envelope);
+
+            int insertAt = insertionPoint(envelopePayload);
+            if (insertAt < 0) {
+                throw new IllegalStateException("Unexpected applications envelope format produced by codec " + encoder.codecName());
+            }
+            StringBuilder sb = new StringBuilder(envelopePayload.length() + payloadSize);
+            sb.append(envelopePayload, 0, insertAt);
+            for (int i = 0; i < fragments.size(); i++) {
+                if (i > 0 && keyType == Key.KeyType.JSON) {
+                    sb.append(',');
+                }
+                sb.append(fragments.get(i).payload);
+            }
+            sb.append(envelopePayload, insertAt, envelopePayload.length());
+            return sb.toString();
+        }
+
+        private Fragment toFragment(Application app, long loadedAt) throws Exception {
+            if (app == null || app.getInstancesAsIsFromEureka().isEmpty()) {
+                return new Fragment("", Collections.<String, Integer>emptyMap(), loadedAt);
+            }
+            String encoded = encoder.encode(app);
+            String payload;
+            if (keyType == Key.KeyType.JSON) {
+                if (!encoded.startsWith(JSON_APPLICATION_PREFIX) || !encoded.endsWith(JSON_APPLICATION_SUFFIX)) {
+                    throw new IllegalStateException("Unexpected application format produced by codec " + encoder.codecName());
+                }
+                payload = encoded.substring(JSON_APPLICATION_PREFIX.length(), encoded.length() - JSON_APPLICATION_SUFFIX.length());
+            } else {
+                if (!encoded.startsWith(XML_APPLICATION_PREFIX)) {
+                    throw new IllegalStateException("Unexpected application format produced by codec " + encoder.codecName());
+                }
+                payload = encoded;
+            }
+
+            Map<String, Integer> instanceCountMap = new HashMap<>();
+            for (InstanceInfo instance : app.getInstancesAsIsFromEureka()) {
+                String status = instance.getStatus().name();
+                Integer count = instanceCountMap.get(status);
+                instanceCountMap.put(status, count == null ? 1 : count + 1);
+            }
+            return new Fragment(payload, instanceCountMap, loadedAt);
+        }
+
+        private int insertionPoint(String envelopePayload) {
+            if (keyType == Key.KeyType.JSON) {
+                int idx = envelopePayload.indexOf(JSON_APPLICATION_ARRAY);
+                if (idx < 0 || envelopePayload.indexOf(JSON_APPLICATION_ARRAY, idx + 1) >= 0) {
+                    return -1;
+                }
+                return idx + JSON_APPLICATION_ARRAY.length() - 1;
+            }
+            return envelopePayload.startsWith(XML_APPLICATIONS_PREFIX) ? XML_APPLICATIONS_PREFIX.length() : -1;
+        }
+
+        /**
+         * Check that a sample registry assembled from fragments is identical to its regular encoding.
+         */
+        private boolean verify() {
+            try {
+                Applications sample = new Applications();
+                sample.setVersion(1L);
+                sample.addApplication(sampleApplication("SAMPLE-APP-A", 1));
+                sample.addApplication(sampleApplication("SAMPLE-APP-B", 2));
+                sample.setAppsHashCode(sample.getReconcileHashCode());
+
+                List<Fragment> fragments = new ArrayList<>();
+                for (Application app : sample.getRegisteredApplications()) {
+                    fragments.add(toFragment(app, 0));
+                }
+                return encoder.encode(sample).equals(assemble(fragments));
+            } catch (Exception e) {
+                logger.debug("Incremental payload assembly verification failed for codec {}", encoder.codecName(), e);
+                return false;
+            }
+        }
+
+        private Application sampleApplication(String appName, int instanceCount) {
+            Application app = new Application(appName);
+            for (int i = 0; i < instanceCount; i++) {
+                app.addInstance(InstanceInfo.Builder.newBuilder()
+                        .setInstanceId(appName.toLowerCase() + '-' + i)
+                        .setAppName(appName)
+                        .setHostName(appName.toLowerCase() + '-' + i + ".sample")
+                        .setIPAddr("10.0.0." + i)
+                        .setVIPAddress(appName.toLowerCase())
+                        .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                        .setLeaseInfo(LeaseInfo.Builder.newBuilder().build())
+                        .build());
+            }
+            return app;
+        }
+    }
+}
@@ -70,6 +70,16 @@ public interface InstanceRegistry extends LeaseManager<InstanceInfo>, LookupServ
      */
     InstanceInfo getInstanceByAppAndId(String appName, String id, boolean includeRemoteRegions);
 
+    /**
+     * Gets the last dirty timestamp of a local region instance. Unlike {@link #getInstanceByAppAndId(String, String)}
+     * this does not update the lease information of the instance, so it is cheap enough for each renewal.
+     *
+     * @param appName the application name of the instance.
+     * @param id the unique identifier of the instance.
+     * @return the last dirty timestamp, or null if there is no such instance or its lease expired.
+     */
+    Long getLastDirtyTimestamp(String appName, String id);
+
     void clearRegistry();
 
     void initializedResponseCache();
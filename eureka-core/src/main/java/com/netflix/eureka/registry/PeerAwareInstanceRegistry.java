@@ -18,6 +18,7 @@ package com.netflix.eureka.registry;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
 import com.netflix.eureka.cluster.PeerEurekaNodes;
 import com.netflix.eureka.resources.ASGResource;
 
@@ -52,4 +53,10 @@ public interface PeerAwareInstanceRegistry extends InstanceRegistry {
      void register(InstanceInfo info, boolean isReplication);
 
      void statusUpdate(final String asgName, final ASGResource.ASGStatus newStatus, final boolean isReplication);
+
+    /**
+     * Gets one of the parts of the local registry, that a starting peer node transfers in place of the whole
+     * registry. See {@link AbstractInstanceRegistry#getApplicationsChunk(int, int)}.
+     */
+     Applications getApplicationsChunk(int chunk, int chunkCount);
 }
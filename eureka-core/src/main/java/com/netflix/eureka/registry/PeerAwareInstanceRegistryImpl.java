@@ -23,6 +23,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 import com.netflix.appinfo.AmazonInfo;
 import com.netflix.appinfo.AmazonInfo.MetaDataKey;
@@ -53,7 +54,6 @@ import com.netflix.eureka.util.MeasuredRate;
 import com.netflix.servo.DefaultMonitorRegistry;
 import com.netflix.servo.annotations.DataSourceType;
 import com.netflix.servo.monitor.Monitors;
-import com.netflix.servo.monitor.Stopwatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -201,13 +201,28 @@ public class PeerAwareInstanceRegistryImpl extends AbstractInstanceRegistry impl
      * Populates the registry information from a peer eureka node. This
      * operation fails over to other nodes until the list is exhausted if the
      * communication fails.
+     * <p>
+     * If registry snapshots are enabled, the registry is first restored from the local snapshot, and then
+     * reconciled with the peers, without waiting between retries, as the restored registry can be served meanwhile.
      */
     @Override
     public int syncUp() {
+        int restoredCount = restoreSnapshot();
+        int chunkCount = serverConfig.getRegistryBootstrapChunks();
+        if (chunkCount > 0 && peerEurekaNodes != null) {
+            int count = new PeerRegistryBootstrap(this, peerEurekaNodes.getPeerEurekaNodes(), chunkCount,
+                    serverConfig.getRegistryBootstrapThreads()).transfer();
+            if (count > 0) {
+                return restoredCount > 0 ? (int) getLocalRegistrySize() : count;
+            }
+            logger.info("Registry bootstrap from peers did not complete; falling back to the registry fetched by the client");
+        }
+
         // Copy entire entry from neighboring DS node
         int count = 0;
+        int retries = restoredCount > 0 ? 1 : serverConfig.getRegistrySyncRetries();
 
-        for (int i = 0; ((i < serverConfig.getRegistrySyncRetries()) && (count == 0)); i++) {
+        for (int i = 0; ((i < retries) && (count == 0)); i++) {
             if (i > 0) {
                 try {
                     Thread.sleep(serverConfig.getRegistrySyncRetryWaitMs());
@@ -230,7 +245,7 @@ public class PeerAwareInstanceRegistryImpl extends AbstractInstanceRegistry impl
                 }
             }
         }
-        return count;
+        return restoredCount > 0 ? (int) getLocalRegistrySize() : count;
     }
 
     @Override
@@ -618,7 +633,8 @@ public class PeerAwareInstanceRegistryImpl extends AbstractInstanceRegistry impl
     private void replicateToPeers(Action action, String appName, String id,
                                   InstanceInfo info /* optional */,
                                   InstanceStatus newStatus /* optional */, boolean isReplication) {
-        Stopwatch tracer = action.getTimer().start();
+        // Timed without a Stopwatch, as this runs on each renewal
+        long startNanos = System.nanoTime();
         try {
             if (isReplication) {
                 numberOfReplicationsLastMin.increment();
@@ -636,7 +652,7 @@ public class PeerAwareInstanceRegistryImpl extends AbstractInstanceRegistry impl
                 replicateInstanceActionsToPeers(action, appName, id, info, newStatus, node);
             }
         } finally {
-            tracer.stop();
+            action.getTimer().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.eureka.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bootstraps the registry of a starting node with the local registries of its peers. The registry is split into
+ * chunks (see {@link AbstractInstanceRegistry#getApplicationsChunk(int, int)}), which are fetched in parallel. Each
+ * chunk is requested from the peers in turn, starting from a different peer for each chunk, so that the transfer
+ * is spread over all peers, and fails over to the next peer on error.
+ *
+ * <p>
+ * Instances are loaded with {@link AbstractInstanceRegistry#bulkRegister(InstanceInfo, int)}, and the response
+ * cache and the delta history are rebuilt once, when all chunks are loaded.
+ * </p>
+ */
+class PeerRegistryBootstrap {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeerRegistryBootstrap.class);
+
+    private final PeerAwareInstanceRegistryImpl registry;
+    private final List<PeerEurekaNode> peers;
+    private final int chunkCount;
+    private final int threadCount;
+
+    PeerRegistryBootstrap(PeerAwareInstanceRegistryImpl registry, List<PeerEurekaNode> peers, int chunkCount, int threadCount) {
+        this.registry = registry;
+        this.peers = peers;
+        this.chunkCount = chunkCount;
+        this.threadCount = Math.max(1, Math.min(threadCount, chunkCount));
+    }
+
+    /**
+     * @return the number of instances transferred, or -1 if some chunk could not be fetched from any of the peers
+     */
+    int transfer() {
+        if (peers.isEmpty()) {
+            return -1;
+        }
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setNameFormat("Eureka-RegistryBootstrap-%d").setDaemon(true).build());
+        try {
+            List<Future<Integer>> results = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                final int chunk = i;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return transferChunk(chunk);
+                    }
+                }));
+            }
+            int count = 0;
+            boolean isComplete = true;
+            for (Future<Integer> result : results) {
+                int chunkInstances = result.get();
+                if (chunkInstances < 0) {
+                    isComplete = false;
+                } else {
+                    count += chunkInstances;
+                }
+            }
+            logger.info("Transferred {} instances in {} chunks from {} peers in {}ms{}", count, chunkCount, peers.size(),
+                    System.currentTimeMillis() - startTime, isComplete ? "" : "; some chunks are missing");
+            return isComplete ? count : -1;
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted during registry transfer..");
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            logger.error("Registry transfer failure", e);
+            return -1;
+        } finally {
+            executor.shutdownNow();
+            registry.completeBulkRegistration();
+        }
+    }
+
+    private int transferChunk(int chunk) {
+        for (int i = 0; i < peers.size(); i++) {
+            PeerEurekaNode peer = peers.get((chunk + i) % peers.size());
+            try {
+                EurekaHttpResponse<Applications> response = peer.getRegistryChunk(chunk, chunkCount);
+                if (response.getStatusCode() == 200 && response.getEntity() != null) {
+                    return load(response.getEntity());
+                }
+                logger.warn("Cannot fetch registry chunk {} from peer {}; HTTP status {}", chunk, peer.getServiceUrl(), response.getStatusCode());
+            } catch (Throwable e) {
+                logger.warn("Cannot fetch registry chunk {} from peer {}", chunk, peer.getServiceUrl(), e);
+            }
+        }
+        return -1;
+    }
+
+    private int load(Applications applications) {
+        int count = 0;
+        for (Application app : applications.getRegisteredApplications()) {
+            for (InstanceInfo instance : app.getInstances()) {
+                try {
+                    if (registry.isRegisterable(instance)) {
+                        registry.bulkRegister(instance, instance.getLeaseInfo().getDurationInSecs());
+                        count++;
+                    }
+                } catch (Throwable t) {
+                    logger.error("During DS init copy", t);
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.eureka.registry;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.shared.Applications;
+
+/**
+ * Saves the local registry to, and restores it from a snapshot file, so that a restarted server can serve the
+ * registry before it is reconciled with its peers.
+ *
+ * <p>
+ * A snapshot holds the local region applications, with their lease timestamps, the overridden instance statuses,
+ * and the version of the last registry change it includes. The file is gzip compressed, and replaced atomically,
+ * so that a server stopped while writing it still finds the previous snapshot.
+ * </p>
+ */
+class RegistrySnapshotStore {
+
+    private static final int MAGIC = 0x45524753;
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final CodecWrapper codec;
+
+    RegistrySnapshotStore(File file, CodecWrapper codec) {
+        this.file = file;
+        this.codec = codec;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * @param applications the local region applications, with the version of the last change they include
+     * @param overriddenStatuses the overridden instance statuses, by instance id
+     */
+    void write(Applications applications, Map<String, InstanceStatus> overriddenStatuses) throws IOException {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(tmpFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeLong(applications.getVersion());
+                out.writeInt(overriddenStatuses.size());
+                for (Map.Entry<String, InstanceStatus> entry : overriddenStatuses.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue().name());
+                }
+                // The codec may close the stream, so the applications go last
+                codec.encode(applications, out);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                tmpFile.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * @return the saved snapshot, or null if there is none
+     */
+    @Nullable
+    Snapshot read() throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported registry snapshot format in " + file);
+            }
+            long timestamp = in.readLong();
+            long version = in.readLong();
+            int overriddenStatusCount = in.readInt();
+            Map<String, InstanceStatus> overriddenStatuses = new HashMap<>(overriddenStatusCount);
+            for (int i = 0; i < overriddenStatusCount; i++) {
+                overriddenStatuses.put(in.readUTF(), InstanceStatus.toEnum(in.readUTF()));
+            }
+            Applications applications = codec.decode(in, Applications.class);
+            applications.setVersion(version);
+            return new Snapshot(timestamp, applications, overriddenStatuses);
+        }
+    }
+
+    static class Snapshot {
+        private final long timestamp;
+        private final Applications applications;
+        private final Map<String, InstanceStatus> overriddenStatuses;
+
+        Snapshot(long timestamp, Applications applications, Map<String, InstanceStatus> overriddenStatuses) {
+            this.timestamp = timestamp;
+            this.applications = applications;
+            this.overriddenStatuses = overriddenStatuses;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return the local region applications, with the version of the last change they include
+         */
+        Applications getApplications() {
+            return applications;
+        }
+
+        Map<String, InstanceStatus> getOverriddenStatuses() {
+            return overriddenStatuses;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.netflix.eureka.registry;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.ws.rs.core.MediaType;
 import java.net.InetAddress;
@@ -84,6 +85,7 @@ public class RemoteRegionRegistry implements LookupService<String> {
     private final AtomicReference<Applications> applicationsDelta = new AtomicReference<Applications>();
     private final EurekaServerConfig serverConfig;
     private volatile boolean readyForServingData;
+    private volatile Runnable updateListener;
     private final EurekaHttpClient eurekaHttpClient;
 
     @Inject
@@ -166,6 +168,10 @@ public class RemoteRegionRegistry implements LookupService<String> {
                 try {
                     if (fetchRegistry()) {
                         readyForServingData = true;
+                        Runnable listener = updateListener;
+                        if (listener != null) {
+                            listener.run();
+                        }
                     } else {
                         logger.warn("Failed to fetch remote registry. This means this eureka server is not "
                                 + "ready for serving traffic.");
@@ -199,6 +205,13 @@ public class RemoteRegionRegistry implements LookupService<String> {
                 serverConfig.getRemoteRegionRegistryFetchInterval(), TimeUnit.SECONDS);
     }
 
+    /**
+     * Set the callback run on the fetching thread after each successful periodic fetch of the remote registry.
+     */
+    public void setUpdateListener(@Nullable Runnable updateListener) {
+        this.updateListener = updateListener;
+    }
+
     /**
      * Check if this registry is ready for serving data.
      * @return true if ready, false otherwise.
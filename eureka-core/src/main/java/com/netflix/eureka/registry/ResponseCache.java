@@ -10,6 +10,17 @@ public interface ResponseCache {
 
     void invalidate(String appName, @Nullable String vipAddress, @Nullable String secureVipAddress);
 
+    /**
+     * Invalidate all cached payloads, for example after the registry has been loaded in bulk.
+     */
+    void invalidateAll();
+
+    /**
+     * Invalidate the cached deltas that include remote regions, after a remote region registry was fetched, so the
+     * fetched changes show up in them, and wake up the delta long polls waiting for them.
+     */
+    void invalidateRemoteRegionDeltas();
+
     AtomicLong getVersionDelta();
 
     AtomicLong getVersionDeltaWithRegions();
@@ -25,9 +36,20 @@ public interface ResponseCache {
      *
      * @param key the key for which the cached information needs to be obtained.
      * @return payload which contains information about the applications.
+     * @throws IllegalArgumentException if the key is for a binary payload, which is available from
+     *         {@link #getBytes(Key)} only
      */
      String get(Key key);
 
+    /**
+     * Get the cached information about applications as UTF-8 encoded bytes. The returned array is the cached
+     * value itself, so it can be written to a response without any conversion, but must not be modified.
+     *
+     * @param key the key for which the cached information needs to be obtained.
+     * @return UTF-8 encoded payload which contains information about the applications.
+     */
+    byte[] getBytes(Key key);
+
     /**
      * Get the compressed information about the applications.
      *
@@ -35,4 +57,40 @@ public interface ResponseCache {
      * @return compressed payload which contains information about the applications.
      */
     byte[] getGZIP(Key key);
+
+    /**
+     * Waits up to the given time for the delta payload of the given key to get newer than the given delta version,
+     * which is the version of the last delta seen by a client. Once it is newer, {@link #getBytes(Key)} and
+     * {@link #getGZIP(Key)} return the newer payload.
+     *
+     * @param key the key of a delta payload.
+     * @param lastSeenVersion the version of the last delta seen by the client.
+     * @param maxWaitMs the maximum time to wait in milliseconds.
+     * @return true if a newer delta payload is available, false if the wait time elapsed before.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    boolean waitForDeltaAfter(Key key, long lastSeenVersion, long maxWaitMs) throws InterruptedException;
+
+    /**
+     * Get the changes made after the given delta version, encoded as for the given delta key. These payloads are
+     * cached per version until the delta payloads are invalidated.
+     *
+     * @param key the key of a delta payload.
+     * @param sinceVersion the version of the last delta seen by the client.
+     * @return UTF-8 encoded payload of the changes, or null if the changes following the given version are no
+     *         longer recorded.
+     */
+    @Nullable
+    byte[] getDeltaSince(Key key, long sinceVersion);
+
+    /**
+     * Get the compressed changes made after the given delta version, as {@link #getDeltaSince(Key, long)} does.
+     *
+     * @param key the key of a delta payload.
+     * @param sinceVersion the version of the last delta seen by the client.
+     * @return compressed payload of the changes, or null if the changes following the given version are no
+     *         longer recorded.
+     */
+    @Nullable
+    byte[] getDeltaSinceGZIP(Key key, long sinceVersion);
 }
@@ -19,20 +19,37 @@ package com.netflix.eureka.registry;
 import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPOutputStream;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -40,8 +57,8 @@ import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.appinfo.EurekaAccept;
-import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.converters.wrappers.EncoderWrapper;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
@@ -68,7 +85,8 @@ import org.slf4j.LoggerFactory;
  * network traffic especially when querying all applications.
  *
  * The cache also maintains separate pay load for <em>JSON</em> and <em>XML</em>
- * formats and for multiple versions too.
+ * formats and for multiple versions too. Payloads are kept as UTF-8 encoded bytes only,
+ * so they can be written to responses as is.
  * </p>
  *
  * @author Karthik Ranganathan, Greg Kim
@@ -84,7 +102,10 @@ public class ResponseCacheImpl implements ResponseCache {
     private static final AtomicLong versionDeltaLegacy = new AtomicLong(0);
     private static final AtomicLong versionDeltaWithRegionsLegacy = new AtomicLong(0);
 
-    private static final String EMPTY_PAYLOAD = "";
+    private static final byte[] EMPTY_BYTES = new byte[0];
+    // Clients ask for the changes since one of the few latest delta versions, so only a few of these are cached
+    private static final int MAX_DELTA_SINCE_PAYLOADS = 1000;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
     private final java.util.Timer timer = new java.util.Timer("Eureka-CacheFillTimer", true);
     private final AtomicLong versionDelta = new AtomicLong(0);
     private final AtomicLong versionDeltaWithRegions = new AtomicLong(0);
@@ -93,9 +114,12 @@ public class ResponseCacheImpl implements ResponseCache {
     private final Timer serializeDeltaAppsTimer = Monitors.newTimer("serialize-all-delta");
     private final Timer serializeAllAppsWithRemoteRegionTimer = Monitors.newTimer("serialize-all_remote_region");
     private final Timer serializeDeltaAppsWithRemoteRegionTimer = Monitors.newTimer("serialize-all-delta_remote_region");
+    private final Timer serializeDeltaSinceTimer = Monitors.newTimer("serialize-delta-since");
     private final Timer serializeOneApptimer = Monitors.newTimer("serialize-one");
     private final Timer serializeViptimer = Monitors.newTimer("serialize-one-vip");
     private final Timer compressPayloadTimer = Monitors.newTimer("compress-payload");
+    private final Timer regenerateInvalidatedTimer = Monitors.newTimer("regenerate-invalidated");
+    private final Timer updateReadOnlyCacheTimer = Monitors.newTimer("update-read-only-cache");
 
     /**
      * This map holds mapping of keys without regions to a list of keys with region (provided by clients)
@@ -115,20 +139,89 @@ public class ResponseCacheImpl implements ResponseCache {
     private final ConcurrentMap<Key, Value> readOnlyCacheMap = new ConcurrentHashMap<Key, Value>();
 
     private final LoadingCache<Key, Value> readWriteCacheMap;
+    // Advanced when all payloads are invalidated, so a regeneration that overlapped with it does not store its payload
+    private final AtomicLong invalidateAllGeneration = new AtomicLong();
+    // Deltas since a client given version, dropped together with the delta payloads
+    private final Cache<DeltaSinceKey, Value> deltaSinceCacheMap;
+    private final AtomicLong deltaSinceGeneration = new AtomicLong();
     private final boolean shouldUseReadOnlyResponseCache;
     private final AbstractInstanceRegistry registry;
     private final EurekaServerConfig serverConfig;
     private final ServerCodecs serverCodecs;
+    private final IncrementalPayloadAssembler payloadAssembler;
+
+    // Delta long polls wait on this monitor until a newer delta is published. The deltas waited for are regenerated
+    // once per registry change on the publisher thread, not by each waiter, and are kept here with the version
+    // last published.
+    private final Object deltaChangeMonitor = new Object();
+    private long deltaPublishCount;
+    // Publications following a remote region registry fetch, which do not advance the delta version
+    private long remoteRegionPublishCount;
+    private final AtomicBoolean isRemoteRegionUpdatePending = new AtomicBoolean();
+    private final int maxDeltaLongPollRequests;
+    private final Semaphore deltaLongPollPermits;
+    private final ConcurrentMap<Key, Long> longPolledDeltaVersions = new ConcurrentHashMap<Key, Long>();
+    private final AtomicBoolean isDeltaPublishScheduled = new AtomicBoolean();
+    private final ExecutorService deltaPublishExecutor;
+
+    // Registry changes collected within the invalidation window, whose cached payloads are regenerated together
+    private final long invalidationWindowMs;
+    private final Set<String> invalidatedAppNames = newConcurrentSet();
+    private final Set<String> invalidatedVips = newConcurrentSet();
+    private final Set<String> invalidatedSecureVips = newConcurrentSet();
+    private final AtomicBoolean isRegenerationScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService regenerationExecutor;
+
+    // Read only cache requests per key, to regenerate the most requested payloads first and to drop cold ones
+    private final ConcurrentMap<Key, KeyStats> keyStats = new ConcurrentHashMap<Key, KeyStats>();
+    private final boolean shouldTrackKeyStats;
+    private final long coldKeyRetentionMs;
+    private final ExecutorService fillExecutor;
+
+    private final AtomicLong readOnlyCacheHits = new AtomicLong();
+    private final AtomicLong readOnlyCacheMisses = new AtomicLong();
+    private final AtomicLong coldKeyEvictions = new AtomicLong();
 
     ResponseCacheImpl(EurekaServerConfig serverConfig, ServerCodecs serverCodecs, AbstractInstanceRegistry registry) {
         this.serverConfig = serverConfig;
         this.serverCodecs = serverCodecs;
         this.shouldUseReadOnlyResponseCache = serverConfig.shouldUseReadOnlyResponseCache();
         this.registry = registry;
+        this.payloadAssembler = serverConfig.shouldUseIncrementalPayloadAssembly()
+                ? new IncrementalPayloadAssembler(serverConfig, serverCodecs, registry)
+                : null;
+        this.maxDeltaLongPollRequests = serverConfig.getMaxDeltaLongPollRequests();
+        this.deltaLongPollPermits = new Semaphore(maxDeltaLongPollRequests);
+        this.deltaPublishExecutor = maxDeltaLongPollRequests > 0
+                ? Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("Eureka-DeltaPublisher")
+                        .setDaemon(true)
+                        .build())
+                : null;
+        this.invalidationWindowMs = serverConfig.getResponseCacheInvalidationWindowMs();
+        this.regenerationExecutor = invalidationWindowMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("Eureka-CacheRegenerator")
+                        .setDaemon(true)
+                        .build())
+                : null;
+
+        int fillThreads = serverConfig.getResponseCacheFillThreads();
+        this.fillExecutor = shouldUseReadOnlyResponseCache && fillThreads > 1
+                ? Executors.newFixedThreadPool(fillThreads, new ThreadFactoryBuilder()
+                        .setNameFormat("Eureka-CacheFillWorker-%d")
+                        .setDaemon(true)
+                        .build())
+                : null;
+        this.coldKeyRetentionMs = shouldUseReadOnlyResponseCache
+                ? TimeUnit.SECONDS.toMillis(serverConfig.getResponseCacheColdKeyRetentionSeconds())
+                : 0;
+        this.shouldTrackKeyStats = fillExecutor != null || coldKeyRetentionMs > 0;
 
         long responseCacheUpdateIntervalMs = serverConfig.getResponseCacheUpdateIntervalMs();
         this.readWriteCacheMap =
                 CacheBuilder.newBuilder().initialCapacity(1000)
+                        .recordStats()
                         .expireAfterWrite(serverConfig.getResponseCacheAutoExpirationInSeconds(), TimeUnit.SECONDS)
                         .removalListener(new RemovalListener<Key, Value>() {
                             @Override
@@ -152,6 +245,11 @@ public class ResponseCacheImpl implements ResponseCache {
                             }
                         });
 
+        this.deltaSinceCacheMap = CacheBuilder.newBuilder()
+                .maximumSize(MAX_DELTA_SINCE_PAYLOADS)
+                .expireAfterWrite(serverConfig.getResponseCacheAutoExpirationInSeconds(), TimeUnit.SECONDS)
+                .build();
+
         if (shouldUseReadOnlyResponseCache) {
             timer.schedule(getCacheUpdateTask(),
                     new Date(((System.currentTimeMillis() / responseCacheUpdateIntervalMs) * responseCacheUpdateIntervalMs)
@@ -171,26 +269,139 @@ public class ResponseCacheImpl implements ResponseCache {
             @Override
             public void run() {
                 logger.debug("Updating the client cache from response cache");
-                for (Key key : readOnlyCacheMap.keySet()) {
-                    if (logger.isDebugEnabled()) {
-                        Object[] args = {key.getEntityType(), key.getName(), key.getVersion(), key.getType()};
-                        logger.debug("Updating the client cache from response cache for key : {} {} {} {}", args);
+                Stopwatch tracer = updateReadOnlyCacheTimer.start();
+                try {
+                    if (coldKeyRetentionMs > 0) {
+                        evictColdKeys(System.currentTimeMillis() - coldKeyRetentionMs);
                     }
-                    try {
-                        CurrentRequestVersion.set(key.getVersion());
-                        Value cacheValue = readWriteCacheMap.get(key);
-                        Value currentCacheValue = readOnlyCacheMap.get(key);
-                        if (cacheValue != currentCacheValue) {
-                            readOnlyCacheMap.put(key, cacheValue);
+                    if (fillExecutor == null) {
+                        for (Key key : readOnlyCacheMap.keySet()) {
+                            updateReadOnlyCache(key);
                         }
-                    } catch (Throwable th) {
-                        logger.error("Error while updating the client cache from response cache", th);
+                    } else {
+                        fillReadOnlyCache();
                     }
+                } finally {
+                    tracer.stop();
                 }
             }
         };
     }
 
+    /**
+     * Drops the payloads not requested since the given time from both caches, so they are neither kept nor
+     * regenerated anymore. A later request generates them again.
+     */
+    @VisibleForTesting
+    void evictColdKeys(long requestedSinceMs) {
+        for (Key key : readOnlyCacheMap.keySet()) {
+            KeyStats stats = keyStats.get(key);
+            if (stats == null) {
+                // Published without a tracked request, e.g. by a delta long poll, so its retention starts now
+                KeyStats newStats = new KeyStats();
+                newStats.lastRequestMs = System.currentTimeMillis();
+                keyStats.putIfAbsent(key, newStats);
+                continue;
+            }
+            if (stats.lastRequestMs >= requestedSinceMs) {
+                continue;
+            }
+            logger.debug("Evicting the cold response cache key : {}", key.toStringCompact());
+            readOnlyCacheMap.remove(key);
+            readWriteCacheMap.invalidate(key);
+            keyStats.remove(key);
+            coldKeyEvictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Copies the payloads that are still in the read-write cache right away, and regenerates the others on the
+     * fill threads, the most requested since the last update first. Waits until all of them are copied, so the
+     * next update does not start before this one is done.
+     */
+    @VisibleForTesting
+    void fillReadOnlyCache() {
+        final Map<Key, Long> requestCounts = new HashMap<Key, Long>();
+        List<Key> staleKeys = new ArrayList<Key>();
+        for (Key key : readOnlyCacheMap.keySet()) {
+            KeyStats stats = keyStats.get(key);
+            requestCounts.put(key, stats == null ? 0 : stats.requestsSinceUpdate.getAndSet(0));
+            if (readWriteCacheMap.getIfPresent(key) == null) {
+                staleKeys.add(key);
+            } else {
+                updateReadOnlyCache(key);
+            }
+        }
+        Collections.sort(staleKeys, new Comparator<Key>() {
+            @Override
+            public int compare(Key first, Key second) {
+                return Long.compare(requestCounts.get(second), requestCounts.get(first));
+            }
+        });
+
+        List<Future<?>> fills = new ArrayList<Future<?>>(staleKeys.size());
+        for (final Key key : staleKeys) {
+            fills.add(fillExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    updateReadOnlyCache(key);
+                }
+            }));
+        }
+        for (Future<?> fill : fills) {
+            try {
+                fill.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Error while updating the client cache from response cache", e.getCause());
+            }
+        }
+    }
+
+    private void updateReadOnlyCache(Key key) {
+        if (logger.isDebugEnabled()) {
+            Object[] args = {key.getEntityType(), key.getName(), key.getVersion(), key.getType()};
+            logger.debug("Updating the client cache from response cache for key : {} {} {} {}", args);
+        }
+        try {
+            CurrentRequestVersion.set(key.getVersion());
+            Value cacheValue = readWriteCacheMap.get(key);
+            Value currentCacheValue = readOnlyCacheMap.get(key);
+            if (cacheValue != currentCacheValue) {
+                readOnlyCacheMap.put(key, cacheValue);
+            }
+        } catch (Throwable th) {
+            logger.error("Error while updating the client cache from response cache", th);
+        }
+    }
+
+    private void countRequest(Key key) {
+        KeyStats stats = keyStats.get(key);
+        if (stats == null) {
+            KeyStats newStats = new KeyStats();
+            stats = keyStats.putIfAbsent(key, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        stats.requests.incrementAndGet();
+        stats.requestsSinceUpdate.incrementAndGet();
+        stats.lastRequestMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the number of read only cache requests for the given key since it was first requested, or since
+     * it was last dropped as cold.
+     *
+     * @return the number of requests, or 0 if requests are not tracked
+     */
+    public long getRequestCount(Key key) {
+        KeyStats stats = keyStats.get(key);
+        return stats == null ? 0 : stats.requests.get();
+    }
+
     /**
      * Get the cached information about applications.
      *
@@ -202,6 +413,8 @@ public class ResponseCacheImpl implements ResponseCache {
      *
      * @param key the key for which the cached information needs to be obtained.
      * @return payload which contains information about the applications.
+     * @throws IllegalArgumentException if the key is for a binary payload, which is available from
+     *         {@link #getBytes(Key)} only
      */
     public String get(final Key key) {
         return get(key, shouldUseReadOnlyResponseCache);
@@ -209,12 +422,29 @@ public class ResponseCacheImpl implements ResponseCache {
 
     @VisibleForTesting
     String get(final Key key, boolean useReadOnlyCache) {
+        if (key.getEurekaAccept() == EurekaAccept.binary) {
+            throw new IllegalArgumentException("Binary payloads have no text representation; requested for key " + key.toStringCompact());
+        }
         Value payload = getValue(key, useReadOnlyCache);
-        if (payload == null || payload.getPayload().equals(EMPTY_PAYLOAD)) {
+        if (payload == null || payload.isEmpty()) {
             return null;
-        } else {
-            return payload.getPayload();
         }
+        return payload.getPayload();
+    }
+
+    /**
+     * Get the cached information about applications as UTF-8 encoded bytes.
+     *
+     * @param key the key for which the cached information needs to be obtained.
+     * @return UTF-8 encoded payload which contains information about the applications.
+     */
+    @Override
+    public byte[] getBytes(final Key key) {
+        Value payload = getValue(key, shouldUseReadOnlyResponseCache);
+        if (payload == null || payload.isEmpty()) {
+            return null;
+        }
+        return payload.getBytes();
     }
 
     /**
@@ -237,10 +467,26 @@ public class ResponseCacheImpl implements ResponseCache {
     /**
      * Invalidate the cache of a particular application.
      *
+     * <p>
+     * If {@link EurekaServerConfig#getResponseCacheInvalidationWindowMs()} is set, the change is only recorded,
+     * and the cached payloads it affects are regenerated at the end of the window, together with those of the
+     * other changes within it. Until then, the previous payloads are served.
+     * </p>
+     *
      * @param appName the application name of the application.
      */
     @Override
     public void invalidate(String appName, @Nullable String vipAddress, @Nullable String secureVipAddress) {
+        if (payloadAssembler != null) {
+            payloadAssembler.invalidate(appName);
+        }
+        if (regenerationExecutor != null) {
+            invalidatedAppNames.add(appName);
+            addVipAddresses(invalidatedVips, vipAddress);
+            addVipAddresses(invalidatedSecureVips, secureVipAddress);
+            scheduleRegeneration();
+            return;
+        }
         for (Key.KeyType type : Key.KeyType.values()) {
             for (Version v : Version.values()) {
                 invalidate(
@@ -251,16 +497,202 @@ public class ResponseCacheImpl implements ResponseCache {
                         new Key(Key.EntityType.Application, ALL_APPS_DELTA, type, v, EurekaAccept.full),
                         new Key(Key.EntityType.Application, ALL_APPS_DELTA, type, v, EurekaAccept.compact)
                 );
-                if (null != vipAddress) {
-                    invalidate(new Key(Key.EntityType.VIP, vipAddress, type, v, EurekaAccept.full));
+                invalidate(
+                        new Key(Key.EntityType.Application, appName, type, v, EurekaAccept.binary),
+                        new Key(Key.EntityType.Application, ALL_APPS, type, v, EurekaAccept.binary),
+                        new Key(Key.EntityType.Application, ALL_APPS_DELTA, type, v, EurekaAccept.binary)
+                );
+                for (EurekaAccept eurekaAccept : EurekaAccept.values()) {
+                    if (null != vipAddress) {
+                        invalidate(new Key(Key.EntityType.VIP, vipAddress, type, v, eurekaAccept));
+                    }
+                    if (null != secureVipAddress) {
+                        invalidate(new Key(Key.EntityType.SVIP, secureVipAddress, type, v, eurekaAccept));
+                    }
+                }
+            }
+        }
+        scheduleDeltaPublish();
+    }
+
+    @Override
+    public void invalidateAll() {
+        if (payloadAssembler != null) {
+            payloadAssembler.invalidateAll();
+        }
+        invalidateAllGeneration.incrementAndGet();
+        readWriteCacheMap.invalidateAll();
+        invalidateDeltasSince();
+        scheduleDeltaPublish();
+    }
+
+    @Override
+    public void invalidateRemoteRegionDeltas() {
+        for (Key key : readWriteCacheMap.asMap().keySet()) {
+            if (key.hasRegions() && ALL_APPS_DELTA.equals(key.getName())) {
+                readWriteCacheMap.invalidate(key);
+            }
+        }
+        invalidateDeltasSince();
+        if (deltaLongPollPermits.availablePermits() != maxDeltaLongPollRequests) {
+            isRemoteRegionUpdatePending.set(true);
+            scheduleDeltaPublish();
+        }
+    }
+
+    /**
+     * Schedules the regeneration of the deltas that long polls wait for, if there are any waiting. Changes
+     * recorded while a regeneration is pending are covered by it.
+     */
+    private void scheduleDeltaPublish() {
+        if (deltaPublishExecutor == null || deltaLongPollPermits.availablePermits() == maxDeltaLongPollRequests) {
+            return;
+        }
+        if (isDeltaPublishScheduled.compareAndSet(false, true)) {
+            deltaPublishExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // Changes recorded from now on need another regeneration
+                    isDeltaPublishScheduled.set(false);
+                    publishLongPolledDeltas();
+                }
+            });
+        }
+    }
+
+    /**
+     * Regenerates the deltas that long polls wait for, publishes them to the read only cache, and wakes up the
+     * waiting requests if the delta version advanced, or if the deltas include remote regions whose registry
+     * was fetched since the last publication.
+     */
+    @VisibleForTesting
+    void publishLongPolledDeltas() {
+        boolean isRemoteRegionUpdate = isRemoteRegionUpdatePending.getAndSet(false);
+        boolean isAdvanced = false;
+        for (Map.Entry<Key, Long> entry : longPolledDeltaVersions.entrySet()) {
+            Key key = entry.getKey();
+            try {
+                CurrentRequestVersion.set(key.getVersion());
+                Value payload = readWriteCacheMap.get(key);
+                if (payload.getDeltaVersion() > entry.getValue() || (isRemoteRegionUpdate && key.hasRegions())) {
+                    if (shouldUseReadOnlyResponseCache) {
+                        publishNewerDelta(key, payload);
+                    }
+                    entry.setValue(payload.getDeltaVersion());
+                    isAdvanced = true;
                 }
-                if (null != secureVipAddress) {
-                    invalidate(new Key(Key.EntityType.SVIP, secureVipAddress, type, v, EurekaAccept.full));
+            } catch (Throwable th) {
+                logger.error("Error while regenerating the long polled delta {}", key.toStringCompact(), th);
+            }
+        }
+        if (isAdvanced) {
+            synchronized (deltaChangeMonitor) {
+                deltaPublishCount++;
+                if (isRemoteRegionUpdate) {
+                    remoteRegionPublishCount++;
+                }
+                deltaChangeMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void scheduleRegeneration() {
+        if (isRegenerationScheduled.compareAndSet(false, true)) {
+            regenerationExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    // Changes recorded from now on need another regeneration
+                    isRegenerationScheduled.set(false);
+                    regenerateInvalidated();
                 }
+            }, invalidationWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Regenerates the cached payloads affected by the changes recorded since the last regeneration. Each payload
+     * is generated once, however many changes affected it, and replaces the previous one in a single put, so
+     * readers get either of them without waiting for the generation. Payloads that are not cached are left to
+     * be generated on request. A payload generated while all payloads got invalidated is dropped, as it may
+     * predate the change that caused the invalidation.
+     */
+    @VisibleForTesting
+    void regenerateInvalidated() {
+        Set<String> appNames = drain(invalidatedAppNames);
+        Set<String> vips = drain(invalidatedVips);
+        Set<String> secureVips = drain(invalidatedSecureVips);
+        if (appNames.isEmpty() && vips.isEmpty() && secureVips.isEmpty()) {
+            return;
+        }
+        Stopwatch tracer = regenerateInvalidatedTimer.start();
+        try {
+            for (Key key : new ArrayList<Key>(readWriteCacheMap.asMap().keySet())) {
+                if (!isAffected(key, appNames, vips, secureVips)) {
+                    continue;
+                }
+                logger.debug("Regenerating the response cache key : {}", key.toStringCompact());
+                try {
+                    CurrentRequestVersion.set(key.getVersion());
+                    long generation = invalidateAllGeneration.get();
+                    Value payload = generatePayload(key);
+                    if (invalidateAllGeneration.get() != generation) {
+                        logger.debug("Dropping the regenerated response cache key {} invalidated meanwhile", key.toStringCompact());
+                        continue;
+                    }
+                    readWriteCacheMap.put(key, payload);
+                    // The invalidation may also have happened between the check and the put
+                    if (invalidateAllGeneration.get() != generation) {
+                        readWriteCacheMap.asMap().remove(key, payload);
+                    }
+                    if (ALL_APPS_DELTA.equals(key.getName())) {
+                        invalidateDeltasSince();
+                    }
+                } catch (Throwable th) {
+                    logger.error("Error while regenerating the response cache key {}", key.toStringCompact(), th);
+                }
+            }
+        } finally {
+            tracer.stop();
+        }
+        scheduleDeltaPublish();
+    }
+
+    private static boolean isAffected(Key key, Set<String> appNames, Set<String> vips, Set<String> secureVips) {
+        switch (key.getEntityType()) {
+            case Application:
+                // Any change shows up in the full registry and in the delta
+                return !appNames.isEmpty() && (ALL_APPS.equals(key.getName())
+                        || ALL_APPS_DELTA.equals(key.getName()) || appNames.contains(key.getName()));
+            case VIP:
+                return vips.contains(key.getName());
+            case SVIP:
+                return secureVips.contains(key.getName());
+            default:
+                return false;
+        }
+    }
+
+    private static void addVipAddresses(Set<String> invalidated, @Nullable String vipAddresses) {
+        if (vipAddresses != null) {
+            for (String vipAddress : vipAddresses.split(",")) {
+                invalidated.add(vipAddress.trim());
             }
         }
     }
 
+    private static Set<String> drain(Set<String> invalidated) {
+        Set<String> drained = new HashSet<String>();
+        for (Iterator<String> it = invalidated.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static Set<String> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+
     /**
      * Invalidate the cache information given the list of keys.
      *
@@ -272,6 +704,9 @@ public class ResponseCacheImpl implements ResponseCache {
                     key.getEntityType(), key.getName(), key.getVersion(), key.getType(), key.getEurekaAccept());
 
             readWriteCacheMap.invalidate(key);
+            if (ALL_APPS_DELTA.equals(key.getName())) {
+                invalidateDeltasSince();
+            }
             Collection<Key> keysWithRegions = regionSpecificKeys.get(key);
             if (null != keysWithRegions && !keysWithRegions.isEmpty()) {
                 for (Key keysWithRegion : keysWithRegions) {
@@ -327,6 +762,125 @@ public class ResponseCacheImpl implements ResponseCache {
         return versionDeltaWithRegionsLegacy;
     }
 
+    /**
+     * Waits for the delta payload of the given key to get newer than the given delta version, for at most the
+     * given time, or not at all if {@link EurekaServerConfig#getMaxDeltaLongPollRequests()} requests are already
+     * waiting. While requests wait, the deltas they wait for are regenerated once after each registry change and
+     * published to the read only cache. The waiting requests are woken up only when the delta version advances,
+     * and read the published payload without regenerating it. Remote region changes do not advance the delta
+     * version, so a delta that includes remote regions is also returned once it is published after a remote
+     * region registry fetch, even if that fetch brought no changes.
+     *
+     * <p>
+     * Jersey 1 on servlet 2.5 has no asynchronous responses, so a waiting request keeps its container thread for
+     * the whole wait, which is why their number is capped by {@link EurekaServerConfig#getMaxDeltaLongPollRequests()}.
+     * </p>
+     *
+     * @return true if a newer delta payload is available
+     */
+    @Override
+    public boolean waitForDeltaAfter(Key key, long lastSeenVersion, long maxWaitMs) throws InterruptedException {
+        if (maxWaitMs <= 0 || !deltaLongPollPermits.tryAcquire()) {
+            return isDeltaAfter(getValue(key, shouldUseReadOnlyResponseCache), lastSeenVersion);
+        }
+        try {
+            if (longPolledDeltaVersions.putIfAbsent(key, 0L) == null) {
+                // Covers the changes made before the key was added
+                scheduleDeltaPublish();
+            }
+            long deadline = System.currentTimeMillis() + maxWaitMs;
+            long observedPublishCount;
+            long initialRemoteRegionPublishCount;
+            synchronized (deltaChangeMonitor) {
+                observedPublishCount = deltaPublishCount;
+                initialRemoteRegionPublishCount = remoteRegionPublishCount;
+            }
+            // Served like any other request at first, so the payload is in the cache from then on
+            Value payload = getValue(key, shouldUseReadOnlyResponseCache);
+            while (!isDeltaAfter(payload, lastSeenVersion)) {
+                long remainingMs = deadline - System.currentTimeMillis();
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                boolean isRemoteRegionUpdated;
+                synchronized (deltaChangeMonitor) {
+                    if (deltaPublishCount == observedPublishCount) {
+                        deltaChangeMonitor.wait(remainingMs);
+                    }
+                    observedPublishCount = deltaPublishCount;
+                    isRemoteRegionUpdated = remoteRegionPublishCount != initialRemoteRegionPublishCount;
+                }
+                if (isRemoteRegionUpdated && key.hasRegions()) {
+                    return true;
+                }
+                payload = shouldUseReadOnlyResponseCache ? readOnlyCacheMap.get(key) : readWriteCacheMap.getIfPresent(key);
+            }
+            return true;
+        } finally {
+            deltaLongPollPermits.release();
+        }
+    }
+
+    @Override
+    public byte[] getDeltaSince(Key key, long sinceVersion) {
+        Value payload = getDeltaSinceValue(key, sinceVersion);
+        return payload == null || payload.isEmpty() ? null : payload.getBytes();
+    }
+
+    @Override
+    public byte[] getDeltaSinceGZIP(Key key, long sinceVersion) {
+        Value payload = getDeltaSinceValue(key, sinceVersion);
+        return payload == null || payload.isEmpty() ? null : payload.getGzipped();
+    }
+
+    /**
+     * Gets the cached changes since the given version, or generates them. An empty payload stands for changes that
+     * are no longer recorded. A payload generated while the delta payloads got invalidated is served, but not kept,
+     * as it may miss the latest changes.
+     */
+    private Value getDeltaSinceValue(final Key key, final long sinceVersion) {
+        DeltaSinceKey deltaSinceKey = new DeltaSinceKey(key, sinceVersion);
+        long generation = deltaSinceGeneration.get();
+        try {
+            Value payload = deltaSinceCacheMap.get(deltaSinceKey, new Callable<Value>() {
+                @Override
+                public Value call() {
+                    Stopwatch tracer = serializeDeltaSinceTimer.start();
+                    try {
+                        Applications deltas = registry.getApplicationDeltasSince(sinceVersion, key.getRegions());
+                        return new Value(deltas == null ? EMPTY_BYTES : getPayLoad(key, deltas));
+                    } finally {
+                        tracer.stop();
+                    }
+                }
+            });
+            if (deltaSinceGeneration.get() != generation) {
+                deltaSinceCacheMap.asMap().remove(deltaSinceKey, payload);
+            }
+            return payload;
+        } catch (Throwable t) {
+            logger.error("Cannot get the delta since version {} for key : {}", sinceVersion, key.toStringCompact(), t);
+            return null;
+        }
+    }
+
+    private void invalidateDeltasSince() {
+        deltaSinceGeneration.incrementAndGet();
+        deltaSinceCacheMap.invalidateAll();
+    }
+
+    private static boolean isDeltaAfter(Value payload, long lastSeenVersion) {
+        return payload != null && payload.getDeltaVersion() > lastSeenVersion;
+    }
+
+    private void publishNewerDelta(Key key, Value payload) {
+        Value current = readOnlyCacheMap.putIfAbsent(key, payload);
+        while (current != null && current.getDeltaVersion() < payload.getDeltaVersion()
+                && !readOnlyCacheMap.replace(key, current, payload)) {
+            current = readOnlyCacheMap.get(key);
+        }
+    }
+
     /**
      * Get the number of items in the response cache.
      *
@@ -337,6 +891,44 @@ public class ResponseCacheImpl implements ResponseCache {
         return readWriteCacheMap.asMap().size();
     }
 
+    @Monitor(name = "responseCacheReadOnlySize", type = DataSourceType.GAUGE)
+    public int getReadOnlySize() {
+        return readOnlyCacheMap.size();
+    }
+
+    @Monitor(name = "responseCacheReadOnlyHits", type = DataSourceType.COUNTER)
+    public long getReadOnlyHitCount() {
+        return readOnlyCacheHits.get();
+    }
+
+    @Monitor(name = "responseCacheReadOnlyMisses", type = DataSourceType.COUNTER)
+    public long getReadOnlyMissCount() {
+        return readOnlyCacheMisses.get();
+    }
+
+    @Monitor(name = "responseCacheHits", type = DataSourceType.COUNTER)
+    public long getHitCount() {
+        return readWriteCacheMap.stats().hitCount();
+    }
+
+    @Monitor(name = "responseCacheMisses", type = DataSourceType.COUNTER)
+    public long getMissCount() {
+        return readWriteCacheMap.stats().missCount();
+    }
+
+    /**
+     * @return the average time spent generating a payload on a read-write cache miss, in milliseconds
+     */
+    @Monitor(name = "responseCacheAverageGenerationTimeMs", type = DataSourceType.GAUGE)
+    public double getAverageGenerationTimeMs() {
+        return readWriteCacheMap.stats().averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Monitor(name = "responseCacheColdKeyEvictions", type = DataSourceType.COUNTER)
+    public long getColdKeyEvictionCount() {
+        return coldKeyEvictions.get();
+    }
+
     /**
      * Get the payload in both compressed and uncompressed form.
      */
@@ -345,10 +937,15 @@ public class ResponseCacheImpl implements ResponseCache {
         Value payload = null;
         try {
             if (useReadOnlyCache) {
+                if (shouldTrackKeyStats) {
+                    countRequest(key);
+                }
                 final Value currentPayload = readOnlyCacheMap.get(key);
                 if (currentPayload != null) {
+                    readOnlyCacheHits.incrementAndGet();
                     payload = currentPayload;
                 } else {
+                    readOnlyCacheMisses.incrementAndGet();
                     payload = readWriteCacheMap.get(key);
                     readOnlyCacheMap.put(key, payload);
                 }
@@ -364,14 +961,13 @@ public class ResponseCacheImpl implements ResponseCache {
     /**
      * Generate pay load with both JSON and XML formats for all applications.
      */
-    private String getPayLoad(Key key, Applications apps) {
-        EncoderWrapper encoderWrapper = serverCodecs.getEncoder(key.getType(), key.getEurekaAccept());
-        String result;
+    private byte[] getPayLoad(Key key, Applications apps) {
+        byte[] result;
         try {
-            result = encoderWrapper.encode(apps);
+            result = encode(key, apps);
         } catch (Exception e) {
             logger.error("Failed to encode the payload for all apps", e);
-            return "";
+            return EMPTY_BYTES;
         }
         if(logger.isDebugEnabled()) {
             logger.debug("New application cache entry {} with apps hashcode {}", key.toStringCompact(), apps.getAppsHashCode());
@@ -379,30 +975,56 @@ public class ResponseCacheImpl implements ResponseCache {
         return result;
     }
 
+    /**
+     * Generate pay load for all applications from the cached application fragments.
+     */
+    private byte[] getAssembledPayLoad(Key key) {
+        try {
+            return payloadAssembler.assemble(key).getBytes(UTF_8);
+        } catch (Exception e) {
+            logger.error("Failed to assemble the payload for all apps", e);
+            return EMPTY_BYTES;
+        }
+    }
+
     /**
      * Generate pay load with both JSON and XML formats for a given application.
      */
-    private String getPayLoad(Key key, Application app) {
+    private byte[] getPayLoad(Key key, Application app) {
         if (app == null) {
-            return EMPTY_PAYLOAD;
+            return EMPTY_BYTES;
         }
 
-        EncoderWrapper encoderWrapper = serverCodecs.getEncoder(key.getType(), key.getEurekaAccept());
         try {
-            return encoderWrapper.encode(app);
+            return encode(key, app);
         } catch (Exception e) {
             logger.error("Failed to encode the payload for application {}", app.getName(), e);
-            return "";
+            return EMPTY_BYTES;
         }
     }
 
+    /**
+     * Binary payloads are written straight to bytes, as they have no text representation; text formats
+     * are stored UTF-8 encoded.
+     */
+    private byte[] encode(Key key, Object entity) throws IOException {
+        EncoderWrapper encoderWrapper = serverCodecs.getEncoder(key.getType(), key.getEurekaAccept());
+        if (key.getEurekaAccept() == EurekaAccept.binary) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            encoderWrapper.encode(entity, bos);
+            return bos.toByteArray();
+        }
+        return encoderWrapper.encode(entity).getBytes(UTF_8);
+    }
+
     /*
      * Generate pay load for the given key.
      */
     private Value generatePayload(Key key) {
         Stopwatch tracer = null;
         try {
-            String payload;
+            byte[] payload;
+            long deltaVersion = 0;
             switch (key.getEntityType()) {
                 case Application:
                     boolean isRemoteRegionRequested = key.hasRegions();
@@ -413,20 +1035,27 @@ public class ResponseCacheImpl implements ResponseCache {
                             payload = getPayLoad(key, registry.getApplicationsFromMultipleRegions(key.getRegions()));
                         } else {
                             tracer = serializeAllAppsTimer.start();
-                            payload = getPayLoad(key, registry.getApplications());
+                            if (payloadAssembler != null && payloadAssembler.isSupported(key)) {
+                                payload = getAssembledPayLoad(key);
+                            } else {
+                                payload = getPayLoad(key, registry.getApplications());
+                            }
                         }
                     } else if (ALL_APPS_DELTA.equals(key.getName())) {
                         if (isRemoteRegionRequested) {
                             tracer = serializeDeltaAppsWithRemoteRegionTimer.start();
                             versionDeltaWithRegions.incrementAndGet();
                             versionDeltaWithRegionsLegacy.incrementAndGet();
-                            payload = getPayLoad(key,
-                                    registry.getApplicationDeltasFromMultipleRegions(key.getRegions()));
+                            Applications deltas = registry.getApplicationDeltasFromMultipleRegions(key.getRegions());
+                            deltaVersion = deltas.getVersion();
+                            payload = getPayLoad(key, deltas);
                         } else {
                             tracer = serializeDeltaAppsTimer.start();
                             versionDelta.incrementAndGet();
                             versionDeltaLegacy.incrementAndGet();
-                            payload = getPayLoad(key, registry.getApplicationDeltas());
+                            Applications deltas = registry.getApplicationDeltas();
+                            deltaVersion = deltas.getVersion();
+                            payload = getPayLoad(key, deltas);
                         }
                     } else {
                         tracer = serializeOneApptimer.start();
@@ -440,10 +1069,10 @@ public class ResponseCacheImpl implements ResponseCache {
                     break;
                 default:
                     logger.error("Unidentified entity type: " + key.getEntityType() + " found in the cache key.");
-                    payload = "";
+                    payload = EMPTY_BYTES;
                     break;
             }
-            return new Value(payload);
+            return new Value(payload, deltaVersion);
         } finally {
             if (tracer != null) {
                 tracer.stop();
@@ -456,60 +1085,77 @@ public class ResponseCacheImpl implements ResponseCache {
         logger.debug(
                 "Retrieving applications from registry for key : {} {} {} {}",
                 args);
-        Applications toReturn = new Applications();
-        Applications applications = registry.getApplications();
-        for (Application application : applications.getRegisteredApplications()) {
-            Application appToAdd = null;
-            for (InstanceInfo instanceInfo : application.getInstances()) {
-                String vipAddress;
-                if (Key.EntityType.VIP.equals(key.getEntityType())) {
-                    vipAddress = instanceInfo.getVIPAddress();
-                } else if (Key.EntityType.SVIP.equals(key.getEntityType())) {
-                    vipAddress = instanceInfo.getSecureVipAddress();
-                } else {
-                    // should not happen, but just in case.
-                    continue;
-                }
-
-                if (null != vipAddress) {
-                    String[] vipAddresses = vipAddress.split(",");
-                    Arrays.sort(vipAddresses);
-                    if (Arrays.binarySearch(vipAddresses, key.getName()) >= 0) {
-                        if (null == appToAdd) {
-                            appToAdd = new Application(application.getName());
-                            toReturn.addApplication(appToAdd);
-                        }
-                        appToAdd.addInstance(instanceInfo);
-                    }
-                }
-            }
-        }
-        toReturn.setAppsHashCode(toReturn.getReconcileHashCode());
+        Applications toReturn = registry.getApplicationsForVip(key.getName(), Key.EntityType.SVIP.equals(key.getEntityType()));
         args = new Object[]{key.getEntityType(), key.getName(), key.getVersion(), key.getType(),
-                toReturn.getReconcileHashCode()};
+                toReturn.getAppsHashCode()};
         logger.debug(
                 "Retrieved applications from registry for key : {} {} {} {}, reconcile hashcode: {}",
                 args);
         return toReturn;
     }
 
+    private static final class DeltaSinceKey {
+        private final Key key;
+        private final long sinceVersion;
+
+        DeltaSinceKey(Key key, long sinceVersion) {
+            this.key = key;
+            this.sinceVersion = sinceVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DeltaSinceKey)) {
+                return false;
+            }
+            DeltaSinceKey that = (DeltaSinceKey) o;
+            return sinceVersion == that.sinceVersion && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + (int) (sinceVersion ^ (sinceVersion >>> 32));
+        }
+    }
+
+    private static class KeyStats {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong requestsSinceUpdate = new AtomicLong();
+        volatile long lastRequestMs;
+    }
+
     /**
      * The class that stores payload in both compressed and uncompressed form.
-     *
+     * The uncompressed payload is kept as UTF-8 encoded bytes, which take half the memory of
+     * the corresponding {@link String} for the mostly ASCII registry content.
      */
     public class Value {
-        private final String payload;
+        private final byte[] payload;
+        private final long deltaVersion;
         private byte[] gzipped;
+        private volatile String decodedPayload;
 
         public Value(String payload) {
+            this(payload.getBytes(UTF_8));
+            this.decodedPayload = payload;
+        }
+
+        public Value(byte[] payload) {
+            this(payload, 0);
+        }
+
+        public Value(byte[] payload, long deltaVersion) {
             this.payload = payload;
-            if (!EMPTY_PAYLOAD.equals(payload)) {
+            this.deltaVersion = deltaVersion;
+            if (payload.length > 0) {
                 Stopwatch tracer = compressPayloadTimer.start();
                 try {
                     ByteArrayOutputStream bos = new ByteArrayOutputStream();
                     GZIPOutputStream out = new GZIPOutputStream(bos);
-                    byte[] rawBytes = payload.getBytes();
-                    out.write(rawBytes);
+                    out.write(payload);
                     // Finish creation of gzip file
                     out.finish();
                     out.close();
@@ -527,7 +1173,25 @@ public class ResponseCacheImpl implements ResponseCache {
             }
         }
 
+        public boolean isEmpty() {
+            return payload.length == 0;
+        }
+
+        /**
+         * @return the payload decoded from its UTF-8 representation, which is decoded once on first use;
+         *         prefer {@link #getBytes()} for writing it out
+         */
         public String getPayload() {
+            String decoded = decodedPayload;
+            if (decoded == null) {
+                // Racing callers may each decode it, which is harmless as the payload never changes
+                decoded = new String(payload, UTF_8);
+                decodedPayload = decoded;
+            }
+            return decoded;
+        }
+
+        public byte[] getBytes() {
             return payload;
         }
 
@@ -535,6 +1199,13 @@ public class ResponseCacheImpl implements ResponseCache {
             return gzipped;
         }
 
+        /**
+         * @return the version of the delta payload, or 0 for other payloads
+         */
+        public long getDeltaVersion() {
+            return deltaVersion;
+        }
+
     }
 
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.eureka.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.eureka.lease.Lease;
+
+/**
+ * Index of local region {@link Lease}s by the vip and secure vip addresses of their instances, so that a vip
+ * payload is built from the matching instances only, instead of a scan of the whole registry.
+ *
+ * <p>
+ * An instance with a comma separated list of vip addresses is filed under each of them, and vip addresses
+ * are matched exactly, as they always were for vip payloads. The registry adds a lease after it is put in the
+ * registry, and removes it after it is replaced or cancelled. As registrations of the same instance are not
+ * serialized, a replaced lease can occasionally be left behind, so callers must check that the returned leases
+ * are still registered, and drop the ones that are not with {@link #remove(Lease)}. The lease set of a vip address
+ * is dropped once it gets empty, so that vip addresses no longer in use do not accumulate.
+ * </p>
+ */
+class VipLeaseIndex {
+
+    private final ConcurrentMap<String, Set<Lease<InstanceInfo>>> vipLeases =
+            new ConcurrentHashMap<String, Set<Lease<InstanceInfo>>>();
+    private final ConcurrentMap<String, Set<Lease<InstanceInfo>>> secureVipLeases =
+            new ConcurrentHashMap<String, Set<Lease<InstanceInfo>>>();
+
+    void add(Lease<InstanceInfo> lease) {
+        InstanceInfo instance = lease.getHolder();
+        if (instance != null) {
+            add(vipLeases, instance.getVIPAddress(), lease);
+            add(secureVipLeases, instance.getSecureVipAddress(), lease);
+        }
+    }
+
+    void remove(Lease<InstanceInfo> lease) {
+        InstanceInfo instance = lease.getHolder();
+        if (instance != null) {
+            remove(vipLeases, instance.getVIPAddress(), lease);
+            remove(secureVipLeases, instance.getSecureVipAddress(), lease);
+        }
+    }
+
+    /**
+     * Returns the leases filed under the given vip or secure vip address, some of which may no longer be
+     * registered.
+     */
+    List<Lease<InstanceInfo>> getLeases(String vipAddress, boolean secure) {
+        Set<Lease<InstanceInfo>> leases = (secure ? secureVipLeases : vipLeases).get(vipAddress);
+        if (leases == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<Lease<InstanceInfo>>(leases);
+    }
+
+    @VisibleForTesting
+    int vipAddressCount() {
+        return vipLeases.size() + secureVipLeases.size();
+    }
+
+    void clear() {
+        vipLeases.clear();
+        secureVipLeases.clear();
+    }
+
+    private static void add(ConcurrentMap<String, Set<Lease<InstanceInfo>>> index, String vipAddresses,
+                            Lease<InstanceInfo> lease) {
+        if (vipAddresses == null) {
+            return;
+        }
+        for (String vipAddress : vipAddresses.split(",")) {
+            fileLease(index, vipAddress, lease);
+        }
+    }
+
+    private static void remove(ConcurrentMap<String, Set<Lease<InstanceInfo>>> index, String vipAddresses,
+                               Lease<InstanceInfo> lease) {
+        if (vipAddresses == null) {
+            return;
+        }
+        for (String vipAddress : vipAddresses.split(",")) {
+            Set<Lease<InstanceInfo>> leases = index.get(vipAddress);
+            if (leases != null) {
+                leases.remove(lease);
+                if (leases.isEmpty() && index.remove(vipAddress, leases)) {
+                    // Leases added concurrently to the set just dropped are filed again
+                    for (Lease<InstanceInfo> addedLease : leases) {
+                        fileLease(index, vipAddress, addedLease);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void fileLease(ConcurrentMap<String, Set<Lease<InstanceInfo>>> index, String vipAddress,
+                                  Lease<InstanceInfo> lease) {
+        while (true) {
+            Set<Lease<InstanceInfo>> leases = index.get(vipAddress);
+            if (leases == null) {
+                Set<Lease<InstanceInfo>> newLeases =
+                        Collections.newSetFromMap(new ConcurrentHashMap<Lease<InstanceInfo>, Boolean>());
+                leases = index.putIfAbsent(vipAddress, newLeases);
+                if (leases == null) {
+                    leases = newLeases;
+                }
+            }
+            leases.add(lease);
+            // Retry, if the set was dropped as empty by a concurrent removal in the meantime
+            if (index.get(vipAddress) == leases) {
+                return;
+            }
+        }
+    }
+}
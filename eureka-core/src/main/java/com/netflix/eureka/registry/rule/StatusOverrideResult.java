@@ -12,8 +12,22 @@ public class StatusOverrideResult {
 
     public static StatusOverrideResult NO_MATCH = new StatusOverrideResult(false, null);
 
+    // Results are immutable, so one instance per status is shared, keeping rule evaluation on each renewal garbage free
+    private static final StatusOverrideResult[] MATCHING_STATUS_RESULTS;
+
+    static {
+        InstanceInfo.InstanceStatus[] statuses = InstanceInfo.InstanceStatus.values();
+        MATCHING_STATUS_RESULTS = new StatusOverrideResult[statuses.length];
+        for (InstanceInfo.InstanceStatus status : statuses) {
+            MATCHING_STATUS_RESULTS[status.ordinal()] = new StatusOverrideResult(true, status);
+        }
+    }
+
     public static StatusOverrideResult matchingStatus(InstanceInfo.InstanceStatus status) {
-        return new StatusOverrideResult(true, status);
+        if (status == null) {
+            return new StatusOverrideResult(true, null);
+        }
+        return MATCHING_STATUS_RESULTS[status.ordinal()];
     }
 
     // Does the rule match?
@@ -16,9 +16,11 @@
 
 package com.netflix.eureka.resources;
 
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import com.netflix.appinfo.EurekaAccept;
+import com.netflix.discovery.converters.EurekaBinaryCodec;
 import com.netflix.eureka.EurekaServerContext;
 import com.netflix.eureka.EurekaServerContextHolder;
 import com.netflix.eureka.Version;
@@ -49,7 +51,7 @@ abstract class AbstractVIPResource {
         this(EurekaServerContextHolder.getInstance().getServerContext());
     }
 
-    protected Response getVipResponse(String version, String entityName, String acceptHeader,
+    protected Response getVipResponse(String version, String entityName, String acceptHeader, String acceptEncoding,
                                       EurekaAccept eurekaAccept, Key.EntityType entityType) {
         if (!registry.shouldAllowAccess(false)) {
             return Response.status(Response.Status.FORBIDDEN).build();
@@ -68,14 +70,36 @@ abstract class AbstractVIPResource {
                 eurekaAccept
         );
 
-        String payLoad = responseCache.get(cacheKey);
+        if (acceptEncoding != null && acceptEncoding.contains(ApplicationsResource.HEADER_GZIP_VALUE)) {
+            // Served as cached, so the response is not compressed again on each request
+            byte[] gzippedPayLoad = responseCache.getGZIP(cacheKey);
+            if (gzippedPayLoad != null) {
+                logger.debug("Found: {}", entityName);
+                return Response.ok(gzippedPayLoad)
+                        .header(ApplicationsResource.HEADER_CONTENT_ENCODING, ApplicationsResource.HEADER_GZIP_VALUE)
+                        .header(ApplicationsResource.HEADER_CONTENT_TYPE, getMediaType(cacheKey))
+                        .build();
+            }
+            logger.debug("Not Found: {}", entityName);
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
 
+        byte[] payLoad = responseCache.getBytes(cacheKey);
         if (payLoad != null) {
             logger.debug("Found: {}", entityName);
-            return Response.ok(payLoad).build();
+            return Response.ok(payLoad)
+                    .header(ApplicationsResource.HEADER_CONTENT_TYPE, getMediaType(cacheKey))
+                    .build();
         } else {
             logger.debug("Not Found: {}", entityName);
             return Response.status(Response.Status.NOT_FOUND).build();
         }
     }
+
+    private static String getMediaType(Key cacheKey) {
+        if (cacheKey.getEurekaAccept() == EurekaAccept.binary) {
+            return EurekaBinaryCodec.APPLICATION_EUREKA_BINARY;
+        }
+        return cacheKey.getType() == Key.KeyType.JSON ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_XML;
+    }
 }
@@ -23,12 +23,14 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
 import com.netflix.appinfo.AmazonInfo;
 import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.EurekaAccept;
+import com.netflix.discovery.converters.EurekaBinaryCodec;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.UniqueIdentifier;
 import com.netflix.eureka.EurekaServerConfig;
@@ -79,12 +81,16 @@ public class ApplicationResource {
      * @param acceptHeader
      *            the accept header of the request to indicate whether to serve
      *            JSON or XML data.
+     * @param acceptEncoding
+     *            the accept header to indicate whether to serve compressed or
+     *            uncompressed data.
      * @return the response containing information about a particular
      *         application.
      */
     @GET
     public Response getApplication(@PathParam("version") String version,
                                    @HeaderParam("Accept") final String acceptHeader,
+                                   @HeaderParam("Accept-Encoding") String acceptEncoding,
                                    @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept) {
         if (!registry.shouldAllowAccess(false)) {
             return Response.status(Status.FORBIDDEN).build();
@@ -106,17 +112,39 @@ public class ApplicationResource {
                 EurekaAccept.fromString(eurekaAccept)
         );
 
-        String payLoad = responseCache.get(cacheKey);
+        if (acceptEncoding != null && acceptEncoding.contains(ApplicationsResource.HEADER_GZIP_VALUE)) {
+            // Served as cached, so the response is not compressed again on each request
+            byte[] gzippedPayLoad = responseCache.getGZIP(cacheKey);
+            if (gzippedPayLoad != null) {
+                logger.debug("Found: {}", appName);
+                return Response.ok(gzippedPayLoad)
+                        .header(ApplicationsResource.HEADER_CONTENT_ENCODING, ApplicationsResource.HEADER_GZIP_VALUE)
+                        .header(ApplicationsResource.HEADER_CONTENT_TYPE, getMediaType(cacheKey))
+                        .build();
+            }
+            logger.debug("Not Found: {}", appName);
+            return Response.status(Status.NOT_FOUND).build();
+        }
 
+        byte[] payLoad = responseCache.getBytes(cacheKey);
         if (payLoad != null) {
             logger.debug("Found: {}", appName);
-            return Response.ok(payLoad).build();
+            return Response.ok(payLoad)
+                    .header(ApplicationsResource.HEADER_CONTENT_TYPE, getMediaType(cacheKey))
+                    .build();
         } else {
             logger.debug("Not Found: {}", appName);
             return Response.status(Status.NOT_FOUND).build();
         }
     }
 
+    private static String getMediaType(Key cacheKey) {
+        if (cacheKey.getEurekaAccept() == EurekaAccept.binary) {
+            return EurekaBinaryCodec.APPLICATION_EUREKA_BINARY;
+        }
+        return cacheKey.getType() == KeyType.JSON ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_XML;
+    }
+
     /**
      * Gets information about a particular instance of an application.
      *
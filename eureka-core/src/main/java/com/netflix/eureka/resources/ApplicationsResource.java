@@ -32,6 +32,7 @@ import javax.ws.rs.core.UriInfo;
 import java.util.Arrays;
 
 import com.netflix.appinfo.EurekaAccept;
+import com.netflix.discovery.converters.EurekaBinaryCodec;
 import com.netflix.eureka.EurekaServerContext;
 import com.netflix.eureka.EurekaServerContextHolder;
 import com.netflix.eureka.registry.AbstractInstanceRegistry;
@@ -56,9 +57,9 @@ import com.netflix.eureka.util.EurekaMonitors;
 public class ApplicationsResource {
     private static final String HEADER_ACCEPT = "Accept";
     private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
-    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
-    private static final String HEADER_CONTENT_TYPE = "Content-Type";
-    private static final String HEADER_GZIP_VALUE = "gzip";
+    static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    static final String HEADER_CONTENT_TYPE = "Content-Type";
+    static final String HEADER_GZIP_VALUE = "gzip";
     private static final String HEADER_JSON_VALUE = "json";
 
     private final EurekaServerConfig serverConfig;
@@ -140,6 +141,9 @@ public class ApplicationsResource {
             keyType = Key.KeyType.XML;
             returnMediaType = MediaType.APPLICATION_XML;
         }
+        if (EurekaAccept.fromString(eurekaAccept) == EurekaAccept.binary) {
+            returnMediaType = EurekaBinaryCodec.APPLICATION_EUREKA_BINARY;
+        }
 
         Key cacheKey = new Key(Key.EntityType.Application,
                 ResponseCacheImpl.ALL_APPS,
@@ -153,7 +157,8 @@ public class ApplicationsResource {
                     .header(HEADER_CONTENT_TYPE, returnMediaType)
                     .build();
         } else {
-            response = Response.ok(responseCache.get(cacheKey))
+            response = Response.ok(responseCache.getBytes(cacheKey))
+                    .header(HEADER_CONTENT_TYPE, returnMediaType)
                     .build();
         }
         return response;
@@ -179,11 +184,28 @@ public class ApplicationsResource {
      * are expected to handle this duplicate information.
      * <p>
      *
+     * <p>
+     * Clients that pass the version of the last delta they have seen are long polling: the request is held until
+     * a newer delta is available, for at most the requested time, capped by
+     * {@link EurekaServerConfig#getDeltaLongPollMaxWaitMs()}. The current delta is returned if no newer delta
+     * became available by then.
+     * </p>
+     *
+     * <p>
+     * Clients that pass the version of the last delta they have seen as {@code since} get the changes made after
+     * it only, instead of all the changes of the window. Such requests are answered with {@link Status#GONE} if
+     * the changes following that version are no longer recorded, in which case the client must fall back to the
+     * regular delta. The version also serves for long polling, if a wait time is given.
+     * </p>
+     *
      * @param version the version of the request.
      * @param acceptHeader the accept header to indicate whether to serve  JSON or XML data.
      * @param acceptEncoding the accept header to indicate whether to serve compressed or uncompressed data.
      * @param eurekaAccept an eureka accept extension, see {@link com.netflix.appinfo.EurekaAccept}
      * @param uriInfo  the {@link java.net.URI} information of the request made.
+     * @param lastSeenVersion the version of the last delta seen by a long polling client, or null.
+     * @param sinceVersion the version of the last delta seen by the client, to get the later changes only, or null.
+     * @param maxWaitMs the longest time a long polling client is willing to wait for a newer delta.
      * @return response containing the delta information of the
      *         {@link AbstractInstanceRegistry}.
      */
@@ -194,7 +216,10 @@ public class ApplicationsResource {
             @HeaderParam(HEADER_ACCEPT) String acceptHeader,
             @HeaderParam(HEADER_ACCEPT_ENCODING) String acceptEncoding,
             @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept,
-            @Context UriInfo uriInfo, @Nullable @QueryParam("regions") String regionsStr) {
+            @Context UriInfo uriInfo, @Nullable @QueryParam("regions") String regionsStr,
+            @Nullable @QueryParam("lastSeenVersion") Long lastSeenVersion,
+            @Nullable @QueryParam("since") Long sinceVersion,
+            @Nullable @QueryParam("maxWaitMs") Long maxWaitMs) {
 
         boolean isRemoteRegionRequested = null != regionsStr && !regionsStr.isEmpty();
 
@@ -220,12 +245,47 @@ public class ApplicationsResource {
             keyType = Key.KeyType.XML;
             returnMediaType = MediaType.APPLICATION_XML;
         }
+        if (EurekaAccept.fromString(eurekaAccept) == EurekaAccept.binary) {
+            returnMediaType = EurekaBinaryCodec.APPLICATION_EUREKA_BINARY;
+        }
 
         Key cacheKey = new Key(Key.EntityType.Application,
                 ResponseCacheImpl.ALL_APPS_DELTA,
                 keyType, CurrentRequestVersion.get(), EurekaAccept.fromString(eurekaAccept), regions
         );
 
+        Long waitAfterVersion = sinceVersion != null ? sinceVersion : lastSeenVersion;
+        if (waitAfterVersion != null && maxWaitMs != null) {
+            EurekaMonitors.GET_ALL_DELTA_LONG_POLL.increment();
+            try {
+                responseCache.waitForDeltaAfter(cacheKey, waitAfterVersion,
+                        Math.min(maxWaitMs, serverConfig.getDeltaLongPollMaxWaitMs()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (sinceVersion != null) {
+            EurekaMonitors.GET_ALL_DELTA_SINCE.increment();
+            if (acceptEncoding != null && acceptEncoding.contains(HEADER_GZIP_VALUE)) {
+                byte[] gzippedPayload = responseCache.getDeltaSinceGZIP(cacheKey, sinceVersion);
+                if (gzippedPayload == null) {
+                    return Response.status(Status.GONE).build();
+                }
+                return Response.ok(gzippedPayload)
+                        .header(HEADER_CONTENT_ENCODING, HEADER_GZIP_VALUE)
+                        .header(HEADER_CONTENT_TYPE, returnMediaType)
+                        .build();
+            }
+            byte[] payload = responseCache.getDeltaSince(cacheKey, sinceVersion);
+            if (payload == null) {
+                return Response.status(Status.GONE).build();
+            }
+            return Response.ok(payload)
+                    .header(HEADER_CONTENT_TYPE, returnMediaType)
+                    .build();
+        }
+
         if (acceptEncoding != null
                 && acceptEncoding.contains(HEADER_GZIP_VALUE)) {
             return Response.ok(responseCache.getGZIP(cacheKey))
@@ -233,7 +293,8 @@ public class ApplicationsResource {
                     .header(HEADER_CONTENT_TYPE, returnMediaType)
                     .build();
         } else {
-            return Response.ok(responseCache.get(cacheKey))
+            return Response.ok(responseCache.getBytes(cacheKey))
+                    .header(HEADER_CONTENT_TYPE, returnMediaType)
                     .build();
         }
     }
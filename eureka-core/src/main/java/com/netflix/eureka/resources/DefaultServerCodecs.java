@@ -22,6 +22,8 @@ public class DefaultServerCodecs implements ServerCodecs {
     protected final CodecWrapper fullXmlCodec;
     protected final CodecWrapper compactXmlCodec;
 
+    protected final CodecWrapper binaryCodec = CodecWrappers.getCodec(CodecWrappers.EurekaBinary.class);
+
     private static CodecWrapper getFullJson(EurekaServerConfig serverConfig) {
         CodecWrapper codec = CodecWrappers.getCodec(serverConfig.getJsonCodecName());
         return codec == null ? CodecWrappers.getCodec(CodecWrappers.LegacyJacksonJson.class) : codec;
@@ -88,6 +90,8 @@ public class DefaultServerCodecs implements ServerCodecs {
         switch (eurekaAccept) {
             case compact:
                 return getEncoder(keyType, true);
+            case binary:
+                return binaryCodec;
             case full:
             default:
                 return getEncoder(keyType, false);
@@ -120,7 +120,7 @@ public class InstanceResource {
         // instance might have changed some value
         Response response = null;
         if (lastDirtyTimestamp != null && serverConfig.shouldSyncWhenTimestampDiffers()) {
-            response = this.validateDirtyTimestamp(Long.valueOf(lastDirtyTimestamp), isFromReplicaNode);
+            response = this.validateDirtyTimestamp(Long.parseLong(lastDirtyTimestamp), isFromReplicaNode);
             // Store the overridden status since the validation found out the node that replicates wins
             if (response.getStatus() == Response.Status.NOT_FOUND.getStatusCode()
                     && (overriddenStatus != null)
@@ -131,7 +131,9 @@ public class InstanceResource {
         } else {
             response = Response.ok().build();
         }
-        logger.debug("Found (Renew): {} - {}; reply status={}" + app.getName(), id, response.getStatus());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found (Renew): {} - {}; reply status={}", app.getName(), id, response.getStatus());
+        }
         return response;
     }
 
@@ -291,11 +293,16 @@ public class InstanceResource {
         }
     }
 
-    private Response validateDirtyTimestamp(Long lastDirtyTimestamp,
+    private Response validateDirtyTimestamp(long lastDirtyTimestamp,
                                             boolean isReplication) {
+        // Most renewals carry an unchanged timestamp, so check that first without looking up the full instance info
+        Long registryLastDirtyTimestamp = registry.getLastDirtyTimestamp(app.getName(), id);
+        if (registryLastDirtyTimestamp == null || registryLastDirtyTimestamp == lastDirtyTimestamp) {
+            return Response.ok().build();
+        }
         InstanceInfo appInfo = registry.getInstanceByAppAndId(app.getName(), id, false);
         if (appInfo != null) {
-            if ((lastDirtyTimestamp != null) && (!lastDirtyTimestamp.equals(appInfo.getLastDirtyTimestamp()))) {
+            if (lastDirtyTimestamp != appInfo.getLastDirtyTimestamp()) {
                 Object[] args = {id, appInfo.getLastDirtyTimestamp(), lastDirtyTimestamp, isReplication};
 
                 if (lastDirtyTimestamp > appInfo.getLastDirtyTimestamp()) {
@@ -17,9 +17,11 @@
 package com.netflix.eureka.resources;
 
 import javax.inject.Inject;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -27,6 +29,7 @@ import com.netflix.appinfo.InstanceInfo;
 import com.netflix.eureka.EurekaServerContext;
 import com.netflix.eureka.EurekaServerConfig;
 import com.netflix.eureka.EurekaServerContextHolder;
+import com.netflix.eureka.cluster.protocol.ReplicationHeartbeatList;
 import com.netflix.eureka.cluster.protocol.ReplicationInstance;
 import com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse;
 import com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse.Builder;
@@ -96,6 +99,46 @@ public class PeerReplicationResource {
         }
     }
 
+    /**
+     * Process batched heartbeats from peer eureka nodes.
+     *
+     * <p>
+     *  Each heartbeat is handled the same way as a heartbeat event of {@link #batchReplication(ReplicationList)},
+     *  and the {@link ReplicationListResponse} holds the individual responses in the order of the heartbeats.
+     * </p>
+     *
+     * @param heartbeatList
+     *            The heartbeats from peer eureka nodes, in the compact batch format
+     * @return A batched response containing the information about the responses of individual heartbeats
+     */
+    @Path("heartbeats")
+    @POST
+    public Response batchHeartbeats(ReplicationHeartbeatList heartbeatList) {
+        return batchReplication(new ReplicationList(heartbeatList.toReplicationInstances()));
+    }
+
+    /**
+     * Serves a part of the local registry to a starting peer node, that bootstraps its registry from the parts
+     * fetched from all of its peers.
+     *
+     * @param chunk
+     *            The index of the requested part, from 0 to chunkCount - 1
+     * @param chunkCount
+     *            The number of parts the registry is split into
+     * @return The local region applications that belong to the requested part
+     */
+    @Path("registry")
+    @GET
+    public Response getRegistryChunk(@QueryParam("chunk") int chunk, @QueryParam("chunks") int chunkCount) {
+        if (chunkCount <= 0 || chunk < 0 || chunk >= chunkCount) {
+            return Response.status(Status.BAD_REQUEST).build();
+        }
+        if (!registry.shouldAllowAccess(false)) {
+            return Response.status(Status.FORBIDDEN).build();
+        }
+        return Response.ok(registry.getApplicationsChunk(chunk, chunkCount)).build();
+    }
+
     private ReplicationInstanceResponse dispatch(ReplicationInstance instanceInfo) {
         ApplicationResource applicationResource = createApplicationResource(instanceInfo);
         InstanceResource resource = createInstanceResource(instanceInfo, applicationResource);
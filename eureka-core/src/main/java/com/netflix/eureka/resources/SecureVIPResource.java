@@ -53,8 +53,9 @@ public class SecureVIPResource extends AbstractVIPResource {
     public Response statusUpdate(@PathParam("version") String version,
                                  @PathParam("svipAddress") String svipAddress,
                                  @HeaderParam("Accept") final String acceptHeader,
+                                 @HeaderParam("Accept-Encoding") String acceptEncoding,
                                  @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept) {
-        return getVipResponse(version, svipAddress, acceptHeader,
+        return getVipResponse(version, svipAddress, acceptHeader, acceptEncoding,
                 EurekaAccept.fromString(eurekaAccept), Key.EntityType.SVIP);
     }
 
@@ -53,8 +53,9 @@ public class VIPResource extends AbstractVIPResource {
     public Response statusUpdate(@PathParam("version") String version,
                                  @PathParam("vipAddress") String vipAddress,
                                  @HeaderParam("Accept") final String acceptHeader,
+                                 @HeaderParam("Accept-Encoding") String acceptEncoding,
                                  @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept) {
-        return getVipResponse(version, vipAddress, acceptHeader,
+        return getVipResponse(version, vipAddress, acceptHeader, acceptEncoding,
                 EurekaAccept.fromString(eurekaAccept), Key.EntityType.VIP);
     }
 
@@ -52,6 +52,8 @@ public enum EurekaMonitors {
     GET_ALL_DELTA("getAllDeltaCounter", "Number of total deltas since startup"),
     GET_ALL_DELTA_WITH_REMOTE_REGIONS("getAllDeltaWithRemoteRegionCounter",
             "Number of total deltas with remote regions since startup"),
+    GET_ALL_DELTA_LONG_POLL("getAllDeltaLongPollCounter", "Number of total long polling deltas since startup"),
+    GET_ALL_DELTA_SINCE("getAllDeltaSinceCounter", "Number of total deltas since a given version since startup"),
     GET_ALL("getAllCounter", "Number of total registry queries seen since startup"),
     GET_ALL_WITH_REMOTE_REGIONS("getAllWithRemoteRegionCounter",
             "Number of total registry queries with remote regions, seen since startup"),
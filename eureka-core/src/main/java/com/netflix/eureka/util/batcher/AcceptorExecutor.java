@@ -1,18 +1,20 @@
 package com.netflix.eureka.util.batcher;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingDeque;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 import com.netflix.eureka.util.batcher.TaskProcessor.ProcessingResult;
 import com.netflix.servo.annotations.DataSourceType;
@@ -41,6 +43,17 @@ import static com.netflix.eureka.Names.METRIC_REPLICATION_PREFIX;
  * task(s) back to the {@link AcceptorExecutor}. This data will be merged with current workload, possibly discarded if
  * a newer version has been already received.
  *
+ * <h3>Scheduling</h3>
+ * The internal thread sleeps until something happens that it must react to: a task arrives, a worker requests
+ * work, the batching delay of the oldest pending task elapses, or the delay injected by the {@link TrafficShaper}
+ * ends. Clients and workers wake it up when they hand over tasks or work requests, so there is no polling.
+ *
+ * <h3>Adaptive batching</h3>
+ * With adaptive batching enabled, the batch size and the batching delay are not fixed, but tuned by
+ * {@link AdaptiveBatchingController} within the configured maximums, from the results and round trip times of
+ * processed batches reported by workers. A batch that reaches the current size limit is dispatched without
+ * waiting for the batching delay.
+ *
  * @author Tomasz Bak
  */
 class AcceptorExecutor<ID, T> {
@@ -53,12 +66,12 @@ class AcceptorExecutor<ID, T> {
 
     private final AtomicBoolean isShutdown = new AtomicBoolean(false);
 
-    private final BlockingQueue<TaskHolder<ID, T>> acceptorQueue = new LinkedBlockingQueue<>();
-    private final BlockingDeque<TaskHolder<ID, T>> reprocessQueue = new LinkedBlockingDeque<>();
+    private final Queue<TaskHolder<ID, T>> acceptorQueue = new ConcurrentLinkedQueue<>();
+    private final Deque<TaskHolder<ID, T>> reprocessQueue = new ConcurrentLinkedDeque<>();
     private final Thread acceptorThread;
 
     private final Map<ID, TaskHolder<ID, T>> pendingTasks = new HashMap<>();
-    private final Deque<ID> processingOrder = new LinkedList<>();
+    private final Deque<ID> processingOrder = new ArrayDeque<>();
 
     private final Semaphore singleItemWorkRequests = new Semaphore(0);
     private final BlockingQueue<TaskHolder<ID, T>> singleItemWorkQueue = new LinkedBlockingQueue<>();
@@ -67,6 +80,7 @@ class AcceptorExecutor<ID, T> {
     private final BlockingQueue<List<TaskHolder<ID, T>>> batchWorkQueue = new LinkedBlockingQueue<>();
 
     private final TrafficShaper trafficShaper;
+    private final AdaptiveBatchingController batchingController;
 
     /*
      * Metrics
@@ -87,6 +101,9 @@ class AcceptorExecutor<ID, T> {
     volatile long queueOverflows;
 
     private final Timer batchSizeMetric;
+    private final Timer batchingDelayMetric;
+    private final Timer batchQueueAgeMetric;
+    private final Timer batchRoundTripTimeMetric;
 
     AcceptorExecutor(String id,
                      int maxBufferSize,
@@ -94,10 +111,21 @@ class AcceptorExecutor<ID, T> {
                      long maxBatchingDelay,
                      long congestionRetryDelayMs,
                      long networkFailureRetryMs) {
+        this(id, maxBufferSize, maxBatchingSize, maxBatchingDelay, congestionRetryDelayMs, networkFailureRetryMs, false);
+    }
+
+    AcceptorExecutor(String id,
+                     int maxBufferSize,
+                     int maxBatchingSize,
+                     long maxBatchingDelay,
+                     long congestionRetryDelayMs,
+                     long networkFailureRetryMs,
+                     boolean adaptiveBatching) {
         this.maxBufferSize = maxBufferSize;
         this.maxBatchingSize = maxBatchingSize;
         this.maxBatchingDelay = maxBatchingDelay;
         this.trafficShaper = new TrafficShaper(congestionRetryDelayMs, networkFailureRetryMs);
+        this.batchingController = adaptiveBatching ? new AdaptiveBatchingController(maxBatchingSize, maxBatchingDelay) : null;
 
         ThreadGroup threadGroup = new ThreadGroup("eurekaTaskExecutors");
         this.acceptorThread = new Thread(threadGroup, new AcceptorRunner(), "TaskAcceptor-" + id);
@@ -110,8 +138,10 @@ class AcceptorExecutor<ID, T> {
                 .withPercentiles(percentiles)
                 .withPublishStdDev(true)
                 .build();
-        final MonitorConfig config = MonitorConfig.builder(METRIC_REPLICATION_PREFIX + "batchSize").build();
-        this.batchSizeMetric = new StatsTimer(config, statsConfig);
+        this.batchSizeMetric = new StatsTimer(MonitorConfig.builder(METRIC_REPLICATION_PREFIX + "batchSize").build(), statsConfig);
+        this.batchingDelayMetric = new StatsTimer(MonitorConfig.builder(METRIC_REPLICATION_PREFIX + "batchingDelay").build(), statsConfig);
+        this.batchQueueAgeMetric = new StatsTimer(MonitorConfig.builder(METRIC_REPLICATION_PREFIX + "batchQueueAge").build(), statsConfig);
+        this.batchRoundTripTimeMetric = new StatsTimer(MonitorConfig.builder(METRIC_REPLICATION_PREFIX + "batchRoundTripTime").build(), statsConfig);
         try {
             Monitors.registerObject(id, this);
         } catch (Throwable e) {
@@ -122,27 +152,42 @@ class AcceptorExecutor<ID, T> {
     void process(ID id, T task, long expiryTime) {
         acceptorQueue.add(new TaskHolder<ID, T>(id, task, expiryTime));
         acceptedTasks++;
+        LockSupport.unpark(acceptorThread);
     }
 
     void reprocess(List<TaskHolder<ID, T>> holders, ProcessingResult processingResult) {
         reprocessQueue.addAll(holders);
         replayedTasks += holders.size();
         trafficShaper.registerFailure(processingResult);
+        LockSupport.unpark(acceptorThread);
     }
 
     void reprocess(TaskHolder<ID, T> taskHolder, ProcessingResult processingResult) {
         reprocessQueue.add(taskHolder);
         replayedTasks++;
         trafficShaper.registerFailure(processingResult);
+        LockSupport.unpark(acceptorThread);
+    }
+
+    /**
+     * Workers report here the outcome of each processed batch, which drives adaptive batching if enabled.
+     */
+    void registerBatchResult(int batchSize, long roundTripTimeMs, ProcessingResult processingResult) {
+        batchRoundTripTimeMetric.record(roundTripTimeMs, TimeUnit.MILLISECONDS);
+        if (batchingController != null) {
+            batchingController.registerBatchResult(batchSize, roundTripTimeMs, processingResult);
+        }
     }
 
     BlockingQueue<TaskHolder<ID, T>> requestWorkItem() {
         singleItemWorkRequests.release();
+        LockSupport.unpark(acceptorThread);
         return singleItemWorkQueue;
     }
 
     BlockingQueue<List<TaskHolder<ID, T>>> requestWorkItems() {
         batchWorkRequests.release();
+        LockSupport.unpark(acceptorThread);
         return batchWorkQueue;
     }
 
@@ -177,6 +222,16 @@ class AcceptorExecutor<ID, T> {
         return singleItemWorkQueue.size() + batchWorkQueue.size();
     }
 
+    @Monitor(name = METRIC_REPLICATION_PREFIX + "batchSizeLimit", description = "Current maximum number of tasks in a batch", type = DataSourceType.GAUGE)
+    public long getBatchSizeLimit() {
+        return batchingController == null ? maxBatchingSize : batchingController.getBatchSize();
+    }
+
+    @Monitor(name = METRIC_REPLICATION_PREFIX + "batchingDelayLimit", description = "Current maximum time a task waits for a batch to fill up", type = DataSourceType.GAUGE)
+    public long getBatchingDelayLimit() {
+        return batchingController == null ? maxBatchingDelay : batchingController.getBatchingDelay();
+    }
+
     class AcceptorRunner implements Runnable {
         @Override
         public void run() {
@@ -196,13 +251,11 @@ class AcceptorExecutor<ID, T> {
                         assignSingleItemWork();
                     }
 
-                    // If no worker is requesting data or there is a delay injected by the traffic shaper,
-                    // sleep for some time to avoid tight loop.
+                    // Go on right away while work gets assigned, as more workers may be waiting for it. Otherwise
+                    // sleep until the next event that can make some work assignable.
                     if (totalItems == processingOrder.size()) {
-                        Thread.sleep(10);
+                        awaitNextEvent(nextWakeUpTime(scheduleTime));
                     }
-                } catch (InterruptedException ex) {
-                    // Ignore
                 } catch (Throwable e) {
                     // Safe-guard, so we never exit this loop in an uncontrolled way.
                     logger.warn("Discovery AcceptorThread error", e);
@@ -210,37 +263,59 @@ class AcceptorExecutor<ID, T> {
             }
         }
 
+        /**
+         * @return the time at which work may become assignable without a new task or work request coming in,
+         *         or {@link Long#MAX_VALUE} if only those can make it assignable
+         */
+        private long nextWakeUpTime(long scheduleTime) {
+            if (processingOrder.isEmpty()) {
+                return Long.MAX_VALUE;
+            }
+            if (scheduleTime > System.currentTimeMillis()) {
+                return scheduleTime;
+            }
+            if (batchWorkRequests.availablePermits() > 0 && !isFull()) {
+                TaskHolder<ID, T> nextHolder = pendingTasks.get(processingOrder.peek());
+                return nextHolder.getSubmitTimestamp() + getBatchingDelayLimit();
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private void awaitNextEvent(long wakeUpTime) {
+            // A wake up that comes in before we park, makes the park return right away, so none is lost
+            if (!acceptorQueue.isEmpty() || !reprocessQueue.isEmpty() || isShutdown.get()) {
+                return;
+            }
+            if (wakeUpTime == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else {
+                long delayMs = wakeUpTime - System.currentTimeMillis();
+                if (delayMs > 0) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delayMs));
+                }
+            }
+        }
+
         private boolean isFull() {
             return pendingTasks.size() >= maxBufferSize;
         }
 
-        private void drainInputQueues() throws InterruptedException {
-            do {
-                drainReprocessQueue();
-                drainAcceptorQueue();
-
-                if (!isShutdown.get()) {
-                    // If all queues are empty, block for a while on the acceptor queue
-                    if (reprocessQueue.isEmpty() && acceptorQueue.isEmpty() && pendingTasks.isEmpty()) {
-                        TaskHolder<ID, T> taskHolder = acceptorQueue.poll(10, TimeUnit.MILLISECONDS);
-                        if (taskHolder != null) {
-                            appendTaskHolder(taskHolder);
-                        }
-                    }
-                }
-            } while (!reprocessQueue.isEmpty() || !acceptorQueue.isEmpty() || pendingTasks.isEmpty());
+        private void drainInputQueues() {
+            drainReprocessQueue();
+            drainAcceptorQueue();
         }
 
         private void drainAcceptorQueue() {
-            while (!acceptorQueue.isEmpty()) {
-                appendTaskHolder(acceptorQueue.poll());
+            TaskHolder<ID, T> taskHolder;
+            while ((taskHolder = acceptorQueue.poll()) != null) {
+                appendTaskHolder(taskHolder);
             }
         }
 
         private void drainReprocessQueue() {
             long now = System.currentTimeMillis();
-            while (!reprocessQueue.isEmpty() && !isFull()) {
-                TaskHolder<ID, T> taskHolder = reprocessQueue.pollLast();
+            TaskHolder<ID, T> taskHolder;
+            while (!isFull() && (taskHolder = reprocessQueue.pollLast()) != null) {
                 ID id = taskHolder.getId();
                 if (taskHolder.getExpiryTime() <= now) {
                     expiredTasks++;
@@ -292,7 +367,8 @@ class AcceptorExecutor<ID, T> {
             if (hasEnoughTasksForNextBatch()) {
                 if (batchWorkRequests.tryAcquire(1)) {
                     long now = System.currentTimeMillis();
-                    int len = Math.min(maxBatchingSize, processingOrder.size());
+                    long queueAge = now - pendingTasks.get(processingOrder.peek()).getSubmitTimestamp();
+                    int len = (int) Math.min(getBatchSizeLimit(), processingOrder.size());
                     List<TaskHolder<ID, T>> holders = new ArrayList<>(len);
                     while (holders.size() < len && !processingOrder.isEmpty()) {
                         ID id = processingOrder.poll();
@@ -307,6 +383,11 @@ class AcceptorExecutor<ID, T> {
                         batchWorkRequests.release();
                     } else {
                         batchSizeMetric.record(holders.size(), TimeUnit.MILLISECONDS);
+                        batchingDelayMetric.record(getBatchingDelayLimit(), TimeUnit.MILLISECONDS);
+                        batchQueueAgeMetric.record(queueAge, TimeUnit.MILLISECONDS);
+                        if (batchingController != null) {
+                            batchingController.registerBatchAssigned(holders.size());
+                        }
                         batchWorkQueue.add(holders);
                     }
                 }
@@ -320,10 +401,13 @@ class AcceptorExecutor<ID, T> {
             if (pendingTasks.size() >= maxBufferSize) {
                 return true;
             }
+            if (batchingController != null && processingOrder.size() >= batchingController.getBatchSize()) {
+                return true;
+            }
 
             TaskHolder<ID, T> nextHolder = pendingTasks.get(processingOrder.peek());
             long delay = System.currentTimeMillis() - nextHolder.getSubmitTimestamp();
-            return delay >= maxBatchingDelay;
+            return delay >= getBatchingDelayLimit();
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.netflix.eureka.util.batcher;
+
+import com.netflix.eureka.util.batcher.TaskProcessor.ProcessingResult;
+
+/**
+ * {@link AdaptiveBatchingController} tunes the size of task batches, and the time tasks may wait for a batch to
+ * fill up, from the feedback of processed batches. The batch size follows the additive increase/multiplicative
+ * decrease scheme: it grows by a fixed step after each successful batch formed while more tasks were queued,
+ * and is halved when a batch fails with a congestion or transient error, or when its round trip takes
+ * longer than the maximum batching delay. The batching delay tracks the smoothed round trip time, so when
+ * traffic is low tasks are not held back much longer than it takes to process a batch.
+ */
+class AdaptiveBatchingController {
+
+    static final int MIN_BATCH_SIZE = 10;
+    static final long MIN_BATCHING_DELAY_MS = 10;
+
+    /**
+     * Number of steps in which the batch size grows from its lower to its upper bound.
+     */
+    private static final int INCREASE_STEPS = 10;
+
+    private static final double RTT_SMOOTHING_FACTOR = 0.2;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int batchSizeIncrement;
+    private final long minBatchingDelay;
+    private final long maxBatchingDelay;
+
+    private volatile int batchSize;
+    private volatile long batchingDelay;
+    private volatile boolean backlogged;
+
+    private double smoothedRoundTripTime = -1;
+
+    AdaptiveBatchingController(int maxBatchSize, long maxBatchingDelay) {
+        this.maxBatchSize = maxBatchSize;
+        this.minBatchSize = Math.min(MIN_BATCH_SIZE, maxBatchSize);
+        this.batchSizeIncrement = Math.max(1, (maxBatchSize - minBatchSize) / INCREASE_STEPS);
+        this.maxBatchingDelay = maxBatchingDelay;
+        this.minBatchingDelay = Math.min(MIN_BATCHING_DELAY_MS, maxBatchingDelay);
+        this.batchSize = minBatchSize;
+        this.batchingDelay = maxBatchingDelay;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    long getBatchingDelay() {
+        return batchingDelay;
+    }
+
+    /**
+     * Called when a batch is handed over to a worker. A full batch means that tasks are produced at least as
+     * fast as they are sent, so a bigger one would reduce the number of round trips.
+     */
+    void registerBatchAssigned(int size) {
+        backlogged = size >= batchSize;
+    }
+
+    synchronized void registerBatchResult(int size, long roundTripTimeMs, ProcessingResult result) {
+        switch (result) {
+            case Success:
+                break;
+            case Congestion:
+            case TransientError:
+                decreaseBatchSize();
+                return;
+            default:
+                // A permanent error says nothing about the peer capacity
+                return;
+        }
+
+        smoothedRoundTripTime = smoothedRoundTripTime < 0
+                ? roundTripTimeMs
+                : smoothedRoundTripTime + RTT_SMOOTHING_FACTOR * (roundTripTimeMs - smoothedRoundTripTime);
+        batchingDelay = Math.max(minBatchingDelay, Math.min(maxBatchingDelay, Math.round(smoothedRoundTripTime)));
+
+        if (roundTripTimeMs > maxBatchingDelay) {
+            decreaseBatchSize();
+        } else if (backlogged && size >= batchSize) {
+            batchSize = Math.min(maxBatchSize, batchSize + batchSizeIncrement);
+        }
+    }
+
+    private void decreaseBatchSize() {
+        batchSize = Math.max(minBatchSize, batchSize / 2);
+    }
+}
@@ -40,8 +40,25 @@ public class TaskDispatchers {
                                                                              long congestionRetryDelayMs,
                                                                              long networkFailureRetryMs,
                                                                              TaskProcessor<T> taskProcessor) {
+        return createBatchingTaskDispatcher(id, maxBufferSize, workloadSize, workerCount, maxBatchingDelay,
+                congestionRetryDelayMs, networkFailureRetryMs, false, taskProcessor);
+    }
+
+    /**
+     * Creates a batching dispatcher, that with adaptive batching enabled tunes the batch size and the batching
+     * delay within the given workload size and maximum batching delay (see {@link AdaptiveBatchingController}).
+     */
+    public static <ID, T> TaskDispatcher<ID, T> createBatchingTaskDispatcher(String id,
+                                                                             int maxBufferSize,
+                                                                             int workloadSize,
+                                                                             int workerCount,
+                                                                             long maxBatchingDelay,
+                                                                             long congestionRetryDelayMs,
+                                                                             long networkFailureRetryMs,
+                                                                             boolean adaptiveBatching,
+                                                                             TaskProcessor<T> taskProcessor) {
         final AcceptorExecutor<ID, T> acceptorExecutor = new AcceptorExecutor<>(
-                id, maxBufferSize, workloadSize, maxBatchingDelay, congestionRetryDelayMs, networkFailureRetryMs
+                id, maxBufferSize, workloadSize, maxBatchingDelay, congestionRetryDelayMs, networkFailureRetryMs, adaptiveBatching
         );
         final TaskExecutors<ID, T> taskExecutor = TaskExecutors.batchExecutors(id, workerCount, taskProcessor, acceptorExecutor);
         return new TaskDispatcher<ID, T>() {
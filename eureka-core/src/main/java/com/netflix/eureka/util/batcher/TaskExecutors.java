@@ -1,7 +1,10 @@
 package com.netflix.eureka.util.batcher;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -184,18 +187,9 @@ class TaskExecutors<ID, T> {
                     metrics.registerExpiryTimes(holders);
 
                     List<T> tasks = getTasksOf(holders);
+                    long startTime = System.currentTimeMillis();
                     ProcessingResult result = processor.process(tasks);
-                    switch (result) {
-                        case Success:
-                            break;
-                        case Congestion:
-                        case TransientError:
-                            taskDispatcher.reprocess(holders, result);
-                            break;
-                        case PermanentError:
-                            logger.warn("Discarding {} tasks of {} due to permanent error", holders.size(), workerName);
-                    }
-                    metrics.registerTaskResult(result, tasks.size());
+                    handleResult(holders, getRemainingHolders(holders, tasks), result, startTime);
                 }
             } catch (InterruptedException e) {
                 // Ignore
@@ -205,6 +199,47 @@ class TaskExecutors<ID, T> {
             }
         }
 
+        private void handleResult(List<TaskHolder<ID, T>> holders,
+                                  List<TaskHolder<ID, T>> remainingHolders,
+                                  ProcessingResult result,
+                                  long processingStartTime) {
+            taskDispatcher.registerBatchResult(holders.size(), System.currentTimeMillis() - processingStartTime, result);
+            switch (result) {
+                case Success:
+                    break;
+                case Congestion:
+                case TransientError:
+                    taskDispatcher.reprocess(remainingHolders, result);
+                    break;
+                case PermanentError:
+                    logger.warn("Discarding {} tasks of {} due to permanent error", remainingHolders.size(), workerName);
+            }
+            int completed = holders.size() - remainingHolders.size();
+            if (completed > 0) {
+                metrics.registerTaskResult(ProcessingResult.Success, completed);
+            }
+            metrics.registerTaskResult(result, remainingHolders.size());
+        }
+
+        /**
+         * The processor may remove the tasks it completed from a failed batch (see {@link TaskProcessor#process(List)}),
+         * in which case the result applies only to the holders of the tasks left.
+         */
+        private List<TaskHolder<ID, T>> getRemainingHolders(List<TaskHolder<ID, T>> holders, List<T> remainingTasks) {
+            if (remainingTasks.size() == holders.size()) {
+                return holders;
+            }
+            Set<T> remaining = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+            remaining.addAll(remainingTasks);
+            List<TaskHolder<ID, T>> remainingHolders = new ArrayList<>(remainingTasks.size());
+            for (TaskHolder<ID, T> holder : holders) {
+                if (remaining.contains(holder.getTask())) {
+                    remainingHolders.add(holder);
+                }
+            }
+            return remainingHolders;
+        }
+
         private List<TaskHolder<ID, T>> getWork() throws InterruptedException {
             BlockingQueue<List<TaskHolder<ID, T>>> workQueue = taskDispatcher.requestWorkItems();
             List<TaskHolder<ID, T>> result;
@@ -29,7 +29,8 @@ public interface TaskProcessor<T> {
     /**
      * For batched mode a collection of tasks is run at a time. The result is provided for the aggregated result,
      * and all tasks are handled in the same way according to what is returned (for example are rescheduled, if the
-     * error is transient).
+     * error is transient). A processor that completed a part of the batch before failing, may remove the completed
+     * tasks from the given list, so that the result applies to the remaining tasks only.
      */
     ProcessingResult process(List<T> tasks);
 }
@@ -0,0 +1,118 @@
+package com.netflix.eureka;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.appinfo.MyDataCenterInstanceConfig;
+import com.netflix.eureka.registry.Key;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.registry.ResponseCache;
+import com.netflix.eureka.registry.ResponseCacheImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GzipRegistryFetchFilterTest {
+
+    private static final byte[] GZIPPED_PAYLOAD = {31, -117, 8, 0};
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @Mock
+    private PeerAwareInstanceRegistry registry;
+
+    @Mock
+    private ResponseCache responseCache;
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    private GzipRegistryFetchFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        // EurekaMonitors are initialized from the application info
+        new ApplicationInfoManager(new MyDataCenterInstanceConfig());
+
+        EurekaServerContext serverContext = mock(EurekaServerContext.class);
+        when(serverContext.getRegistry()).thenReturn(registry);
+        when(registry.getResponseCache()).thenReturn(responseCache);
+        when(registry.shouldAllowAccess(false)).thenReturn(true);
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                written.write(b);
+            }
+        });
+
+        filter = new GzipRegistryFetchFilter(serverContext);
+    }
+
+    @Test
+    public void testFullFetchIsServedFromCachedGzipPayload() throws Exception {
+        whenRequest("/eureka/v2/apps", "gzip");
+        Key cacheKey = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS,
+                Key.KeyType.JSON, Version.V2, EurekaAccept.full);
+        when(responseCache.getGZIP(cacheKey)).thenReturn(GZIPPED_PAYLOAD);
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain, never()).doFilter(request, response);
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).setContentType("application/json");
+        assertArrayEquals(GZIPPED_PAYLOAD, written.toByteArray());
+    }
+
+    @Test
+    public void testOtherRequestsArePassedOn() throws Exception {
+        whenRequest("/eureka/v2/apps/delta", "gzip");
+        filter.doFilter(request, response, filterChain);
+
+        whenRequest("/eureka/v2/apps", null);
+        filter.doFilter(request, response, filterChain);
+
+        verify(responseCache, never()).getGZIP(any(Key.class));
+        verify(filterChain, times(2)).doFilter(request, response);
+    }
+
+    @Test
+    public void testFullFetchWithoutAccessIsPassedOn() throws Exception {
+        whenRequest("/eureka/v2/apps", "gzip");
+        when(registry.shouldAllowAccess(false)).thenReturn(false);
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(responseCache, never()).getGZIP(any(Key.class));
+    }
+
+    private void whenRequest(String uri, String acceptEncoding) {
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        when(request.getHeader("Accept")).thenReturn("application/json");
+    }
+}
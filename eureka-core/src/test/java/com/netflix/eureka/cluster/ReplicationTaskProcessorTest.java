@@ -1,10 +1,19 @@
 package com.netflix.eureka.cluster;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.util.InstanceInfoGenerator;
+import com.netflix.discovery.shared.transport.ClusterSampleData;
+import com.netflix.eureka.cluster.TestableHttpReplicationClient.HandledRequest;
+import com.netflix.eureka.cluster.TestableHttpReplicationClient.RequestType;
 import com.netflix.eureka.cluster.TestableInstanceReplicationTask.ProcessingState;
+import com.netflix.eureka.cluster.protocol.ReplicationHeartbeatList;
+import com.netflix.eureka.cluster.protocol.ReplicationList;
 import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl.Action;
 import com.netflix.eureka.util.batcher.TaskProcessor.ProcessingResult;
 import org.junit.Before;
@@ -106,4 +115,88 @@ public class ReplicationTaskProcessorTest {
         assertThat(status, is(ProcessingResult.Success));
         assertThat(task.getProcessingState(), is(ProcessingState.Failed));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHeartbeatsAreSubmittedInCompactBatchAfterOtherTasks() throws Exception {
+        ReplicationTaskProcessor compactProcessor = new ReplicationTaskProcessor("peerId#test", replicationClient, true);
+        InstanceInfo instanceInfo = ClusterSampleData.newInstanceInfo(0);
+        TestableInstanceReplicationTask heartbeatTask = aReplicationTask().withInstanceInfo(instanceInfo).build();
+        TestableInstanceReplicationTask registerTask = aReplicationTask().withAction(Action.Register).build();
+
+        replicationClient.withBatchReply(200);
+        replicationClient.withNetworkStatusCode(200, 200);
+        ProcessingResult status = compactProcessor.process(Arrays.<ReplicationTask>asList(heartbeatTask, registerTask));
+
+        assertThat(status, is(ProcessingResult.Success));
+        assertThat(heartbeatTask.getProcessingState(), is(ProcessingState.Finished));
+        assertThat(registerTask.getProcessingState(), is(ProcessingState.Finished));
+
+        HandledRequest batchRequest = replicationClient.nextHandledRequest(0, TimeUnit.MILLISECONDS);
+        assertThat(batchRequest.getRequestType(), is(RequestType.Batch));
+        assertThat(((ReplicationList) batchRequest.getData()).getReplicationList().size(), is(1));
+
+        HandledRequest heartbeatRequest = replicationClient.nextHandledRequest(0, TimeUnit.MILLISECONDS);
+        assertThat(heartbeatRequest.getRequestType(), is(RequestType.HeartbeatBatch));
+        ReplicationHeartbeatList heartbeatList = (ReplicationHeartbeatList) heartbeatRequest.getData();
+        assertThat(heartbeatList.getIds().get(0), is(instanceInfo.getId()));
+        assertThat(heartbeatList.getLastDirtyTimestamps().get(0), is(instanceInfo.getLastDirtyTimestamp()));
+    }
+
+    @Test
+    public void testHeartbeatsOfSameInstanceAreCoalesced() throws Exception {
+        ReplicationTaskProcessor compactProcessor = new ReplicationTaskProcessor("peerId#test", replicationClient, true);
+        InstanceInfo instanceInfo = ClusterSampleData.newInstanceInfo(0);
+        TestableInstanceReplicationTask firstHeartbeat = aReplicationTask().withInstanceInfo(instanceInfo).build();
+        TestableInstanceReplicationTask otherHeartbeat = aReplicationTask().withInstanceInfo(ClusterSampleData.newInstanceInfo(1)).build();
+        TestableInstanceReplicationTask lastHeartbeat = aReplicationTask().withInstanceInfo(instanceInfo).build();
+
+        replicationClient.withBatchReply(200);
+        replicationClient.withNetworkStatusCode(200);
+        ProcessingResult status = compactProcessor.process(Arrays.<ReplicationTask>asList(firstHeartbeat, otherHeartbeat, lastHeartbeat));
+
+        assertThat(status, is(ProcessingResult.Success));
+        assertThat(lastHeartbeat.getProcessingState(), is(ProcessingState.Finished));
+        assertThat(otherHeartbeat.getProcessingState(), is(ProcessingState.Finished));
+
+        HandledRequest heartbeatRequest = replicationClient.nextHandledRequest(0, TimeUnit.MILLISECONDS);
+        assertThat(heartbeatRequest.getRequestType(), is(RequestType.HeartbeatBatch));
+        assertThat(((ReplicationHeartbeatList) heartbeatRequest.getData()).getIds().size(), is(2));
+    }
+
+    @Test
+    public void testOnlyHeartbeatsAreRescheduledIfTheirBatchFailsAfterOtherTasks() throws Exception {
+        ReplicationTaskProcessor compactProcessor = new ReplicationTaskProcessor("peerId#test", replicationClient, true);
+        TestableInstanceReplicationTask heartbeatTask = aReplicationTask().withInstanceInfo(ClusterSampleData.newInstanceInfo(0)).build();
+        TestableInstanceReplicationTask registerTask = aReplicationTask().withAction(Action.Register).build();
+
+        replicationClient.withBatchReply(200);
+        replicationClient.withNetworkStatusCode(200, 503);
+        List<ReplicationTask> tasks = new ArrayList<>(Arrays.<ReplicationTask>asList(registerTask, heartbeatTask));
+        ProcessingResult status = compactProcessor.process(tasks);
+
+        assertThat(status, is(ProcessingResult.Congestion));
+        assertThat(registerTask.getProcessingState(), is(ProcessingState.Finished));
+        assertThat(heartbeatTask.getProcessingState(), is(ProcessingState.Pending));
+        assertThat(tasks, is(Collections.<ReplicationTask>singletonList(heartbeatTask)));
+    }
+
+    @Test
+    public void testCompactHeartbeatsFallBackToRegularBatchIfNotSupported() throws Exception {
+        ReplicationTaskProcessor compactProcessor = new ReplicationTaskProcessor("peerId#test", replicationClient, true);
+        TestableInstanceReplicationTask heartbeatTask = aReplicationTask().withInstanceInfo(ClusterSampleData.newInstanceInfo(0)).build();
+
+        replicationClient.withBatchReply(200);
+        replicationClient.withNetworkStatusCode(404, 200, 200);
+        ProcessingResult status = compactProcessor.process(Collections.<ReplicationTask>singletonList(heartbeatTask));
+
+        assertThat(status, is(ProcessingResult.Success));
+        assertThat(heartbeatTask.getProcessingState(), is(ProcessingState.Finished));
+        assertThat(replicationClient.nextHandledRequest(0, TimeUnit.MILLISECONDS).getRequestType(), is(RequestType.HeartbeatBatch));
+        assertThat(replicationClient.nextHandledRequest(0, TimeUnit.MILLISECONDS).getRequestType(), is(RequestType.Batch));
+
+        // Subsequent heartbeats go with regular batches straight away
+        compactProcessor.process(Collections.<ReplicationTask>singletonList(
+                aReplicationTask().withInstanceInfo(ClusterSampleData.newInstanceInfo(1)).build()));
+        assertThat(replicationClient.nextHandledRequest(0, TimeUnit.MILLISECONDS).getRequestType(), is(RequestType.Batch));
+    }
+}
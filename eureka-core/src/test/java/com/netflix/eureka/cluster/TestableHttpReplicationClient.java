@@ -14,6 +14,7 @@ import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.cluster.protocol.ReplicationHeartbeatList;
 import com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse;
 import com.netflix.eureka.cluster.protocol.ReplicationList;
 import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
@@ -113,6 +114,16 @@ public class TestableHttpReplicationClient implements HttpReplicationClient {
         throw new IllegalStateException("method not supported");
     }
 
+    @Override
+    public EurekaHttpResponse<Applications> longPollDelta(long lastSeenVersion, long maxWaitMs, String... regions) {
+        throw new IllegalStateException("method not supported");
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getDeltaSince(long sinceVersion, long maxWaitMs, String... regions) {
+        throw new IllegalStateException("method not supported");
+    }
+
     @Override
     public EurekaHttpResponse<Applications> getVip(String vipAddress, String... regions) {
         throw new IllegalStateException("method not supported");
@@ -163,11 +174,28 @@ public class TestableHttpReplicationClient implements HttpReplicationClient {
         return anEurekaHttpResponse(statusCode, replicationListResponse).type(MediaType.APPLICATION_JSON_TYPE).build();
     }
 
+    @Override
+    public EurekaHttpResponse<ReplicationListResponse> submitHeartbeats(ReplicationHeartbeatList heartbeatList) {
+        List<ReplicationInstanceResponse> responseList = new ArrayList<>();
+        for (int i = 0; i < heartbeatList.size(); i++) {
+            responseList.add(new ReplicationInstanceResponse(batchStatusCode, instanceInfoFromPeer));
+        }
+        handledRequests.add(new HandledRequest(RequestType.HeartbeatBatch, heartbeatList));
+
+        int statusCode = networkStatusCodes[callCounter.getAndIncrement()];
+        return anEurekaHttpResponse(statusCode, new ReplicationListResponse(responseList)).type(MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+    @Override
+    public EurekaHttpResponse<Applications> getRegistryChunk(int chunk, int chunkCount) {
+        throw new IllegalStateException("method not supported");
+    }
+
     @Override
     public void shutdown() {
     }
 
-    public enum RequestType {Heartbeat, Register, Cancel, StatusUpdate, DeleteStatusOverride, AsgStatusUpdate, Batch}
+    public enum RequestType {Heartbeat, Register, Cancel, StatusUpdate, DeleteStatusOverride, AsgStatusUpdate, Batch, HeartbeatBatch}
 
     public static class HandledRequest {
         private final RequestType requestType;
@@ -1,5 +1,6 @@
 package com.netflix.eureka.cluster.protocol;
 
+import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.converters.EurekaJacksonCodec;
 import com.netflix.discovery.shared.transport.ClusterSampleData;
 
@@ -50,6 +51,23 @@ public class JacksonEncodingTest {
         assertThat(decodedValue, is(equalTo(replicationList)));
     }
 
+    @Test
+    public void testReplicationHeartbeatListEncoding() throws Exception {
+        ReplicationHeartbeatList heartbeatList = new ReplicationHeartbeatList();
+        for (int i = 0; i < 3; i++) {
+            InstanceInfo instanceInfo = ClusterSampleData.newInstanceInfo(i);
+            heartbeatList.addHeartbeat(instanceInfo.getAppName(), instanceInfo.getId(), instanceInfo.getLastDirtyTimestamp(),
+                    instanceInfo.getStatus().name(), i == 0 ? null : "OUT_OF_SERVICE");
+        }
+
+        // Encode / decode
+        String jsonText = jacksonCodec.writeToString(heartbeatList);
+        ReplicationHeartbeatList decodedValue = jacksonCodec.readValue(ReplicationHeartbeatList.class, jsonText);
+
+        assertThat(decodedValue, is(equalTo(heartbeatList)));
+        assertThat(decodedValue.toReplicationInstances(), is(equalTo(heartbeatList.toReplicationInstances())));
+    }
+
     @Test
     public void testReplicationListResponseEncoding() throws Exception {
         ReplicationListResponse replicationListResponse = new ReplicationListResponse();
@@ -0,0 +1,46 @@
+package com.netflix.eureka.lease;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LeaseExpiryIndexTest {
+
+    private final LeaseExpiryIndex<String> index = new LeaseExpiryIndex<>();
+
+    @Test
+    public void testOnlyDueLeasesArePolled() throws Exception {
+        Lease<String> shortLease = new Lease<>("short", 10);
+        Lease<String> longLease = new Lease<>("long", 100);
+        index.add(shortLease);
+        index.add(longLease);
+
+        assertThat(index.pollDue(System.currentTimeMillis()).isEmpty(), is(true));
+
+        List<Lease<String>> due = index.pollDue(shortLease.getExpirationTimestamp() + 1);
+        assertThat(due.size(), is(1));
+        assertThat(due.get(0), is(shortLease));
+        assertThat(index.size(), is(1));
+    }
+
+    @Test
+    public void testRenewedLeaseIsFiledUnderNewExpirationTime() throws Exception {
+        Lease<String> lease = new Lease<>("renewed", 10);
+        index.add(lease);
+        long initialExpiration = lease.getExpirationTimestamp();
+        lease.renew();
+
+        // The renewal does not move the lease in the index, it is re-filed when polled
+        List<Lease<String>> due = index.pollDue(initialExpiration + 1);
+        assertThat(due.size(), is(1));
+        assertThat(lease.isExpired(), is(false));
+        index.add(lease);
+
+        assertThat(index.pollDue(initialExpiration + 1).isEmpty(), is(true));
+        assertThat(index.pollDue(lease.getExpirationTimestamp() + 1).size(), is(1));
+        assertThat(index.size(), is(0));
+    }
+}
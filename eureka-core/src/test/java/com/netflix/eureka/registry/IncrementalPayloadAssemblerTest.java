@@ -0,0 +1,134 @@
+package com.netflix.eureka.registry;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.DefaultEurekaClientConfig;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import com.netflix.eureka.AbstractTester;
+import com.netflix.eureka.DefaultEurekaServerConfig;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.Version;
+import com.netflix.eureka.resources.DefaultServerCodecs;
+import com.netflix.eureka.resources.ServerCodecs;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+public class IncrementalPayloadAssemblerTest extends AbstractTester {
+
+    private EurekaServerConfig testServerConfig;
+    private PeerAwareInstanceRegistryImpl testRegistry;
+    private List<InstanceInfo> instances;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        testServerConfig = spy(new DefaultEurekaServerConfig());
+        doReturn(true).when(testServerConfig).disableTransparentFallbackToOtherRegion();
+        doReturn(true).when(testServerConfig).shouldUseIncrementalPayloadAssembly();
+        doReturn(false).when(testServerConfig).shouldUseReadOnlyResponseCache();
+
+        instances = InstanceInfoGenerator.newBuilder(20, 6).withMetaData(true).build().toInstanceList();
+    }
+
+    @Test
+    public void testAssembledPayloadMatchesFullEncodingWithJacksonCodecs() throws Exception {
+        ServerCodecs serverCodecs = DefaultServerCodecs.builder()
+                .withFullJsonCodec(CodecWrappers.getCodec(CodecWrappers.JacksonJson.class))
+                .withFullXmlCodec(CodecWrappers.getCodec(CodecWrappers.JacksonXml.class))
+                .build();
+        verifyAssembledPayload(serverCodecs);
+    }
+
+    @Test
+    public void testAssembledPayloadMatchesFullEncodingWithDefaultCodecs() throws Exception {
+        verifyAssembledPayload(new DefaultServerCodecs(testServerConfig));
+    }
+
+    @Test
+    public void testFragmentEncodedAcrossInvalidationIsNotServed() throws Exception {
+        ServerCodecs serverCodecs = new DefaultServerCodecs(testServerConfig);
+        AbstractInstanceRegistry registry = mock(AbstractInstanceRegistry.class);
+        final IncrementalPayloadAssembler assembler = new IncrementalPayloadAssembler(testServerConfig, serverCodecs, registry);
+
+        InstanceInfo instance = instances.get(0);
+        final String appName = instance.getAppName();
+        final Application before = new Application(appName, Collections.singletonList(instance));
+        InstanceInfo changed = new InstanceInfo.Builder(new InstanceInfo(instance)).setStatus(InstanceInfo.InstanceStatus.OUT_OF_SERVICE).build();
+        Application after = new Application(appName, Collections.singletonList(changed));
+
+        when(registry.getLocalApplicationNames()).thenReturn(Collections.singleton(appName));
+        // The application changes while its fragment is being encoded from the previous state
+        when(registry.getApplication(appName, false)).thenAnswer(new Answer<Application>() {
+            @Override
+            public Application answer(InvocationOnMock invocation) {
+                assembler.invalidate(appName);
+                return before;
+            }
+        }).thenReturn(after);
+
+        Key key = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS, Key.KeyType.JSON, Version.V2, EurekaAccept.full);
+        Applications expected = new Applications();
+        expected.addApplication(after);
+        expected.setVersion(1L);
+        expected.setAppsHashCode(expected.getReconcileHashCode());
+        assertThat(assembler.assemble(key), is(equalTo(serverCodecs.getEncoder(Key.KeyType.JSON, EurekaAccept.full).encode(expected))));
+    }
+
+    private void verifyAssembledPayload(ServerCodecs serverCodecs) throws Exception {
+        testRegistry = new PeerAwareInstanceRegistryImpl(testServerConfig, new DefaultEurekaClientConfig(), serverCodecs, client);
+        testRegistry.init(serverContext.getPeerEurekaNodes());
+        try {
+            for (InstanceInfo instance : instances) {
+                testRegistry.register(instance, false);
+            }
+            verifyAllKeys(serverCodecs);
+
+            // Change one application only, to mix re-encoded and cached fragments
+            InstanceInfo first = instances.get(0);
+            testRegistry.cancel(first.getAppName(), first.getId(), false);
+            verifyAllKeys(serverCodecs);
+
+            testRegistry.register(first, false);
+            testRegistry.statusUpdate(first.getAppName(), first.getId(), InstanceInfo.InstanceStatus.OUT_OF_SERVICE, null, false);
+            verifyAllKeys(serverCodecs);
+        } finally {
+            testRegistry.shutdown();
+        }
+    }
+
+    private void verifyAllKeys(ServerCodecs serverCodecs) throws Exception {
+        ResponseCacheImpl cache = (ResponseCacheImpl) testRegistry.getResponseCache();
+        Applications applications = testRegistry.getApplications();
+        for (Key.KeyType keyType : Key.KeyType.values()) {
+            for (EurekaAccept eurekaAccept : EurekaAccept.values()) {
+                Key key = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS, keyType, Version.V2, eurekaAccept);
+                if (eurekaAccept == EurekaAccept.binary) {
+                    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                    serverCodecs.getEncoder(keyType, eurekaAccept).encode(applications, expected);
+                    assertThat(key.toStringCompact(), cache.getValue(key, false).getBytes(), is(equalTo(expected.toByteArray())));
+                } else {
+                    String expected = serverCodecs.getEncoder(keyType, eurekaAccept).encode(applications);
+                    assertThat(key.toStringCompact(), cache.get(key, false), is(equalTo(expected)));
+                }
+            }
+        }
+    }
+}
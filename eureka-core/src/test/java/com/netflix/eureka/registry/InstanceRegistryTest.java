@@ -1,6 +1,13 @@
 package com.netflix.eureka.registry;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
@@ -9,9 +16,16 @@ import com.netflix.discovery.shared.Applications;
 import com.netflix.eureka.AbstractTester;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
@@ -223,4 +237,173 @@ public class InstanceRegistryTest extends AbstractTester {
         assertThat(testTask.getCompensationTimeMs(), is(10l));
         assertThat(testTask.getCompensationTimeMs(), is(0l));
     }
+
+    @Test
+    public void testLocalDeltaHashCodeMatchesRegistryWithConcurrentRegistrations() throws Exception {
+        final int instanceCount = 200;
+        Thread registrationThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < instanceCount; i++) {
+                    registerInstanceLocally(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME + i));
+                }
+            }
+        });
+        registrationThread.start();
+        while (registrationThread.isAlive()) {
+            registry.getApplicationDeltasFromMultipleRegions(new String[0]);
+        }
+        registrationThread.join();
+
+        Applications delta = registry.getApplicationDeltasFromMultipleRegions(new String[0]);
+        assertThat(delta.getAppsHashCode(), is(registry.getApplicationsFromLocalRegionOnly().getReconcileHashCode()));
+        assertThat(delta.getRegisteredApplications(LOCAL_REGION_APP_NAME).getInstances().size(), is(instanceCount));
+    }
+
+    @Test
+    public void testDeltaHashCodeTracksStatusTransitions() throws Exception {
+        InstanceInfo myInstance = createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME);
+        registerInstanceLocally(myInstance);
+        registerInstanceLocally(createLocalInstance(LOCAL_REGION_INSTANCE_2_HOSTNAME));
+        assertDeltaHashCodeMatchesLocalRegistry();
+
+        registry.statusUpdate(myInstance.getAppName(), myInstance.getId(), InstanceStatus.OUT_OF_SERVICE, null, false);
+        assertDeltaHashCodeMatchesLocalRegistry();
+
+        registry.deleteStatusOverride(myInstance.getAppName(), myInstance.getId(), InstanceStatus.UP, null, false);
+        assertDeltaHashCodeMatchesLocalRegistry();
+
+        // Re-registration replaces the existing lease
+        registerInstanceLocally(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME));
+        assertDeltaHashCodeMatchesLocalRegistry();
+
+        registry.cancel(myInstance.getAppName(), myInstance.getId(), false);
+        assertDeltaHashCodeMatchesLocalRegistry();
+
+        // Reconciliation leaves consistent counts unchanged
+        registry.reconcileInstanceCounts();
+        assertDeltaHashCodeMatchesLocalRegistry();
+    }
+
+    @Test
+    public void testApplicationsForVipFollowRegistrations() throws Exception {
+        InstanceInfo first = new InstanceInfo.Builder(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME))
+                .setVIPAddress("vipA,vipB").setSecureVIPAddress("secureVipA").build();
+        InstanceInfo second = new InstanceInfo.Builder(createLocalInstance(LOCAL_REGION_INSTANCE_2_HOSTNAME))
+                .setVIPAddress("vipB").build();
+        registerInstanceLocally(first);
+        registerInstanceLocally(second);
+
+        assertThat(registry.getApplicationsForVip("vipA", false).size(), is(1));
+        assertThat(registry.getApplicationsForVip("vipB", false).size(), is(2));
+        assertThat(registry.getApplicationsForVip("secureVipA", true).size(), is(1));
+        assertThat(registry.getApplicationsForVip("secureVipA", false).size(), is(0));
+
+        // Re-registration with a new vip moves the instance
+        registerInstanceLocally(new InstanceInfo.Builder(new InstanceInfo(first)).setVIPAddress("vipC").build());
+        assertThat(registry.getApplicationsForVip("vipA", false).size(), is(0));
+        assertThat(registry.getApplicationsForVip("vipB", false).size(), is(1));
+        assertThat(registry.getApplicationsForVip("vipC", false).size(), is(1));
+
+        registry.cancel(second.getAppName(), second.getId(), false);
+        assertThat(registry.getApplicationsForVip("vipB", false).size(), is(0));
+    }
+
+    @Test
+    public void testDeltaSinceReturnsLaterChangesOnly() throws Exception {
+        registerInstanceLocally(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME));
+        long firstVersion = registry.getApplicationDeltasFromMultipleRegions(new String[0]).getVersion();
+
+        registerInstanceLocally(createLocalInstance(LOCAL_REGION_INSTANCE_2_HOSTNAME));
+        Applications delta = registry.getApplicationDeltasSince(firstVersion, new String[0]);
+        assertThat(delta.size(), is(1));
+        assertThat(delta.getRegisteredApplications(LOCAL_REGION_APP_NAME).getInstances().get(0).getHostName(),
+                is(LOCAL_REGION_INSTANCE_2_HOSTNAME));
+        assertTrue(delta.getVersion() > firstVersion);
+        assertThat(delta.getAppsHashCode(), is(registry.getApplicationsFromLocalRegionOnly().getReconcileHashCode()));
+
+        // Nothing changed since the last delta
+        Applications emptyDelta = registry.getApplicationDeltasSince(delta.getVersion(), new String[0]);
+        assertThat(emptyDelta.size(), is(0));
+        assertThat(emptyDelta.getVersion(), is(delta.getVersion()));
+
+        // Versions not handed out by this registry
+        Assert.assertNull(registry.getApplicationDeltasSince(0, new String[0]));
+        Assert.assertNull(registry.getApplicationDeltasSince(delta.getVersion() + 1, new String[0]));
+
+        // Versions older than the log
+        registry.clearRegistry();
+        Assert.assertNull(registry.getApplicationDeltasSince(firstVersion, new String[0]));
+    }
+
+    @Test
+    public void testDeltaDoesNotWaitForRegistryModificationInProgress() throws Exception {
+        final CountDownLatch invalidating = new CountDownLatch(1);
+        final CountDownLatch modificationReleased = new CountDownLatch(1);
+        ResponseCache responseCache = registry.responseCache;
+        ResponseCache blockingResponseCache = mock(ResponseCache.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                invalidating.countDown();
+                modificationReleased.await();
+                return null;
+            }
+        }).when(blockingResponseCache).invalidate(anyString(), anyString(), anyString());
+        registry.responseCache = blockingResponseCache;
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            // The registration is held in progress until released
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    registerInstanceLocally(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME));
+                    return null;
+                }
+            });
+            assertTrue(invalidating.await(5, TimeUnit.SECONDS));
+
+            // The recorded change and its instance count are both visible to the delta
+            Applications delta = registry.getApplicationDeltasFromMultipleRegions(new String[0]);
+            assertThat(delta.size(), is(1));
+            assertThat(delta.getAppsHashCode(), is(registry.getApplicationsFromLocalRegionOnly().getReconcileHashCode()));
+        } finally {
+            modificationReleased.countDown();
+            executor.shutdownNow();
+            registry.responseCache = responseCache;
+        }
+    }
+
+    @Test
+    public void testReplicatedRenewalDoesNotAllocateInSteadyState() throws Exception {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported() && allocationMXBean.isThreadAllocatedMemoryEnabled());
+
+        InstanceInfo myInstance = createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME);
+        registerInstanceLocally(myInstance);
+
+        // Only replicated renewals are covered, as renewals from clients allocate the tasks replicating them to peers
+        int renewalCount = 100000;
+        long threadId = Thread.currentThread().getId();
+        // Let the JIT compile the renewal path first
+        for (int i = 0; i < renewalCount; i++) {
+            registry.renew(myInstance.getAppName(), myInstance.getId(), true);
+        }
+        long allocatedBefore = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < renewalCount; i++) {
+            registry.renew(myInstance.getAppName(), myInstance.getId(), true);
+        }
+        long allocated = allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Less than a byte per renewal leaves room for the measurement itself, but not for any per renewal object
+        assertTrue("Replicated renewals allocated " + allocated + " bytes", allocated < renewalCount);
+    }
+
+    private void assertDeltaHashCodeMatchesLocalRegistry() {
+        Applications delta = registry.getApplicationDeltasFromMultipleRegions(new String[0]);
+        assertThat(delta.getAppsHashCode(), is(registry.getApplicationsFromLocalRegionOnly().getReconcileHashCode()));
+    }
 }
@@ -0,0 +1,103 @@
+package com.netflix.eureka.registry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.AbstractTester;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static com.netflix.discovery.shared.transport.EurekaHttpResponse.anEurekaHttpResponse;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PeerRegistryBootstrapTest extends AbstractTester {
+
+    private static final int INSTANCE_COUNT = 20;
+    private static final int CHUNK_COUNT = 4;
+    private static final String BOOTSTRAP_VIP = "bootstrap.vip";
+
+    @Test
+    public void testRegistryChunksArePartitionedByApplication() throws Exception {
+        registerInstances();
+
+        int count = 0;
+        List<String> appNames = new ArrayList<>();
+        for (Applications chunk : takeChunks()) {
+            for (Application app : chunk.getRegisteredApplications()) {
+                assertThat("Application in more than one chunk", appNames.contains(app.getName()), is(false));
+                appNames.add(app.getName());
+                count += app.getInstances().size();
+            }
+        }
+        assertThat(count, is(INSTANCE_COUNT));
+    }
+
+    @Test
+    public void testRegistryIsTransferredFromPeersWithFailover() throws Exception {
+        registerInstances();
+        final Applications[] chunks = takeChunks();
+        registry.clearRegistry();
+        long versionBefore = registry.getApplicationDeltasFromMultipleRegions(null).getVersion();
+
+        PeerEurekaNode failingPeer = mock(PeerEurekaNode.class);
+        when(failingPeer.getRegistryChunk(anyInt(), anyInt())).thenThrow(new RuntimeException(new IOException("simulated network failure")));
+        PeerEurekaNode peer = mock(PeerEurekaNode.class);
+        when(peer.getRegistryChunk(anyInt(), anyInt())).thenAnswer(new Answer<EurekaHttpResponse<Applications>>() {
+            @Override
+            public EurekaHttpResponse<Applications> answer(InvocationOnMock invocation) throws Throwable {
+                return anEurekaHttpResponse(200, chunks[(Integer) invocation.getArguments()[0]]).build();
+            }
+        });
+
+        PeerRegistryBootstrap bootstrap = new PeerRegistryBootstrap(registry, Arrays.asList(failingPeer, peer), CHUNK_COUNT, 2);
+        assertThat(bootstrap.transfer(), is(INSTANCE_COUNT));
+        verify(failingPeer, atLeastOnce()).getRegistryChunk(anyInt(), anyInt());
+
+        assertThat(registry.getApplicationsFromLocalRegionOnly().size(), is(INSTANCE_COUNT));
+        assertThat(registry.getApplicationsForVip(BOOTSTRAP_VIP, false).size(), is(INSTANCE_COUNT));
+        // Bulk loaded instances are not in the delta history, so deltas from before the transfer are unavailable
+        assertThat(registry.getApplicationDeltasSince(versionBefore, null), is(nullValue()));
+    }
+
+    @Test
+    public void testTransferFailsIfChunkIsMissing() throws Exception {
+        PeerEurekaNode peer = mock(PeerEurekaNode.class);
+        when(peer.getRegistryChunk(anyInt(), anyInt())).thenReturn(anEurekaHttpResponse(403, Applications.class).build());
+
+        PeerRegistryBootstrap bootstrap = new PeerRegistryBootstrap(registry, Arrays.asList(peer), CHUNK_COUNT, 2);
+        assertThat(bootstrap.transfer(), is(-1));
+    }
+
+    private void registerInstances() {
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            InstanceInfo instance = new InstanceInfo.Builder(createLocalInstance("bootstrap-host-" + i))
+                    .setAppName("BOOTSTRAP_APP_" + (i % 10))
+                    .setVIPAddress(BOOTSTRAP_VIP)
+                    .build();
+            registry.register(instance, 10000000, false);
+        }
+    }
+
+    private Applications[] takeChunks() {
+        Applications[] chunks = new Applications[CHUNK_COUNT];
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            chunks[i] = registry.getApplicationsChunk(i, CHUNK_COUNT);
+        }
+        return chunks;
+    }
+}
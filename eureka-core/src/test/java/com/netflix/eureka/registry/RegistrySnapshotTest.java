@@ -0,0 +1,114 @@
+package com.netflix.eureka.registry;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.DefaultEurekaClientConfig;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.AbstractTester;
+import com.netflix.eureka.resources.DefaultServerCodecs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+public class RegistrySnapshotTest extends AbstractTester {
+
+    private File snapshotFile;
+    private PeerAwareInstanceRegistryImpl sourceRegistry;
+    private PeerAwareInstanceRegistryImpl restoredRegistry;
+
+    @Before
+    public void setUpSnapshot() throws Exception {
+        snapshotFile = File.createTempFile("eureka-registry", ".snapshot");
+        snapshotFile.delete();
+        doReturn(snapshotFile.getPath()).when(serverConfig).getRegistrySnapshotFile();
+        sourceRegistry = newSnapshotRegistry();
+        restoredRegistry = newSnapshotRegistry();
+    }
+
+    @After
+    public void tearDownSnapshot() throws Exception {
+        sourceRegistry.shutdown();
+        restoredRegistry.shutdown();
+        snapshotFile.delete();
+    }
+
+    @Test
+    public void testRegistryIsRestoredFromSnapshot() throws Exception {
+        InstanceInfo instance1 = createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME);
+        InstanceInfo instance2 = createLocalInstance(LOCAL_REGION_INSTANCE_2_HOSTNAME);
+        sourceRegistry.register(instance1, 10000000, false);
+        sourceRegistry.register(instance2, 10000000, false);
+        sourceRegistry.statusUpdate(LOCAL_REGION_APP_NAME, instance2.getId(), InstanceStatus.OUT_OF_SERVICE,
+                String.valueOf(instance2.getLastDirtyTimestamp()), true);
+        sourceRegistry.saveSnapshot();
+
+        long versionBefore = restoredRegistry.getApplicationDeltasFromMultipleRegions(null).getVersion();
+        assertThat(restoredRegistry.restoreSnapshot(), is(2));
+
+        Application app = restoredRegistry.getApplication(LOCAL_REGION_APP_NAME);
+        assertThat(app.getInstances().size(), is(2));
+        assertThat(app.getByInstanceId(instance1.getId()).getStatus(), is(InstanceStatus.UP));
+        assertThat(app.getByInstanceId(instance2.getId()).getStatus(), is(InstanceStatus.OUT_OF_SERVICE));
+        assertThat(restoredRegistry.overriddenInstanceStatusMap.get(instance2.getId()), is(InstanceStatus.OUT_OF_SERVICE));
+        // Deltas from before the restore are unavailable, so the clients fetch the full registry
+        assertThat(restoredRegistry.getApplicationDeltasSince(versionBefore, null), is(nullValue()));
+
+        // The snapshot is restored once only
+        assertThat(restoredRegistry.restoreSnapshot(), is(0));
+    }
+
+    @Test
+    public void testRestoredLeasesKeepTheirExpirationTime() throws Exception {
+        long now = System.currentTimeMillis();
+        long recentRenewal = now - TimeUnit.SECONDS.toMillis(30);
+        Application app = new Application(LOCAL_REGION_APP_NAME);
+        app.addInstance(withRenewalTimestamp(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME), recentRenewal));
+        app.addInstance(withRenewalTimestamp(createLocalInstance(LOCAL_REGION_INSTANCE_2_HOSTNAME),
+                now - TimeUnit.MINUTES.toMillis(10)));
+        Applications apps = new Applications();
+        apps.addApplication(app);
+        apps.setVersion(1L);
+        new RegistrySnapshotStore(snapshotFile, new DefaultServerCodecs(serverConfig).getFullJsonCodec())
+                .write(apps, Collections.<String, InstanceStatus>emptyMap());
+
+        assertThat(restoredRegistry.restoreSnapshot(), is(1));
+
+        InstanceInfo restored = restoredRegistry.getInstanceByAppAndId(LOCAL_REGION_APP_NAME, LOCAL_REGION_INSTANCE_1_HOSTNAME);
+        assertThat(restored, is(notNullValue()));
+        assertThat(restored.getLeaseInfo().getRenewalTimestamp(), is(recentRenewal));
+        assertThat(restoredRegistry.getInstanceByAppAndId(LOCAL_REGION_APP_NAME, LOCAL_REGION_INSTANCE_2_HOSTNAME), is(nullValue()));
+    }
+
+    @Test
+    public void testNothingIsRestoredWithoutSnapshot() throws Exception {
+        assertThat(restoredRegistry.restoreSnapshot(), is(0));
+        assertThat(restoredRegistry.getLocalRegistrySize(), is(0L));
+    }
+
+    private PeerAwareInstanceRegistryImpl newSnapshotRegistry() {
+        PeerAwareInstanceRegistryImpl snapshotRegistry = new PeerAwareInstanceRegistryImpl(
+                serverConfig, new DefaultEurekaClientConfig(), new DefaultServerCodecs(serverConfig), client);
+        snapshotRegistry.initializedResponseCache();
+        return snapshotRegistry;
+    }
+
+    private static InstanceInfo withRenewalTimestamp(InstanceInfo instance, long renewalTimestamp) {
+        instance.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                .setRenewalTimestamp(renewalTimestamp)
+                .setDurationInSecs(90)
+                .build());
+        return instance;
+    }
+}
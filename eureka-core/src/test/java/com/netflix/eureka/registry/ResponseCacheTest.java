@@ -1,6 +1,10 @@
 package com.netflix.eureka.registry;
 
+import java.util.Arrays;
+
 import com.netflix.appinfo.EurekaAccept;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.DefaultEurekaClientConfig;
 import com.netflix.eureka.AbstractTester;
 import com.netflix.eureka.DefaultEurekaServerConfig;
@@ -10,9 +14,13 @@ import com.netflix.eureka.resources.DefaultServerCodecs;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Nitesh Kant
@@ -20,6 +28,7 @@ import static org.mockito.Mockito.spy;
 public class ResponseCacheTest extends AbstractTester {
 
     private static final String REMOTE_REGION = "myremote";
+    private static final String LOCAL_VIP_ADDRESS = "localvip";
 
     private PeerAwareInstanceRegistry testRegistry;
 
@@ -91,4 +100,244 @@ public class ResponseCacheTest extends AbstractTester {
         Assert.assertNull("Cache after invalidate did not return null.", cache.get(key1, true));
         Assert.assertNull("Cache after invalidate did not return null.", cache.get(key2, true));
     }
+
+    @Test
+    public void testInvalidateRefreshesBinaryVipPayload() throws Exception {
+        ResponseCacheImpl cache = (ResponseCacheImpl) testRegistry.getResponseCache();
+        InstanceInfo instance = new InstanceInfo.Builder(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME))
+                .setVIPAddress(LOCAL_VIP_ADDRESS)
+                .build();
+        testRegistry.register(instance, 10000000, false);
+        Key key = new Key(Key.EntityType.VIP, LOCAL_VIP_ADDRESS, Key.KeyType.JSON, Version.V2, EurekaAccept.binary);
+        byte[] payload = cache.getValue(key, false).getBytes();
+        Assert.assertTrue("Cache returned an empty binary vip payload.", payload.length > 0);
+
+        testRegistry.statusUpdate(instance.getAppName(), instance.getId(), InstanceInfo.InstanceStatus.OUT_OF_SERVICE, null, false);
+        Assert.assertFalse("Binary vip payload should be refreshed after an instance change.",
+                Arrays.equals(payload, cache.getValue(key, false).getBytes()));
+    }
+
+    @Test
+    public void testGetBytesReturnsUtf8EncodedPayload() throws Exception {
+        ResponseCacheImpl cache = (ResponseCacheImpl) testRegistry.getResponseCache();
+        Key key = new Key(Key.EntityType.Application, REMOTE_REGION_APP_NAME,
+                Key.KeyType.JSON, Version.V1, EurekaAccept.full);
+
+        byte[] bytes = cache.getBytes(key);
+        Assert.assertNotNull("Cache getBytes returned null.", bytes);
+        Assert.assertEquals(cache.get(key), new String(bytes, "UTF-8"));
+        Assert.assertSame("Cached bytes should be returned without copying.", bytes, cache.getBytes(key));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetRejectsBinaryKey() throws Exception {
+        ResponseCacheImpl cache = (ResponseCacheImpl) testRegistry.getResponseCache();
+        cache.get(new Key(Key.EntityType.Application, REMOTE_REGION_APP_NAME,
+                Key.KeyType.JSON, Version.V2, EurekaAccept.binary));
+    }
+
+    @Test
+    public void testDeltaSinceIsCachedUntilRegistryChange() throws Exception {
+        ResponseCacheImpl cache = (ResponseCacheImpl) testRegistry.getResponseCache();
+        Key key = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS_DELTA,
+                Key.KeyType.JSON, Version.V2, EurekaAccept.full);
+        long sinceVersion = ((AbstractInstanceRegistry) testRegistry).getApplicationDeltasFromMultipleRegions(null).getVersion();
+
+        byte[] payload = cache.getDeltaSince(key, sinceVersion);
+        Assert.assertNotNull("Cache getDeltaSince returned null.", payload);
+        Assert.assertSame("Delta since the same version should be cached.", payload, cache.getDeltaSince(key, sinceVersion));
+        Assert.assertNotNull("Cache getDeltaSinceGZIP returned null.", cache.getDeltaSinceGZIP(key, sinceVersion));
+
+        testRegistry.register(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME), 10000000, false);
+        byte[] newPayload = cache.getDeltaSince(key, sinceVersion);
+        Assert.assertNotSame("Delta since should be regenerated after a registry change.", payload, newPayload);
+        Assert.assertTrue(new String(newPayload, "UTF-8").contains(LOCAL_REGION_INSTANCE_1_HOSTNAME));
+    }
+
+    @Test
+    public void testWaitForDeltaAfterReturnsOnRegistryChange() throws Exception {
+        ResponseCacheImpl cache = (ResponseCacheImpl) testRegistry.getResponseCache();
+        final Key key = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS_DELTA,
+                Key.KeyType.JSON, Version.V2, EurekaAccept.full);
+        long lastSeenVersion = cache.getValue(key, true).getDeltaVersion();
+
+        Assert.assertFalse("No newer delta without registry changes.", cache.waitForDeltaAfter(key, lastSeenVersion, 50));
+
+        Thread registration = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                testRegistry.register(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME), 10000000, false);
+            }
+        };
+        registration.start();
+        long startTime = System.currentTimeMillis();
+        Assert.assertTrue("Newer delta expected after a registration.", cache.waitForDeltaAfter(key, lastSeenVersion, 30000));
+        Assert.assertTrue(System.currentTimeMillis() - startTime < 30000);
+        Assert.assertTrue("Newer delta should be published to the read only cache.",
+                cache.getValue(key, true).getDeltaVersion() > lastSeenVersion);
+        registration.join();
+    }
+
+    @Test
+    public void testWaitForDeltaAfterReturnsOnRemoteRegionUpdate() throws Exception {
+        final ResponseCacheImpl cache = (ResponseCacheImpl) testRegistry.getResponseCache();
+        Key key = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS_DELTA,
+                Key.KeyType.JSON, Version.V2, EurekaAccept.full, new String[]{REMOTE_REGION});
+        long lastSeenVersion = cache.getValue(key, true).getDeltaVersion();
+
+        Thread remoteRegionFetch = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                cache.invalidateRemoteRegionDeltas();
+            }
+        };
+        remoteRegionFetch.start();
+        long startTime = System.currentTimeMillis();
+        Assert.assertTrue("Remote region delta expected after a remote region fetch.",
+                cache.waitForDeltaAfter(key, lastSeenVersion, 30000));
+        Assert.assertTrue(System.currentTimeMillis() - startTime < 30000);
+        remoteRegionFetch.join();
+    }
+
+    @Test
+    public void testInvalidationsAreRegeneratedAfterTheWindow() throws Exception {
+        EurekaServerConfig serverConfig = spy(new DefaultEurekaServerConfig());
+        doReturn(true).when(serverConfig).disableTransparentFallbackToOtherRegion();
+        doReturn(60000L).when(serverConfig).getResponseCacheInvalidationWindowMs();
+        PeerAwareInstanceRegistry registry = new PeerAwareInstanceRegistryImpl(
+                serverConfig,
+                new DefaultEurekaClientConfig(),
+                new DefaultServerCodecs(serverConfig),
+                client
+        );
+        registry.init(serverContext.getPeerEurekaNodes());
+        registry.syncUp();
+
+        ResponseCacheImpl cache = (ResponseCacheImpl) registry.getResponseCache();
+        Key appKey = new Key(Key.EntityType.Application, REMOTE_REGION_APP_NAME,
+                Key.KeyType.JSON, Version.V1, EurekaAccept.full);
+        Key allAppsKey = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS,
+                Key.KeyType.JSON, Version.V1, EurekaAccept.full);
+        ResponseCacheImpl.Value appPayload = cache.getValue(appKey, false);
+        ResponseCacheImpl.Value allAppsPayload = cache.getValue(allAppsKey, false);
+        Assert.assertFalse("Cache get returned an empty payload.", appPayload.isEmpty());
+
+        registry.cancel(REMOTE_REGION_APP_NAME, REMOTE_REGION_INSTANCE_1_HOSTNAME, true);
+        Assert.assertSame("Previous payload should be served within the window.", appPayload, cache.getValue(appKey, false));
+        Assert.assertSame(allAppsPayload, cache.getValue(allAppsKey, false));
+
+        cache.regenerateInvalidated();
+        Assert.assertTrue("Regenerated payload should reflect the cancel.", cache.getValue(appKey, false).isEmpty());
+        Assert.assertNotSame(allAppsPayload, cache.getValue(allAppsKey, false));
+    }
+
+    @Test
+    public void testRegenerationOverlappingInvalidateAllIsDropped() throws Exception {
+        EurekaServerConfig serverConfig = spy(new DefaultEurekaServerConfig());
+        doReturn(60000L).when(serverConfig).getResponseCacheInvalidationWindowMs();
+        AbstractInstanceRegistry registry = mock(AbstractInstanceRegistry.class);
+        final ResponseCacheImpl cache = new ResponseCacheImpl(serverConfig, new DefaultServerCodecs(serverConfig), registry);
+
+        final Application before = new Application(LOCAL_REGION_APP_NAME);
+        before.addInstance(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME));
+        Application after = new Application(LOCAL_REGION_APP_NAME);
+        after.addInstance(createLocalOutOfServiceInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME));
+        when(registry.getApplication(LOCAL_REGION_APP_NAME)).thenReturn(before).thenAnswer(new Answer<Application>() {
+            @Override
+            public Application answer(InvocationOnMock invocation) {
+                // All payloads get invalidated while this one is regenerated from the previous state
+                cache.invalidateAll();
+                return before;
+            }
+        }).thenReturn(after);
+
+        Key key = new Key(Key.EntityType.Application, LOCAL_REGION_APP_NAME,
+                Key.KeyType.JSON, Version.V2, EurekaAccept.full);
+        Assert.assertTrue(cache.get(key, false).contains(InstanceInfo.InstanceStatus.UP.name()));
+
+        cache.invalidate(LOCAL_REGION_APP_NAME, null, null);
+        cache.regenerateInvalidated();
+        Assert.assertTrue("Payload regenerated before invalidateAll should be dropped.",
+                cache.get(key, false).contains(InstanceInfo.InstanceStatus.OUT_OF_SERVICE.name()));
+    }
+
+    @Test
+    public void testFillReadOnlyCacheRegeneratesInvalidatedPayloads() throws Exception {
+        EurekaServerConfig serverConfig = spy(new DefaultEurekaServerConfig());
+        doReturn(true).when(serverConfig).disableTransparentFallbackToOtherRegion();
+        doReturn(4).when(serverConfig).getResponseCacheFillThreads();
+        PeerAwareInstanceRegistry registry = new PeerAwareInstanceRegistryImpl(
+                serverConfig,
+                new DefaultEurekaClientConfig(),
+                new DefaultServerCodecs(serverConfig),
+                client
+        );
+        registry.init(serverContext.getPeerEurekaNodes());
+        registry.syncUp();
+
+        ResponseCacheImpl cache = (ResponseCacheImpl) registry.getResponseCache();
+        Key appKey = new Key(Key.EntityType.Application, REMOTE_REGION_APP_NAME,
+                Key.KeyType.JSON, Version.V1, EurekaAccept.full);
+        Key allAppsKey = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS,
+                Key.KeyType.JSON, Version.V1, EurekaAccept.full);
+        ResponseCacheImpl.Value appPayload = cache.getValue(appKey, true);
+        ResponseCacheImpl.Value allAppsPayload = cache.getValue(allAppsKey, true);
+        Assert.assertFalse("Cache get returned an empty payload.", appPayload.isEmpty());
+
+        registry.cancel(REMOTE_REGION_APP_NAME, REMOTE_REGION_INSTANCE_1_HOSTNAME, true);
+        Assert.assertSame("Read only cache should not change before its update.", appPayload, cache.getValue(appKey, true));
+
+        cache.fillReadOnlyCache();
+        Assert.assertTrue("Regenerated payload should reflect the cancel.", cache.getValue(appKey, true).isEmpty());
+        Assert.assertNotSame(allAppsPayload, cache.getValue(allAppsKey, true));
+    }
+
+    @Test
+    public void testColdKeysAreEvictedFromBothCaches() throws Exception {
+        EurekaServerConfig serverConfig = spy(new DefaultEurekaServerConfig());
+        doReturn(true).when(serverConfig).disableTransparentFallbackToOtherRegion();
+        doReturn(600L).when(serverConfig).getResponseCacheColdKeyRetentionSeconds();
+        PeerAwareInstanceRegistry registry = new PeerAwareInstanceRegistryImpl(
+                serverConfig,
+                new DefaultEurekaClientConfig(),
+                new DefaultServerCodecs(serverConfig),
+                client
+        );
+        registry.init(serverContext.getPeerEurekaNodes());
+        registry.syncUp();
+
+        ResponseCacheImpl cache = (ResponseCacheImpl) registry.getResponseCache();
+        Key coldKey = new Key(Key.EntityType.Application, REMOTE_REGION_APP_NAME,
+                Key.KeyType.JSON, Version.V1, EurekaAccept.full);
+        Key hotKey = new Key(Key.EntityType.Application, ResponseCacheImpl.ALL_APPS,
+                Key.KeyType.JSON, Version.V1, EurekaAccept.full);
+        cache.getValue(coldKey, true);
+        Thread.sleep(5);
+        long requestedSinceMs = System.currentTimeMillis();
+        Thread.sleep(5);
+        cache.getValue(hotKey, true);
+        cache.getValue(hotKey, true);
+        Assert.assertEquals(1, cache.getRequestCount(coldKey));
+        Assert.assertEquals(2, cache.getRequestCount(hotKey));
+        Assert.assertEquals(1, cache.getReadOnlyHitCount());
+        Assert.assertEquals(2, cache.getReadOnlyMissCount());
+
+        cache.evictColdKeys(requestedSinceMs);
+        Assert.assertEquals(1, cache.getColdKeyEvictionCount());
+        Assert.assertEquals(1, cache.getReadOnlySize());
+        Assert.assertEquals(1, cache.getCurrentSize());
+        Assert.assertEquals(0, cache.getRequestCount(coldKey));
+        Assert.assertEquals(2, cache.getRequestCount(hotKey));
+        Assert.assertNotNull("Evicted payload should be generated again.", cache.getValue(coldKey, true));
+    }
 }
@@ -0,0 +1,69 @@
+package com.netflix.eureka.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.eureka.lease.Lease;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class VipLeaseIndexTest {
+
+    private final VipLeaseIndex index = new VipLeaseIndex();
+
+    @Test
+    public void testLeaseSetIsDroppedOnceEmpty() throws Exception {
+        Lease<InstanceInfo> lease = newLease("test.vip");
+        index.add(lease);
+        assertThat(index.getLeases("test.vip", false).size(), is(1));
+
+        index.remove(lease);
+        assertThat(index.getLeases("test.vip", false).isEmpty(), is(true));
+        assertThat(index.vipAddressCount(), is(0));
+    }
+
+    @Test
+    public void testNoLeaseIsLostWhenAddedConcurrentlyWithRemovals() throws Exception {
+        final Lease<InstanceInfo> kept = newLease("test.vip");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j = 0; j < 10000; j++) {
+                            Lease<InstanceInfo> transientLease = newLease("test.vip");
+                            index.add(transientLease);
+                            index.remove(transientLease);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            index.add(kept);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(index.getLeases("test.vip", false).contains(kept), is(true));
+    }
+
+    private static Lease<InstanceInfo> newLease(String vipAddress) {
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder()
+                .setAppName("TEST_APP")
+                .setHostName("test.host")
+                .setVIPAddress(vipAddress)
+                .build();
+        return new Lease<>(instance, 90);
+    }
+}
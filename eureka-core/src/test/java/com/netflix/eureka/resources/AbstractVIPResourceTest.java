@@ -37,8 +37,9 @@ public class AbstractVIPResourceTest extends AbstractTester {
 
         resource = new AbstractVIPResource(serverContext) {
             @Override
-            protected Response getVipResponse(String version, String entityName, String acceptHeader, EurekaAccept eurekaAccept, Key.EntityType entityType) {
-                return super.getVipResponse(version, entityName, acceptHeader, eurekaAccept, entityType);
+            protected Response getVipResponse(String version, String entityName, String acceptHeader, String acceptEncoding,
+                                              EurekaAccept eurekaAccept, Key.EntityType entityType) {
+                return super.getVipResponse(version, entityName, acceptHeader, acceptEncoding, eurekaAccept, entityType);
             }
         };
 
@@ -59,11 +60,12 @@ public class AbstractVIPResourceTest extends AbstractTester {
                 Version.V2.name(),
                 vipName,
                 MediaType.APPLICATION_JSON,
+                null,
                 EurekaAccept.full,
                 Key.EntityType.VIP
         );
 
-        String json = String.valueOf(response.getEntity());
+        String json = new String((byte[]) response.getEntity(), "UTF-8");
         DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.LegacyJacksonJson.class);
 
         Applications decodedApps = decoder.decode(json, Applications.class);
@@ -77,11 +79,12 @@ public class AbstractVIPResourceTest extends AbstractTester {
                 Version.V2.name(),
                 vipName,
                 MediaType.APPLICATION_JSON,
+                null,
                 EurekaAccept.compact,
                 Key.EntityType.VIP
         );
 
-        String json = String.valueOf(response.getEntity());
+        String json = new String((byte[]) response.getEntity(), "UTF-8");
         DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.LegacyJacksonJson.class);
 
         Applications decodedApps = decoder.decode(json, Applications.class);
@@ -17,6 +17,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
 import javax.ws.rs.core.Response;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -51,10 +53,11 @@ public class ApplicationResourceTest extends AbstractTester {
         Response response = applicationResource.getApplication(
                 Version.V2.name(),
                 MediaType.APPLICATION_JSON,
+                null,
                 EurekaAccept.full.name()
         );
 
-        String json = String.valueOf(response.getEntity());
+        String json = new String((byte[]) response.getEntity(), "UTF-8");
         DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.LegacyJacksonJson.class);
 
         Application decodedApp = decoder.decode(json, Application.class);
@@ -66,10 +69,11 @@ public class ApplicationResourceTest extends AbstractTester {
         Response response = applicationResource.getApplication(
                 Version.V2.name(),
                 MediaType.APPLICATION_JSON,
+                null,
                 EurekaAccept.compact.name()
         );
 
-        String json = String.valueOf(response.getEntity());
+        String json = new String((byte[]) response.getEntity(), "UTF-8");
         DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.LegacyJacksonJson.class);
 
         Application decodedApp = decoder.decode(json, Application.class);
@@ -82,6 +86,23 @@ public class ApplicationResourceTest extends AbstractTester {
         }
     }
 
+    @Test
+    public void testGzippedAppGet() throws Exception {
+        Response response = applicationResource.getApplication(
+                Version.V2.name(),
+                MediaType.APPLICATION_JSON,
+                "gzip",
+                EurekaAccept.full.name()
+        );
+
+        assertThat(response.getMetadata().getFirst("Content-Encoding"), is((Object) "gzip"));
+        GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getEntity()));
+        DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.LegacyJacksonJson.class);
+
+        Application decodedApp = decoder.decode(gzipStream, Application.class);
+        assertThat(EurekaEntityComparators.equal(testApplication, decodedApp), is(true));
+    }
+
     @Test
     public void testGoodRegistration() throws Exception {
         InstanceInfo noIdInfo = InstanceInfoGenerator.takeOne();
@@ -2,6 +2,7 @@ package com.netflix.eureka.resources;
 
 import com.netflix.appinfo.EurekaAccept;
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.converters.EurekaBinaryCodec;
 import com.netflix.discovery.util.EurekaEntityComparators;
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
 import com.netflix.discovery.converters.wrappers.DecoderWrapper;
@@ -15,6 +16,7 @@ import org.junit.Test;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -53,7 +55,7 @@ public class ApplicationsResourceTest extends AbstractTester {
                 null  // remote regions
         );
 
-        String json = String.valueOf(response.getEntity());
+        String json = new String((byte[]) response.getEntity(), "UTF-8");
         DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.LegacyJacksonJson.class);
 
         Applications decoded = decoder.decode(json, Applications.class);
@@ -105,7 +107,7 @@ public class ApplicationsResourceTest extends AbstractTester {
                 null  // remote regions
         );
 
-        String json = String.valueOf(response.getEntity());
+        String json = new String((byte[]) response.getEntity(), "UTF-8");
         DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.LegacyJacksonJson.class);
 
         Applications decoded = decoder.decode(json, Applications.class);
@@ -126,4 +128,26 @@ public class ApplicationsResourceTest extends AbstractTester {
             }
         }
     }
+
+    @Test
+    public void testBinaryAppsGet() throws Exception {
+        Response response = applicationsResource.getContainers(
+                Version.V2.name(),
+                MediaType.APPLICATION_JSON,
+                null, // encoding
+                EurekaAccept.binary.name(),
+                null,  // uriInfo
+                null  // remote regions
+        );
+
+        assertThat(response.getMetadata().getFirst("Content-Type").toString(), is(EurekaBinaryCodec.APPLICATION_EUREKA_BINARY));
+        DecoderWrapper decoder = CodecWrappers.getDecoder(CodecWrappers.EurekaBinary.class);
+
+        Applications decoded = decoder.decode(new ByteArrayInputStream((byte[]) response.getEntity()), Applications.class);
+        // test per app as the full apps list include the mock server that is not part of the test apps
+        for (Application application : testApplications.getRegisteredApplications()) {
+            Application decodedApp = decoded.getRegisteredApplications(application.getName());
+            assertThat(EurekaEntityComparators.equal(application, decodedApp), is(true));
+        }
+    }
 }
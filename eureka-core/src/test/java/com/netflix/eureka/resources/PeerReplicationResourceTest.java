@@ -3,9 +3,11 @@ package com.netflix.eureka.resources;
 import javax.ws.rs.core.Response;
 
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import com.netflix.discovery.shared.transport.ClusterSampleData;
 import com.netflix.eureka.EurekaServerContext;
 import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl.Action;
+import com.netflix.eureka.cluster.protocol.ReplicationHeartbeatList;
 import com.netflix.eureka.cluster.protocol.ReplicationInstance;
 import com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse;
 import com.netflix.eureka.cluster.protocol.ReplicationList;
@@ -81,6 +83,24 @@ public class PeerReplicationResourceTest {
         );
     }
 
+    @Test
+    public void testHeartbeatBatch() throws Exception {
+        when(instanceResource.renewLease(anyString(), anyString(), anyString(), anyString())).thenReturn(Response.ok().build());
+
+        ReplicationHeartbeatList heartbeatList = new ReplicationHeartbeatList();
+        heartbeatList.addHeartbeat(instanceInfo.getAppName(), instanceInfo.getId(), instanceInfo.getLastDirtyTimestamp(),
+                instanceInfo.getStatus().name(), InstanceStatus.OUT_OF_SERVICE.name());
+        Response response = peerReplicationResource.batchHeartbeats(heartbeatList);
+
+        assertStatusOkReply(response);
+        verify(instanceResource, times(1)).renewLease(
+                "true",
+                InstanceStatus.OUT_OF_SERVICE.name(),
+                instanceInfo.getStatus().name(),
+                Long.toString(instanceInfo.getLastDirtyTimestamp())
+        );
+    }
+
     @Test
     public void testStatusUpdate() throws Exception {
         when(instanceResource.statusUpdate(anyString(), anyString(), anyString())).thenReturn(Response.ok().build());
@@ -130,6 +130,26 @@ public class AcceptorExecutorTest {
         assertThat(taskHolders.size(), is(equalTo(2)));
     }
 
+    @Test
+    public void testFullBatchIsDispatchedWithoutDelayWhenBatchingIsAdaptive() throws Exception {
+        AcceptorExecutor<Integer, String> adaptiveExecutor = new AcceptorExecutor<>(
+                "TEST", MAX_BUFFER_SIZE, WORK_LOAD_SIZE, 60 * 1000,
+                SERVER_UNAVAILABLE_SLEEP_TIME_MS, RETRY_SLEEP_TIME_MS, true
+        );
+        try {
+            BlockingQueue<List<TaskHolder<Integer, String>>> taskQueue = adaptiveExecutor.requestWorkItems();
+
+            adaptiveExecutor.process(1, "Task1", System.currentTimeMillis() + 60 * 1000);
+            adaptiveExecutor.process(2, "Task2", System.currentTimeMillis() + 60 * 1000);
+
+            List<TaskHolder<Integer, String>> taskHolders = taskQueue.poll(5, TimeUnit.SECONDS);
+            assertThat(taskHolders, is(notNullValue()));
+            assertThat(taskHolders.size(), is(equalTo(WORK_LOAD_SIZE)));
+        } finally {
+            adaptiveExecutor.shutdown();
+        }
+    }
+
     private static void verifyTaskHolder(TaskHolder<Integer, String> taskHolder, int id, String task) {
         assertThat(taskHolder, is(notNullValue()));
         assertThat(taskHolder.getId(), is(equalTo(id)));
@@ -0,0 +1,79 @@
+package com.netflix.eureka.util.batcher;
+
+import com.netflix.eureka.util.batcher.TaskProcessor.ProcessingResult;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AdaptiveBatchingControllerTest {
+
+    private static final int MAX_BATCH_SIZE = 110;
+    private static final long MAX_BATCHING_DELAY_MS = 500;
+
+    private final AdaptiveBatchingController controller = new AdaptiveBatchingController(MAX_BATCH_SIZE, MAX_BATCHING_DELAY_MS);
+
+    @Test
+    public void testBatchSizeGrowsAdditivelyWhileBacklogged() throws Exception {
+        assertThat(controller.getBatchSize(), is(equalTo(AdaptiveBatchingController.MIN_BATCH_SIZE)));
+
+        completeFullBatch(20);
+        assertThat(controller.getBatchSize(), is(equalTo(20)));
+        completeFullBatch(20);
+        assertThat(controller.getBatchSize(), is(equalTo(30)));
+
+        for (int i = 0; i < 20; i++) {
+            completeFullBatch(20);
+        }
+        assertThat(controller.getBatchSize(), is(equalTo(MAX_BATCH_SIZE)));
+    }
+
+    @Test
+    public void testBatchSizeDoesNotGrowWithoutBacklog() throws Exception {
+        controller.registerBatchAssigned(1);
+        controller.registerBatchResult(1, 20, ProcessingResult.Success);
+
+        assertThat(controller.getBatchSize(), is(equalTo(AdaptiveBatchingController.MIN_BATCH_SIZE)));
+    }
+
+    @Test
+    public void testBatchSizeIsHalvedOnCongestionAndSlowRoundTrips() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            completeFullBatch(20);
+        }
+        assertThat(controller.getBatchSize(), is(equalTo(MAX_BATCH_SIZE)));
+
+        controller.registerBatchResult(MAX_BATCH_SIZE, 20, ProcessingResult.Congestion);
+        assertThat(controller.getBatchSize(), is(equalTo(MAX_BATCH_SIZE / 2)));
+
+        controller.registerBatchResult(MAX_BATCH_SIZE / 2, MAX_BATCHING_DELAY_MS + 1, ProcessingResult.Success);
+        assertThat(controller.getBatchSize(), is(equalTo(MAX_BATCH_SIZE / 4)));
+
+        controller.registerBatchResult(MAX_BATCH_SIZE / 4, 20, ProcessingResult.TransientError);
+        controller.registerBatchResult(MAX_BATCH_SIZE / 4, 20, ProcessingResult.TransientError);
+        assertThat(controller.getBatchSize(), is(equalTo(AdaptiveBatchingController.MIN_BATCH_SIZE)));
+    }
+
+    @Test
+    public void testBatchingDelayFollowsRoundTripTime() throws Exception {
+        assertThat(controller.getBatchingDelay(), is(equalTo(MAX_BATCHING_DELAY_MS)));
+
+        controller.registerBatchResult(1, 50, ProcessingResult.Success);
+        assertThat(controller.getBatchingDelay(), is(equalTo(50L)));
+
+        controller.registerBatchResult(1, 1, ProcessingResult.Success);
+        assertThat(controller.getBatchingDelay(), is(equalTo(40L)));
+
+        for (int i = 0; i < 50; i++) {
+            controller.registerBatchResult(1, 0, ProcessingResult.Success);
+        }
+        assertThat(controller.getBatchingDelay(), is(equalTo(AdaptiveBatchingController.MIN_BATCHING_DELAY_MS)));
+    }
+
+    private void completeFullBatch(long roundTripTimeMs) {
+        int size = controller.getBatchSize();
+        controller.registerBatchAssigned(size);
+        controller.registerBatchResult(size, roundTripTimeMs, ProcessingResult.Success);
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.netflix.eureka.util.batcher;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -98,6 +99,29 @@ public class TaskExecutorsTest {
         verify(acceptorExecutor, timeout(500).times(1)).reprocess(taskHolderBatch, ProcessingResult.TransientError);
     }
 
+    @Test
+    public void testBatchProcessingWithTransientErrorOfPartOfBatch() throws Exception {
+        // Completes the tasks expected to succeed, and leaves the rest to be rescheduled
+        TaskProcessor<ProcessingResult> partialProcessor = new TaskProcessor<ProcessingResult>() {
+            @Override
+            public ProcessingResult process(ProcessingResult task) {
+                return task;
+            }
+
+            @Override
+            public ProcessingResult process(List<ProcessingResult> tasks) {
+                tasks.removeAll(Collections.singleton(ProcessingResult.Success));
+                return ProcessingResult.TransientError;
+            }
+        };
+        taskExecutors = TaskExecutors.batchExecutors("TEST", 1, partialProcessor, acceptorExecutor);
+
+        TaskHolder<Integer, ProcessingResult> failedHolder = transientErrorTaskHolder(2);
+        taskBatchQueue.add(asList(successfulTaskHolder(1), failedHolder));
+
+        verify(acceptorExecutor, timeout(500).times(1)).reprocess(asList(failedHolder), ProcessingResult.TransientError);
+    }
+
     @Test
     public void testSingleItemProcessingWithPermanentError() throws Exception {
         taskExecutors = TaskExecutors.singleItemExecutors("TEST", 1, processor, acceptorExecutor);
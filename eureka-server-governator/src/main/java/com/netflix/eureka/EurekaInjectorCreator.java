@@ -34,6 +34,7 @@ public class EurekaInjectorCreator {
                                     filter("/*").through(StatusFilter.class);
                                     filter("/*").through(ServerRequestAuthFilter.class);
                                     filter("/v2/apps", "/v2/apps/*").through(GzipEncodingEnforcingFilter.class);
+                                    filter("/v2/apps").through(GzipRegistryFetchFilter.class);
                                     //filter("/*").through(RateLimitingFilter.class);  // enable if needed
 
                                     // REST
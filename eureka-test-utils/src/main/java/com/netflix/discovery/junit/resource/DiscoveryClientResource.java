@@ -53,6 +53,9 @@ public class DiscoveryClientResource extends ExternalResource {
     private final Callable<Integer> portResolverCallable;
     private final List<String> remoteRegions;
     private final String vipFetch;
+    private final boolean registrySnapshots;
+    private final boolean deltaLongPolling;
+    private final boolean versionedDelta;
     private final String userName;
     private final String password;
 
@@ -71,6 +74,9 @@ public class DiscoveryClientResource extends ExternalResource {
         this.instance = builder.instance;
         this.remoteRegions = builder.remoteRegions;
         this.vipFetch = builder.vipFetch;
+        this.registrySnapshots = builder.registrySnapshots;
+        this.deltaLongPolling = builder.deltaLongPolling;
+        this.versionedDelta = builder.versionedDelta;
         this.userName = builder.userName;
         this.password = builder.password;
     }
@@ -182,6 +188,9 @@ public class DiscoveryClientResource extends ExternalResource {
         if (vipFetch != null) {
             bindProperty(EUREKA_TEST_NAMESPACE + "registryRefreshSingleVipAddress", vipFetch);
         }
+        bindProperty(EUREKA_TEST_NAMESPACE + "shouldUseRegistrySnapshots", Boolean.toString(registrySnapshots));
+        bindProperty(EUREKA_TEST_NAMESPACE + "shouldUseDeltaLongPolling", Boolean.toString(deltaLongPolling));
+        bindProperty(EUREKA_TEST_NAMESPACE + "shouldUseVersionedDelta", Boolean.toString(versionedDelta));
 
         return new DefaultEurekaClientConfig(EUREKA_TEST_NAMESPACE);
     }
@@ -219,6 +228,9 @@ public class DiscoveryClientResource extends ExternalResource {
                 .withPortResolver(portResolverCallable)
                 .withRegistration(registrationEnabled)
                 .withRegistryFetch(registryFetchEnabled)
+                .withRegistrySnapshots(registrySnapshots)
+                .withDeltaLongPolling(deltaLongPolling)
+                .withVersionedDelta(versionedDelta)
                 .withRemoteRegions(remoteRegions.toArray(new String[remoteRegions.size()]));
     }
 
@@ -294,6 +306,9 @@ public class DiscoveryClientResource extends ExternalResource {
         private SimpleEurekaHttpServer eurekaHttpServer;
         private List<String> remoteRegions;
         private String vipFetch;
+        private boolean registrySnapshots;
+        private boolean deltaLongPolling;
+        private boolean versionedDelta;
         private String userName;
         private String password;
 
@@ -335,6 +350,21 @@ public class DiscoveryClientResource extends ExternalResource {
             return this;
         }
 
+        public DiscoveryClientRuleBuilder withRegistrySnapshots(boolean enabled) {
+            this.registrySnapshots = enabled;
+            return this;
+        }
+
+        public DiscoveryClientRuleBuilder withDeltaLongPolling(boolean enabled) {
+            this.deltaLongPolling = enabled;
+            return this;
+        }
+
+        public DiscoveryClientRuleBuilder withVersionedDelta(boolean enabled) {
+            this.versionedDelta = enabled;
+            return this;
+        }
+
         public DiscoveryClientRuleBuilder basicAuthentication(String userName, String password) {
             Preconditions.checkNotNull(userName, "HTTP basic authentication user name is null");
             Preconditions.checkNotNull(password, "HTTP basic authentication password is null");
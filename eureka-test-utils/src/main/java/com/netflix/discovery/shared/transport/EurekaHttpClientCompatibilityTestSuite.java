@@ -160,6 +160,24 @@ public abstract class EurekaHttpClientCompatibilityTestSuite {
         verifyResponseOkWithEntity(delta, httpResponse);
     }
 
+    @Test
+    public void testLongPollDeltaRequest() throws Exception {
+        Applications delta = InstanceInfoGenerator.newBuilder(2, 1).build().takeDelta(2);
+        when(requestHandler.longPollDelta(5, 1000)).thenReturn(createResponse(delta));
+
+        EurekaHttpResponse<Applications> httpResponse = getEurekaHttpClient().longPollDelta(5, 1000);
+        verifyResponseOkWithEntity(delta, httpResponse);
+    }
+
+    @Test
+    public void testGetDeltaSinceRequest() throws Exception {
+        Applications delta = InstanceInfoGenerator.newBuilder(2, 1).build().takeDelta(2);
+        when(requestHandler.getDeltaSince(5, 0)).thenReturn(createResponse(delta));
+
+        EurekaHttpResponse<Applications> httpResponse = getEurekaHttpClient().getDeltaSince(5, 0);
+        verifyResponseOkWithEntity(delta, httpResponse);
+    }
+
     @Test
     public void testGetInstanceRequest() throws Exception {
         InstanceInfo instance = InstanceInfoGenerator.takeOne();
@@ -138,7 +138,22 @@ public class SimpleEurekaHttpServer {
             httpResponse = regions == null ? requestHandler.getApplications() : requestHandler.getApplications(regions);
         } else if (path.matches("/v2/apps/delta[/]?")) {
             String regions = getQueryParam(httpExchange, "regions");
-            httpResponse = regions == null ? requestHandler.getDelta() : requestHandler.getDelta(regions);
+            String lastSeenVersion = getQueryParam(httpExchange, "lastSeenVersion");
+            String sinceVersion = getQueryParam(httpExchange, "since");
+            if (sinceVersion != null) {
+                String maxWaitMs = getQueryParam(httpExchange, "maxWaitMs");
+                long waitMs = maxWaitMs == null ? 0 : Long.parseLong(maxWaitMs);
+                httpResponse = regions == null
+                        ? requestHandler.getDeltaSince(Long.parseLong(sinceVersion), waitMs)
+                        : requestHandler.getDeltaSince(Long.parseLong(sinceVersion), waitMs, regions);
+            } else if (lastSeenVersion != null) {
+                long maxWaitMs = Long.parseLong(getQueryParam(httpExchange, "maxWaitMs"));
+                httpResponse = regions == null
+                        ? requestHandler.longPollDelta(Long.parseLong(lastSeenVersion), maxWaitMs)
+                        : requestHandler.longPollDelta(Long.parseLong(lastSeenVersion), maxWaitMs, regions);
+            } else {
+                httpResponse = regions == null ? requestHandler.getDelta() : requestHandler.getDelta(regions);
+            }
         } else if ((matcher = Pattern.compile("/v2/apps/([^/]+)/([^/]+)").matcher(path)).matches()) {
             httpResponse = requestHandler.getInstance(matcher.group(1), matcher.group(2));
         } else {